@@ -0,0 +1,123 @@
+package com.audit.common.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * protobuf线格式读取器，数据不完整时抛出IllegalArgumentException
+ */
+final class ProtoReader {
+
+    private final byte[] data;
+    private final int limit;
+    private int position;
+
+    ProtoReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    private ProtoReader(byte[] data, int offset, int limit) {
+        this.data = data;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    int readTag() {
+        long tag = readVarint();
+        if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid field tag: " + tag);
+        }
+        return (int) tag;
+    }
+
+    long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    int readInt32() {
+        return (int) readVarint();
+    }
+
+    long readSInt64() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (data[position++] & 0xFF) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = readLength();
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    ProtoReader readMessage() {
+        int length = readLength();
+        ProtoReader nested = new ProtoReader(data, position, position + length);
+        position += length;
+        return nested;
+    }
+
+    /**
+     * 跳过未知字段，新版本增加的字段对旧版本透明
+     */
+    void skipField(int tag) {
+        switch (tag & 0x7) {
+            case ProtoWriter.WIRE_VARINT:
+                readVarint();
+                break;
+            case ProtoWriter.WIRE_FIXED64:
+                require(8);
+                position += 8;
+                break;
+            case ProtoWriter.WIRE_LENGTH_DELIMITED:
+                int length = readLength();
+                position += length;
+                break;
+            case ProtoWriter.WIRE_FIXED32:
+                require(4);
+                position += 4;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type: " + (tag & 0x7));
+        }
+    }
+
+    private int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private byte readByte() {
+        require(1);
+        return data[position++];
+    }
+
+    private void require(int bytes) {
+        if (limit - position < bytes) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.audit.common.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * protobuf线格式写入器，null字段直接跳过（即“未设置”）
+ */
+final class ProtoWriter {
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_LENGTH_DELIMITED = 2;
+    static final int WIRE_FIXED32 = 5;
+
+    private byte[] buffer;
+    private int position;
+
+    ProtoWriter(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    void writeInt64(int field, Long value) {
+        if (value != null) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(value);
+        }
+    }
+
+    /**
+     * 与protobuf的int32一致，负数按64位符号扩展编码
+     */
+    void writeInt32(int field, Integer value) {
+        if (value != null) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(value.longValue());
+        }
+    }
+
+    void writeSInt64(int field, long value) {
+        writeTag(field, WIRE_VARINT);
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(int field, Double value) {
+        if (value != null) {
+            writeTag(field, WIRE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[position++] = (byte) (bits >>> (8 * i));
+            }
+        }
+    }
+
+    void writeString(int field, String value) {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            writeRaw(bytes, 0, bytes.length);
+        }
+    }
+
+    void writeMessage(int field, ProtoWriter nested) {
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(nested.position);
+        writeRaw(nested.buffer, 0, nested.position);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
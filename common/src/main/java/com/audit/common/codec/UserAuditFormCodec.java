@@ -0,0 +1,215 @@
+package com.audit.common.codec;
+
+import com.audit.common.message.UserAuditFormMessage;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * UserAuditFormMessage的二进制编解码，字段定义见 schema/user_audit_form.proto
+ * 消息格式通过Kafka头 audit-format 标识：缺省或json为JSON，pb1为本编码。
+ * 滚动升级时先升级消费端（两种格式都能解析），再把生产端切换为pb1。
+ */
+public final class UserAuditFormCodec {
+
+    public static final String FORMAT_HEADER = "audit-format";
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_PB1 = "pb1";
+
+    // 消费端据此按批预过滤，无需解析消息体；值均为UTF-8文本
+    public static final String AUDIT_LOG_ID_HEADER = "audit-log-id";
+    public static final String SUBMIT_TIME_HEADER = "audit-submit-time";
+    public static final String PRIORITY_HEADER = "audit-priority";
+
+    private static final String INVESTMENT_EXPERIENCE = "investmentExperience";
+    private static final String INVESTMENT_TARGET = "investmentTarget";
+    private static final String INVESTMENT_EXPIRE = "investmentExpire";
+
+    // UserAuditForm
+    private static final int AUDIT_LOG_ID = 1;
+    private static final int CUSTOMER_ID = 2;
+    private static final int FORM_DATA = 3;
+    private static final int SUBMIT_SECONDS = 4;
+    private static final int SUBMIT_NANOS = 5;
+
+    // FormData
+    private static final int RISK_SCORE = 1;
+    private static final int INVESTOR_TYPE = 2;
+    private static final int INVESTMENT_AMOUNT = 3;
+    private static final int ANNUAL_INCOME = 4;
+    private static final int MAX_LOSS = 5;
+    private static final int CUSTOMER_AGE = 6;
+    private static final int OCCUPATION = 7;
+    private static final int EXPERIENCE_ANSWER = 8;
+    private static final int TARGET_ANSWER = 9;
+    private static final int EXPIRE_ANSWER = 10;
+    private static final int OTHER_ANSWERS = 11;
+
+    // Answer
+    private static final int ANSWER_KEY = 1;
+    private static final int ANSWER_VALUE = 2;
+
+    private UserAuditFormCodec() {
+    }
+
+    public static byte[] encode(UserAuditFormMessage message) {
+        ProtoWriter writer = new ProtoWriter(128);
+        writer.writeInt64(AUDIT_LOG_ID, message.getAuditLogId());
+        writer.writeInt64(CUSTOMER_ID, message.getCustomerId());
+        if (message.getFormData() != null) {
+            writer.writeMessage(FORM_DATA, encodeFormData(message.getFormData()));
+        }
+        LocalDateTime submitTime = message.getSubmitTime();
+        if (submitTime != null) {
+            writer.writeSInt64(SUBMIT_SECONDS, submitTime.toEpochSecond(ZoneOffset.UTC));
+            writer.writeInt32(SUBMIT_NANOS, submitTime.getNano());
+        }
+        return writer.toByteArray();
+    }
+
+    public static UserAuditFormMessage decode(byte[] data) {
+        ProtoReader reader = new ProtoReader(data);
+        UserAuditFormMessage message = new UserAuditFormMessage();
+        Long submitSeconds = null;
+        int submitNanos = 0;
+
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case AUDIT_LOG_ID:
+                    message.setAuditLogId(reader.readVarint());
+                    break;
+                case CUSTOMER_ID:
+                    message.setCustomerId(reader.readVarint());
+                    break;
+                case FORM_DATA:
+                    message.setFormData(decodeFormData(reader.readMessage()));
+                    break;
+                case SUBMIT_SECONDS:
+                    submitSeconds = reader.readSInt64();
+                    break;
+                case SUBMIT_NANOS:
+                    submitNanos = reader.readInt32();
+                    break;
+                default:
+                    reader.skipField(tag);
+            }
+        }
+
+        if (submitSeconds != null) {
+            message.setSubmitTime(LocalDateTime.ofEpochSecond(submitSeconds, submitNanos, ZoneOffset.UTC));
+        }
+        return message;
+    }
+
+    private static ProtoWriter encodeFormData(UserAuditFormMessage.FormData formData) {
+        ProtoWriter writer = new ProtoWriter(96);
+        writer.writeInt32(RISK_SCORE, formData.getRiskScore());
+        writer.writeString(INVESTOR_TYPE, formData.getInvestorType());
+        writer.writeDouble(INVESTMENT_AMOUNT, formData.getInvestmentAmount());
+        writer.writeInt32(ANNUAL_INCOME, formData.getAnnualIncome());
+        writer.writeInt32(MAX_LOSS, formData.getMaxLoss());
+        writer.writeInt32(CUSTOMER_AGE, formData.getCustomerAge());
+        writer.writeString(OCCUPATION, formData.getOccupation());
+
+        Map<String, Object> answers = formData.getQuestionnaireAnswers();
+        if (answers != null) {
+            for (Map.Entry<String, Object> entry : answers.entrySet()) {
+                String value = entry.getValue() != null ? String.valueOf(entry.getValue()) : null;
+                int field = answerField(entry.getKey());
+                if (field > 0) {
+                    writer.writeString(field, value);
+                } else if (entry.getKey() != null) {
+                    ProtoWriter answer = new ProtoWriter(32);
+                    answer.writeString(ANSWER_KEY, entry.getKey());
+                    answer.writeString(ANSWER_VALUE, value);
+                    writer.writeMessage(OTHER_ANSWERS, answer);
+                }
+            }
+        }
+        return writer;
+    }
+
+    private static UserAuditFormMessage.FormData decodeFormData(ProtoReader reader) {
+        UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData();
+        Map<String, Object> answers = new HashMap<>();
+
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case RISK_SCORE:
+                    formData.setRiskScore(reader.readInt32());
+                    break;
+                case INVESTOR_TYPE:
+                    formData.setInvestorType(reader.readString());
+                    break;
+                case INVESTMENT_AMOUNT:
+                    formData.setInvestmentAmount(reader.readDouble());
+                    break;
+                case ANNUAL_INCOME:
+                    formData.setAnnualIncome(reader.readInt32());
+                    break;
+                case MAX_LOSS:
+                    formData.setMaxLoss(reader.readInt32());
+                    break;
+                case CUSTOMER_AGE:
+                    formData.setCustomerAge(reader.readInt32());
+                    break;
+                case OCCUPATION:
+                    formData.setOccupation(reader.readString());
+                    break;
+                case EXPERIENCE_ANSWER:
+                    answers.put(INVESTMENT_EXPERIENCE, reader.readString());
+                    break;
+                case TARGET_ANSWER:
+                    answers.put(INVESTMENT_TARGET, reader.readString());
+                    break;
+                case EXPIRE_ANSWER:
+                    answers.put(INVESTMENT_EXPIRE, reader.readString());
+                    break;
+                case OTHER_ANSWERS:
+                    decodeAnswer(reader.readMessage(), answers);
+                    break;
+                default:
+                    reader.skipField(tag);
+            }
+        }
+
+        formData.setQuestionnaireAnswers(answers);
+        return formData;
+    }
+
+    private static void decodeAnswer(ProtoReader reader, Map<String, Object> answers) {
+        String key = null;
+        String value = null;
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case ANSWER_KEY:
+                    key = reader.readString();
+                    break;
+                case ANSWER_VALUE:
+                    value = reader.readString();
+                    break;
+                default:
+                    reader.skipField(tag);
+            }
+        }
+        if (key != null) {
+            answers.put(key, value);
+        }
+    }
+
+    private static int answerField(String key) {
+        if (INVESTMENT_EXPERIENCE.equals(key)) {
+            return EXPERIENCE_ANSWER;
+        } else if (INVESTMENT_TARGET.equals(key)) {
+            return TARGET_ANSWER;
+        } else if (INVESTMENT_EXPIRE.equals(key)) {
+            return EXPIRE_ANSWER;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.audit.common.enums;
+
+public enum RiskType {
+    // code与前端getRiskTypeText一致：0稳健型 1保守型 2激进型；分段与前端getRiskConfig、AI提示词一致
+    CONSERVATIVE("保守型", 1, 0, 39),
+    BALANCED("稳健型", 0, 40, 69),
+    AGGRESSIVE("激进型", 2, 70, 100);
+
+    // 按评分直接下标取类型，fromScore为O(1)
+    private static final RiskType[] BY_SCORE = new RiskType[101];
+
+    static {
+        for (RiskType type : values()) {
+            for (int score = type.minScore; score <= type.maxScore; score++) {
+                BY_SCORE[score] = type;
+            }
+        }
+    }
+
+    private final String description;
+    private final int code;
+    private final int minScore;
+    private final int maxScore;
+
+    RiskType(String description, int code, int minScore, int maxScore) {
+        this.description = description;
+        this.code = code;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public int getMinScore() {
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public static RiskType fromScore(Integer score) {
+        if (score == null) {
+            throw new IllegalArgumentException("风险评分不能为空");
+        }
+
+        if (score < 0 || score >= BY_SCORE.length) {
+            throw new IllegalArgumentException("无效的风险评分: " + score);
+        }
+
+        return BY_SCORE[score];
+    }
+}
@@ -0,0 +1,54 @@
+package com.audit.common.message;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * 消费端生成的AI审核结果，经 audit_ai_result_topic 回传给客户服务写库
+ */
+public class AuditAiResultMessage {
+
+    public static final String TOPIC = "audit_ai_result_topic";
+
+    @JsonProperty("auditLogId")
+    private Long auditLogId;
+
+    @JsonProperty("aiAudit")
+    private String aiAudit;
+
+    @JsonProperty("generatedAt")
+    private LocalDateTime generatedAt;
+
+    public AuditAiResultMessage() {}
+
+    public AuditAiResultMessage(Long auditLogId, String aiAudit, LocalDateTime generatedAt) {
+        this.auditLogId = auditLogId;
+        this.aiAudit = aiAudit;
+        this.generatedAt = generatedAt;
+    }
+
+    public Long getAuditLogId() {
+        return auditLogId;
+    }
+
+    public void setAuditLogId(Long auditLogId) {
+        this.auditLogId = auditLogId;
+    }
+
+    public String getAiAudit() {
+        return aiAudit;
+    }
+
+    public void setAiAudit(String aiAudit) {
+        this.aiAudit = aiAudit;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
@@ -1,4 +1,4 @@
-package com.audit.customer.dto;
+package com.audit.common.message;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -7,6 +7,10 @@ import java.util.Map;
 
 public class UserAuditFormMessage {
     
+    public static final String TOPIC = "user_audit_form_topic";
+    // 快速通道：优先级大于0的问卷，消费端使用独立的消费组和并发度
+    public static final String PRIORITY_TOPIC = "user_audit_form_priority_topic";
+    
     @JsonProperty("auditLogId")
     private Long auditLogId;
     
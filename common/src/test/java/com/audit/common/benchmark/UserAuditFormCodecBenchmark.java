@@ -0,0 +1,79 @@
+package com.audit.common.benchmark;
+
+import com.audit.common.codec.UserAuditFormCodec;
+import com.audit.common.message.UserAuditFormMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审核表单消息编解码：pb1二进制格式 vs JSON（ObjectMapper配置与两个服务一致）
+ * 分配量用 -prof gc 查看（gc.alloc.rate.norm）；消息体大小见UserAuditFormCodecTest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAuditFormCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private UserAuditFormMessage message;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("investmentExperience", "3-5年投资经验");
+        answers.put("investmentTarget", "稳健增值");
+        answers.put("investmentExpire", "1-3年");
+        UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData(
+                55, "稳健型", 200000.0, 2, 3, answers, null, "工程师");
+        message = new UserAuditFormMessage(1843000123L, 1843000120L, formData,
+                LocalDateTime.of(2024, 6, 11, 9, 30, 15, 123456789));
+
+        json = objectMapper.writeValueAsBytes(message);
+        binary = UserAuditFormCodec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return UserAuditFormCodec.encode(message);
+    }
+
+    @Benchmark
+    public UserAuditFormMessage decodeJson() throws IOException {
+        return objectMapper.readValue(json, UserAuditFormMessage.class);
+    }
+
+    @Benchmark
+    public UserAuditFormMessage decodeBinary() {
+        return UserAuditFormCodec.decode(binary);
+    }
+}
@@ -0,0 +1,153 @@
+package com.audit.common.codec;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserAuditFormCodecTest {
+
+    @Test
+    void roundTripsAllFields() {
+        UserAuditFormMessage decoded = UserAuditFormCodec.decode(UserAuditFormCodec.encode(typicalMessage()));
+
+        assertEquals(9007199254740993L, decoded.getAuditLogId());
+        assertEquals(42L, decoded.getCustomerId());
+        assertEquals(LocalDateTime.of(2024, 6, 11, 9, 30, 15, 123456789), decoded.getSubmitTime());
+
+        UserAuditFormMessage.FormData formData = decoded.getFormData();
+        assertEquals(55, formData.getRiskScore());
+        assertEquals("稳健型", formData.getInvestorType());
+        assertEquals(200000.5, formData.getInvestmentAmount());
+        assertEquals(2, formData.getAnnualIncome());
+        assertEquals(3, formData.getMaxLoss());
+        assertEquals(35, formData.getCustomerAge());
+        assertEquals("工程师 / Engineer", formData.getOccupation());
+        assertEquals(typicalMessage().getFormData().getQuestionnaireAnswers(), formData.getQuestionnaireAnswers());
+    }
+
+    @Test
+    void submitTimeBeforeTheEpochRoundTrips() {
+        UserAuditFormMessage message = new UserAuditFormMessage(1L, 2L, null,
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+
+        assertEquals(message.getSubmitTime(),
+                UserAuditFormCodec.decode(UserAuditFormCodec.encode(message)).getSubmitTime());
+    }
+
+    @Test
+    void unsetFieldsStayNull() {
+        UserAuditFormMessage decoded = UserAuditFormCodec.decode(
+                UserAuditFormCodec.encode(new UserAuditFormMessage(7L, null, new UserAuditFormMessage.FormData(), null)));
+
+        assertEquals(7L, decoded.getAuditLogId());
+        assertNull(decoded.getCustomerId());
+        assertNull(decoded.getSubmitTime());
+        assertNull(decoded.getFormData().getRiskScore());
+        assertNull(decoded.getFormData().getInvestmentAmount());
+        assertNull(decoded.getFormData().getOccupation());
+        assertTrue(decoded.getFormData().getQuestionnaireAnswers().isEmpty());
+
+        assertNull(UserAuditFormCodec.decode(UserAuditFormCodec.encode(new UserAuditFormMessage(7L, 8L, null, null)))
+                .getFormData());
+    }
+
+    @Test
+    void emptyPayloadDecodesToAnEmptyMessage() {
+        UserAuditFormMessage decoded = UserAuditFormCodec.decode(new byte[0]);
+
+        assertNull(decoded.getAuditLogId());
+        assertNull(decoded.getFormData());
+        assertNull(decoded.getSubmitTime());
+    }
+
+    @Test
+    void otherAnswersAreKeptAndValuesBecomeText() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("investmentExperience", "1-3年");
+        answers.put("investmentTarget", null);
+        answers.put("riskTolerance", "15-30%");
+        answers.put("dependents", 2);
+        UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData();
+        formData.setQuestionnaireAnswers(answers);
+
+        Map<String, Object> decoded = UserAuditFormCodec.decode(
+                UserAuditFormCodec.encode(new UserAuditFormMessage(1L, 2L, formData, null)))
+                .getFormData().getQuestionnaireAnswers();
+
+        assertEquals("1-3年", decoded.get("investmentExperience"));
+        assertNull(decoded.get("investmentTarget"));
+        assertEquals("15-30%", decoded.get("riskTolerance"));
+        assertEquals("2", decoded.get("dependents"));
+    }
+
+    @Test
+    void skipsFieldsAddedByNewerProducers() {
+        ProtoWriter formData = new ProtoWriter(64);
+        formData.writeInt32(1, 80);
+        formData.writeString(30, "future answer");
+        formData.writeInt64(31, 123456789L);
+        formData.writeString(7, "教师");
+
+        ProtoWriter writer = new ProtoWriter(64);
+        writer.writeInt64(20, 99L);
+        writer.writeInt64(1, 5L);
+        writer.writeDouble(21, 1.5);
+        writer.writeMessage(3, formData);
+        writer.writeString(22, "extension");
+        writer.writeInt64(2, 6L);
+
+        UserAuditFormMessage decoded = UserAuditFormCodec.decode(writer.toByteArray());
+
+        assertEquals(5L, decoded.getAuditLogId());
+        assertEquals(6L, decoded.getCustomerId());
+        assertEquals(80, decoded.getFormData().getRiskScore());
+        assertEquals("教师", decoded.getFormData().getOccupation());
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] encoded = UserAuditFormCodec.encode(typicalMessage());
+
+        for (int length : new int[] {1, encoded.length / 2, encoded.length - 1}) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> UserAuditFormCodec.decode(truncated),
+                    "length " + length);
+        }
+    }
+
+    @Test
+    void binaryPayloadIsSmallerThanJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        UserAuditFormMessage message = typicalMessage();
+
+        int jsonSize = objectMapper.writeValueAsBytes(message).length;
+        int binarySize = UserAuditFormCodec.encode(message).length;
+
+        assertTrue(binarySize * 2 < jsonSize, "pb1 " + binarySize + " bytes vs json " + jsonSize + " bytes");
+    }
+
+    static UserAuditFormMessage typicalMessage() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("investmentExperience", "3-5年投资经验");
+        answers.put("investmentTarget", "稳健增值");
+        answers.put("investmentExpire", "1-3年");
+        answers.put("riskTolerance", "15-30%");
+        UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData(
+                55, "稳健型", 200000.5, 2, 3, answers, 35, "工程师 / Engineer");
+        return new UserAuditFormMessage(9007199254740993L, 42L, formData,
+                LocalDateTime.of(2024, 6, 11, 9, 30, 15, 123456789));
+    }
+}
@@ -7,9 +7,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableKafka
+@EnableScheduling
 public class AuditConsumerApplication {
     
     private static final Logger logger = LoggerFactory.getLogger(AuditConsumerApplication.class);
@@ -25,7 +27,7 @@ public class AuditConsumerApplication {
         logger.info("🎉 AUDIT CONSUMER SERVICE STARTED SUCCESSFULLY");
         logger.info("===============================================");
         logger.info("✅ Kafka Consumer is ready to process messages");
-        logger.info("📡 Listening on topic: user_audit_form_topic");
+        logger.info("📡 Listening on topics: user_audit_form_topic, user_audit_form_priority_topic");
         logger.info("🤖 DeepSeek AI integration enabled");
         logger.info("💾 Database connection established");
         logger.info("🔍 Ready to process audit form messages...");
@@ -0,0 +1,120 @@
+package com.audit.consumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地规则预审配置（ai.prescreen）
+ * 规则按顺序匹配，条件为空表示不限制；命中规则的问卷直接使用模板策略，不调用AI
+ */
+@Component
+@ConfigurationProperties(prefix = "ai.prescreen")
+public class PrescreenProperties {
+    
+    private boolean enabled = true;
+    
+    private List<Rule> rules = new ArrayList<>();
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public List<Rule> getRules() {
+        return rules;
+    }
+    
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+    
+    public static class Rule {
+        private String name;
+        private Integer minRiskScore;
+        private Integer maxRiskScore;
+        private List<Integer> maxLossCodes = new ArrayList<>();
+        private Integer minAnnualIncome;
+        private Integer maxAnnualIncome;
+        private Double minInvestmentAmount;
+        private Double maxInvestmentAmount;
+        private String strategy;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public Integer getMinRiskScore() {
+            return minRiskScore;
+        }
+        
+        public void setMinRiskScore(Integer minRiskScore) {
+            this.minRiskScore = minRiskScore;
+        }
+        
+        public Integer getMaxRiskScore() {
+            return maxRiskScore;
+        }
+        
+        public void setMaxRiskScore(Integer maxRiskScore) {
+            this.maxRiskScore = maxRiskScore;
+        }
+        
+        public List<Integer> getMaxLossCodes() {
+            return maxLossCodes;
+        }
+        
+        public void setMaxLossCodes(List<Integer> maxLossCodes) {
+            this.maxLossCodes = maxLossCodes;
+        }
+        
+        public Integer getMinAnnualIncome() {
+            return minAnnualIncome;
+        }
+        
+        public void setMinAnnualIncome(Integer minAnnualIncome) {
+            this.minAnnualIncome = minAnnualIncome;
+        }
+        
+        public Integer getMaxAnnualIncome() {
+            return maxAnnualIncome;
+        }
+        
+        public void setMaxAnnualIncome(Integer maxAnnualIncome) {
+            this.maxAnnualIncome = maxAnnualIncome;
+        }
+        
+        public Double getMinInvestmentAmount() {
+            return minInvestmentAmount;
+        }
+        
+        public void setMinInvestmentAmount(Double minInvestmentAmount) {
+            this.minInvestmentAmount = minInvestmentAmount;
+        }
+        
+        public Double getMaxInvestmentAmount() {
+            return maxInvestmentAmount;
+        }
+        
+        public void setMaxInvestmentAmount(Double maxInvestmentAmount) {
+            this.maxInvestmentAmount = maxInvestmentAmount;
+        }
+        
+        public String getStrategy() {
+            return strategy;
+        }
+        
+        public void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+    }
+}
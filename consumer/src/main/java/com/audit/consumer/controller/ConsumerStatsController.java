@@ -0,0 +1,66 @@
+package com.audit.consumer.controller;
+
+import com.audit.consumer.service.AiAuditProvider;
+import com.audit.consumer.service.ChatCompletionAiProvider;
+import com.audit.consumer.service.LaneLatencyStats;
+import com.audit.consumer.service.RulePrescreenService;
+import com.audit.consumer.service.TokenBucketRateLimiter;
+import com.audit.consumer.service.TokenUsageTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/consumer/stats")
+public class ConsumerStatsController {
+    
+    @Autowired
+    private RulePrescreenService rulePrescreenService;
+    
+    @Autowired
+    private TokenUsageTracker tokenUsageTracker;
+    
+    @Autowired
+    private List<AiAuditProvider> providers;
+    
+    @Autowired
+    private LaneLatencyStats laneLatencyStats;
+    
+    @GetMapping("/prescreen")
+    public ResponseEntity<Map<String, Object>> getPrescreenStatistics() {
+        return ResponseEntity.ok(rulePrescreenService.getStatistics());
+    }
+    
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> getLaneStatistics() {
+        return ResponseEntity.ok(laneLatencyStats.getStatistics());
+    }
+    
+    @GetMapping("/tokens")
+    public ResponseEntity<Map<String, Object>> getTokenStatistics() {
+        Map<String, Object> rateLimits = new LinkedHashMap<>();
+        for (AiAuditProvider provider : providers) {
+            if (provider instanceof ChatCompletionAiProvider) {
+                TokenBucketRateLimiter rateLimiter = ((ChatCompletionAiProvider) provider).getRateLimiter();
+                if (rateLimiter != null) {
+                    Map<String, Object> limiterStats = new LinkedHashMap<>();
+                    limiterStats.put("availableTokens", (long) rateLimiter.getAvailableTokens());
+                    limiterStats.put("delayedCalls", rateLimiter.getDelayedCalls());
+                    limiterStats.put("totalDelayMs", rateLimiter.getTotalDelayMs());
+                    rateLimits.put(provider.getName(), limiterStats);
+                }
+            }
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hourlyUsage", tokenUsageTracker.getHourlyUsage());
+        statistics.put("rateLimits", rateLimits);
+        return ResponseEntity.ok(statistics);
+    }
+}
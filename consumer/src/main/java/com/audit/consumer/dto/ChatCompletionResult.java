@@ -0,0 +1,35 @@
+package com.audit.consumer.dto;
+
+/**
+ * chat/completions响应中需要的部分：生成内容和token用量
+ */
+public class ChatCompletionResult {
+    
+    private final String content;
+    private final int promptTokens;
+    private final int completionTokens;
+    private final int totalTokens;
+    
+    public ChatCompletionResult(String content, int promptTokens, int completionTokens, int totalTokens) {
+        this.content = content;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.totalTokens = totalTokens;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+    
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+    
+    public int getTotalTokens() {
+        return totalTokens;
+    }
+}
@@ -0,0 +1,33 @@
+package com.audit.consumer.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * customer_info表的只读映射，不包含姓名、手机号、身份证等敏感字段
+ */
+@Entity
+@Table(name = "customer_info")
+public class CustomerInfo {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "occupation", length = 100, insertable = false, updatable = false)
+    private String occupation;
+    
+    @Column(name = "invest_amount", precision = 18, scale = 2, insertable = false, updatable = false)
+    private BigDecimal investAmount;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getOccupation() {
+        return occupation;
+    }
+    
+    public BigDecimal getInvestAmount() {
+        return investAmount;
+    }
+}
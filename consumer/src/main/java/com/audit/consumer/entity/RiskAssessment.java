@@ -0,0 +1,83 @@
+package com.audit.consumer.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * risk_assessment表的只读映射，仅包含重建FormData需要的字段
+ */
+@Entity
+@Table(name = "risk_assessment")
+public class RiskAssessment {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "customer_id", nullable = false, insertable = false, updatable = false)
+    private Long customerId;
+    
+    @Column(name = "annual_income", nullable = false, insertable = false, updatable = false)
+    private Integer annualIncome;
+    
+    @Column(name = "investment_amount", nullable = false, precision = 18, scale = 2, insertable = false, updatable = false)
+    private BigDecimal investmentAmount;
+    
+    @Column(name = "investment_experience", length = 100, insertable = false, updatable = false)
+    private String investmentExperience;
+    
+    @Column(name = "max_loss", nullable = false, insertable = false, updatable = false)
+    private Integer maxLoss;
+    
+    @Column(name = "investment_target", length = 100, insertable = false, updatable = false)
+    private String investmentTarget;
+    
+    @Column(name = "investment_expire", length = 100, insertable = false, updatable = false)
+    private String investmentExpire;
+    
+    @Column(name = "score", nullable = false, insertable = false, updatable = false)
+    private Integer score;
+    
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getCustomerId() {
+        return customerId;
+    }
+    
+    public Integer getAnnualIncome() {
+        return annualIncome;
+    }
+    
+    public BigDecimal getInvestmentAmount() {
+        return investmentAmount;
+    }
+    
+    public String getInvestmentExperience() {
+        return investmentExperience;
+    }
+    
+    public Integer getMaxLoss() {
+        return maxLoss;
+    }
+    
+    public String getInvestmentTarget() {
+        return investmentTarget;
+    }
+    
+    public String getInvestmentExpire() {
+        return investmentExpire;
+    }
+    
+    public Integer getScore() {
+        return score;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.audit.consumer.exception;
+
+public class AiProviderException extends RuntimeException {
+    
+    public AiProviderException(String message) {
+        super(message);
+    }
+    
+    public AiProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
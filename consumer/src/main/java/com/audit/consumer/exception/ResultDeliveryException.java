@@ -0,0 +1,11 @@
+package com.audit.consumer.exception;
+
+/**
+ * topic模式下AI结果重试后仍未发送到Kafka，输入消息需要重新投递
+ */
+public class ResultDeliveryException extends RuntimeException {
+
+    public ResultDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,109 @@
+package com.audit.consumer.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 离线补偿任务的共享状态（ai_backfill_state表，每个任务一行）
+ * 多个消费端实例通过租约锁保证同一时间只有一个实例在补偿；检查点和本小时的token花费也记在这里，
+ * 换实例执行时从同一位置继续，预算也不会重新计算。
+ * 表不由JPA管理（消费端ddl-auto为validate），首次使用时创建；result-topic模式下补偿关闭，不会访问数据库。
+ */
+@Repository
+public class AiBackfillStateRepository {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+
+    /**
+     * 获取或续期租约：无人持有、租约已过期或本实例持有时成功
+     */
+    public boolean tryLock(String jobName, String owner, long leaseMs) {
+        ensureRow(jobName);
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(
+                "UPDATE ai_backfill_state SET lock_owner = ?, locked_until = ? " +
+                "WHERE job_name = ? AND (lock_owner IS NULL OR locked_until < ? OR lock_owner = ?)",
+                owner, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)), jobName, now, owner) == 1;
+    }
+
+    public void unlock(String jobName, String owner) {
+        jdbcTemplate.update(
+                "UPDATE ai_backfill_state SET lock_owner = NULL, locked_until = NULL " +
+                "WHERE job_name = ? AND lock_owner = ?",
+                jobName, owner);
+    }
+
+    public long readCheckpoint(String jobName) {
+        List<Long> lastIds = jdbcTemplate.queryForList(
+                "SELECT last_id FROM ai_backfill_state WHERE job_name = ?", Long.class, jobName);
+        return lastIds.isEmpty() ? 0L : lastIds.get(0);
+    }
+
+    /**
+     * 写入检查点并续租
+     * @return false表示租约已被其他实例接管，调用方应停止本轮补偿
+     */
+    public boolean writeCheckpoint(String jobName, String owner, long lastId, long leaseMs) {
+        return jdbcTemplate.update(
+                "UPDATE ai_backfill_state SET last_id = ?, locked_until = ? WHERE job_name = ? AND lock_owner = ?",
+                lastId, LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)),
+                jobName, owner) == 1;
+    }
+
+    /**
+     * 累加补偿调用的token花费，跨小时自动清零
+     */
+    public void addTokens(String jobName, long tokens) {
+        long hour = currentHour();
+        // MySQL按从左到右的顺序赋值，budget_tokens使用的是更新前的budget_hour
+        jdbcTemplate.update(
+                "UPDATE ai_backfill_state SET " +
+                "budget_tokens = CASE WHEN budget_hour = ? THEN budget_tokens + ? ELSE ? END, budget_hour = ? " +
+                "WHERE job_name = ?",
+                hour, tokens, tokens, hour, jobName);
+    }
+
+    public long getTokensInCurrentHour(String jobName) {
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT budget_tokens FROM ai_backfill_state WHERE job_name = ? AND budget_hour = ?",
+                Long.class, jobName, currentHour());
+        return tokens.isEmpty() ? 0L : tokens.get(0);
+    }
+
+    private void ensureRow(String jobName) {
+        if (!tableReady) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ai_backfill_state (" +
+                    "job_name VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                    "last_id BIGINT NOT NULL DEFAULT 0, " +
+                    "lock_owner VARCHAR(128), " +
+                    "locked_until DATETIME(3), " +
+                    "budget_hour BIGINT NOT NULL DEFAULT 0, " +
+                    "budget_tokens BIGINT NOT NULL DEFAULT 0)");
+            tableReady = true;
+        }
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ai_backfill_state WHERE job_name = ?", Integer.class, jobName);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO ai_backfill_state (job_name) VALUES (?)", jobName);
+            } catch (DuplicateKeyException e) {
+                // 其他实例同时插入
+            }
+        }
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / HOUR_MILLIS;
+    }
+}
@@ -1,9 +1,51 @@
 package com.audit.consumer.repository;
 
 import com.audit.consumer.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-}
\ No newline at end of file
+    
+    @Query("SELECT al FROM AuditLog al WHERE al.id > :afterId AND al.aiAudit IN :placeholders " +
+           "AND al.status IN :statusList ORDER BY al.id ASC")
+    List<AuditLog> findPlaceholderAuditsAfterId(@Param("afterId") Long afterId,
+                                                @Param("placeholders") List<String> placeholders,
+                                                @Param("statusList") List<Integer> statusList,
+                                                Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE AuditLog al SET al.aiAudit = :aiAudit, al.updatedAt = :updatedAt " +
+           "WHERE al.id = :id AND al.aiAudit IN :placeholders")
+    int updateAiAuditIfPlaceholder(@Param("id") Long id,
+                                   @Param("aiAudit") String aiAudit,
+                                   @Param("placeholders") List<String> placeholders,
+                                   @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * 只取id和状态，用于按批预过滤消息
+     * @return [id, status]
+     */
+    @Query("SELECT al.id, al.status FROM AuditLog al WHERE al.id IN :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE AuditLog al SET al.aiAudit = :aiAudit, al.status = :newStatus, al.updatedAt = :updatedAt " +
+           "WHERE al.id = :id AND al.status = :oldStatus")
+    int updateAiResultIfStatus(@Param("id") Long id,
+                               @Param("aiAudit") String aiAudit,
+                               @Param("newStatus") Integer newStatus,
+                               @Param("oldStatus") Integer oldStatus,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,9 @@
+package com.audit.consumer.repository;
+
+import com.audit.consumer.entity.CustomerInfo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerInfoRepository extends JpaRepository<CustomerInfo, Long> {
+}
@@ -0,0 +1,14 @@
+package com.audit.consumer.repository;
+
+import com.audit.consumer.entity.RiskAssessment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RiskAssessmentRepository extends JpaRepository<RiskAssessment, Long> {
+    
+    List<RiskAssessment> findByCustomerIdIn(Collection<Long> customerIds);
+}
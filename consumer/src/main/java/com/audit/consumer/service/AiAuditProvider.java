@@ -0,0 +1,39 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+
+/**
+ * AI审核策略提供方SPI
+ * 实现类失败时抛出AiProviderException，由HedgingAiRouter统一降级
+ */
+public interface AiAuditProvider {
+    
+    String FALLBACK_STRATEGY = "暂时繁忙，无法生成策略";
+    
+    /**
+     * 提供方名称，用于日志和延迟统计
+     */
+    String getName();
+    
+    /**
+     * 根据问卷数据生成审核策略
+     */
+    String generateAuditStrategy(UserAuditFormMessage.FormData formData);
+    
+    /**
+     * 可计时、可取消的调用，由HedgingAiRouter使用
+     * 有排队或限流等待的实现应在真正发出请求时调用context.requestStarted，等待时间不计入延迟；
+     * 默认实现把整个调用计入延迟，且不能中途取消
+     */
+    default String generateAuditStrategy(UserAuditFormMessage.FormData formData, AiCallContext context) {
+        context.requestStarted(() -> { });
+        boolean success = false;
+        try {
+            String result = generateAuditStrategy(formData);
+            success = true;
+            return result;
+        } finally {
+            context.requestFinished(success);
+        }
+    }
+}
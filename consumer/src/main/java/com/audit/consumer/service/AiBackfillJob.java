@@ -0,0 +1,251 @@
+package com.audit.consumer.service;
+
+import com.audit.common.enums.RiskType;
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.entity.AuditLog;
+import com.audit.consumer.entity.CustomerInfo;
+import com.audit.consumer.entity.RiskAssessment;
+import com.audit.consumer.repository.AiBackfillStateRepository;
+import com.audit.consumer.repository.AuditLogRepository;
+import com.audit.consumer.repository.CustomerInfoRepository;
+import com.audit.consumer.repository.RiskAssessmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * AI策略离线补偿任务
+ * 按id键集分页扫描ai_audit仍为占位文案的审核记录，从risk_assessment和customer_info重建FormData后重新生成策略。
+ * 每轮受调用次数和每小时token预算限制（只统计补偿自身的花费，不含实时流量）。
+ * 检查点、预算和租约锁都保存在ai_backfill_state表中，多个实例同一时间只有一个在补偿，换实例后从断点继续。
+ */
+@Service
+public class AiBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiBackfillJob.class);
+
+    public static final List<String> PLACEHOLDERS = List.of(AiAuditProvider.FALLBACK_STRATEGY, "消息发送失败，待重试");
+
+    // 只补偿尚未终审的记录：0待分配、1已分配未完成
+    private static final List<Integer> BACKFILL_STATUSES = List.of(0, 1);
+
+    private static final String JOB_NAME = "ai-backfill";
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private RiskAssessmentRepository riskAssessmentRepository;
+
+    @Autowired
+    private CustomerInfoRepository customerInfoRepository;
+
+    @Autowired
+    private RulePrescreenService rulePrescreenService;
+
+    @Autowired
+    private HedgingAiRouter aiRouter;
+
+    @Autowired
+    private AiBackfillStateRepository stateRepository;
+
+    @Value("${ai.backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.backfill.page-size:50}")
+    private int pageSize;
+
+    @Value("${ai.backfill.max-calls-per-run:100}")
+    private int maxCallsPerRun;
+
+    @Value("${ai.backfill.call-interval-ms:2000}")
+    private long callIntervalMs;
+
+    @Value("${ai.backfill.hourly-token-budget:20000}")
+    private long hourlyTokenBudget;
+
+    // 租约时长，需大于单次AI调用加调用间隔的最长耗时；每处理一条记录续租一次
+    @Value("${ai.backfill.lock-lease-ms:300000}")
+    private long lockLeaseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final String instanceId = resolveHostName() + "-" + UUID.randomUUID();
+
+    @Scheduled(initialDelayString = "${ai.backfill.initial-delay-ms:60000}",
+               fixedDelayString = "${ai.backfill.interval-ms:600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * 执行一轮补偿
+     * @return 本轮成功写回的记录数
+     */
+    public int runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("AI backfill already running, skipping");
+            return 0;
+        }
+
+        int calls = 0;
+        int updated = 0;
+        boolean locked = false;
+
+        try {
+            locked = stateRepository.tryLock(JOB_NAME, instanceId, lockLeaseMs);
+            if (!locked) {
+                logger.info("AI backfill is running on another instance, skipping");
+                return 0;
+            }
+            long lastId = stateRepository.readCheckpoint(JOB_NAME);
+            logger.info("=== AI BACKFILL STARTED from id > {} on {} ===", lastId, instanceId);
+
+            while (calls < maxCallsPerRun) {
+                List<AuditLog> page = auditLogRepository.findPlaceholderAuditsAfterId(
+                        lastId, PLACEHOLDERS, BACKFILL_STATUSES, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    // 一轮扫描结束，下次从头开始，处理之前仍失败的记录
+                    logger.info("AI backfill reached the end of placeholder audits, resetting checkpoint");
+                    stateRepository.writeCheckpoint(JOB_NAME, instanceId, 0L, lockLeaseMs);
+                    break;
+                }
+
+                Map<Long, UserAuditFormMessage.FormData> formDataByCustomer = rebuildFormData(page);
+
+                for (AuditLog auditLog : page) {
+                    if (calls >= maxCallsPerRun || isOverBudget()) {
+                        logger.info("AI backfill budget reached after {} calls, pausing at id {}", calls, lastId);
+                        return updated;
+                    }
+
+                    UserAuditFormMessage.FormData formData = formDataByCustomer.get(auditLog.getCustomerId());
+                    if (formData == null) {
+                        logger.warn("No risk assessment for customer {}, skipping audit {}",
+                                auditLog.getCustomerId(), auditLog.getId());
+                    } else {
+                        calls++;
+                        String strategy = rulePrescreenService.prescreen(formData)
+                                .orElseGet(() -> aiRouter.generateAuditStrategy(formData,
+                                        tokens -> stateRepository.addTokens(JOB_NAME, tokens)));
+
+                        if (PLACEHOLDERS.contains(strategy)) {
+                            // 提供方仍不可用，停在当前记录，下次从这里继续
+                            logger.warn("AI provider still busy, pausing backfill at audit {}", auditLog.getId());
+                            return updated;
+                        }
+
+                        int rows = auditLogRepository.updateAiAuditIfPlaceholder(
+                                auditLog.getId(), strategy, PLACEHOLDERS, LocalDateTime.now());
+                        updated += rows;
+                        logger.info("Backfilled audit {}: {}", auditLog.getId(),
+                                rows > 0 ? "updated" : "skipped, no longer a placeholder");
+                    }
+
+                    lastId = auditLog.getId();
+                    if (!stateRepository.writeCheckpoint(JOB_NAME, instanceId, lastId, lockLeaseMs)) {
+                        logger.warn("AI backfill lease was taken over by another instance, stopping at audit {}", lastId);
+                        return updated;
+                    }
+                    sleepBetweenCalls();
+                }
+            }
+            return updated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return updated;
+        } finally {
+            if (locked) {
+                stateRepository.unlock(JOB_NAME, instanceId);
+                logger.info("=== AI BACKFILL FINISHED: {} calls, {} audits updated ===", calls, updated);
+            }
+            running.set(false);
+        }
+    }
+
+    private Map<Long, UserAuditFormMessage.FormData> rebuildFormData(List<AuditLog> auditLogs) {
+        Set<Long> customerIds = auditLogs.stream()
+                .map(AuditLog::getCustomerId)
+                .collect(Collectors.toSet());
+
+        Map<Long, CustomerInfo> customerMap = customerInfoRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(CustomerInfo::getId, Function.identity()));
+
+        // 每个客户取最新一次风险评估
+        Map<Long, RiskAssessment> riskMap = riskAssessmentRepository.findByCustomerIdIn(customerIds).stream()
+                .collect(Collectors.toMap(RiskAssessment::getCustomerId, Function.identity(),
+                        (a, b) -> a.getId() >= b.getId() ? a : b));
+
+        Map<Long, UserAuditFormMessage.FormData> result = new HashMap<>();
+        for (Map.Entry<Long, RiskAssessment> entry : riskMap.entrySet()) {
+            RiskAssessment risk = entry.getValue();
+            CustomerInfo customer = customerMap.get(entry.getKey());
+
+            Map<String, Object> questionnaireAnswers = new HashMap<>();
+            questionnaireAnswers.put("investmentExperience", risk.getInvestmentExperience());
+            questionnaireAnswers.put("investmentTarget", risk.getInvestmentTarget());
+            questionnaireAnswers.put("investmentExpire", risk.getInvestmentExpire());
+
+            UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData();
+            formData.setRiskScore(risk.getScore());
+            formData.setInvestorType(determineInvestorType(risk.getScore()));
+            formData.setInvestmentAmount(risk.getInvestmentAmount() != null ? risk.getInvestmentAmount().doubleValue() : null);
+            formData.setAnnualIncome(risk.getAnnualIncome());
+            formData.setMaxLoss(risk.getMaxLoss());
+            formData.setQuestionnaireAnswers(questionnaireAnswers);
+            formData.setOccupation(customer != null ? customer.getOccupation() : null);
+            result.put(entry.getKey(), formData);
+        }
+        return result;
+    }
+
+    /**
+     * 分段使用公共模块的RiskType，与客户服务写入时的风险分类一致；超出0-100的脏数据不填类型
+     */
+    private String determineInvestorType(Integer score) {
+        if (score == null) {
+            return null;
+        }
+        try {
+            return RiskType.fromScore(score).getDescription();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isOverBudget() {
+        return hourlyTokenBudget > 0 && stateRepository.getTokensInCurrentHour(JOB_NAME) >= hourlyTokenBudget;
+    }
+
+    private void sleepBetweenCalls() throws InterruptedException {
+        if (callIntervalMs > 0) {
+            Thread.sleep(callIntervalMs);
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.audit.consumer.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * 一次AI调用的上下文，由HedgingAiRouter创建
+ * 提供方在取得限流许可、真正发出请求时调用requestStarted，延迟只从这里开始计时；
+ * 对冲竞争结束后路由通过cancel中止落败的请求
+ */
+public class AiCallContext {
+
+    private final LongConsumer latencyListener;
+    private final LongConsumer tokenListener;
+    private final AtomicBoolean latencyRecorded = new AtomicBoolean();
+
+    private volatile boolean cancelled;
+    private volatile Runnable abortAction;
+    private volatile long requestStartNanos;
+
+    /**
+     * @param latencyListener 接收请求延迟（毫秒），每次调用最多一个样本；可以为null
+     */
+    public AiCallContext(LongConsumer latencyListener) {
+        this(latencyListener, null);
+    }
+
+    /**
+     * @param tokenListener 接收成功调用实际花费的token数（响应中的usage.total_tokens）；可以为null
+     */
+    public AiCallContext(LongConsumer latencyListener, LongConsumer tokenListener) {
+        this.latencyListener = latencyListener;
+        this.tokenListener = tokenListener;
+    }
+
+    public static AiCallContext none() {
+        return new AiCallContext(null);
+    }
+
+    /**
+     * 请求已发出
+     * @param abortAction 中止该请求的操作；调用前已被取消时立即执行
+     */
+    public void requestStarted(Runnable abortAction) {
+        this.requestStartNanos = System.nanoTime();
+        this.abortAction = abortAction;
+        if (cancelled) {
+            abortAction.run();
+        }
+    }
+
+    /**
+     * 请求结束，成功时记录延迟
+     */
+    public void requestFinished(boolean success) {
+        abortAction = null;
+        if (success) {
+            recordLatency(System.nanoTime() - requestStartNanos);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Runnable abort = abortAction;
+        if (abort != null) {
+            // 被取消的请求按已等待的时间记一个样本（真实延迟的下界），避免分位数只统计到快请求
+            recordLatency(System.nanoTime() - requestStartNanos);
+            abort.run();
+        }
+    }
+
+    public void recordTokens(long totalTokens) {
+        if (tokenListener != null && totalTokens > 0) {
+            tokenListener.accept(totalTokens);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void recordLatency(long nanos) {
+        if (latencyListener != null && latencyRecorded.compareAndSet(false, true)) {
+            latencyListener.accept(TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+}
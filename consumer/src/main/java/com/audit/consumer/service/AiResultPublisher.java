@@ -0,0 +1,37 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.AuditAiResultMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把AI审核结果发送到 audit_ai_result_topic，由客户服务按批写库
+ */
+@Service
+public class AiResultPublisher {
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ai.result.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * 同步等待发送确认：输入消息提交位移前结果必须已经写入Kafka，否则结果会丢失
+     */
+    public void publish(Long auditLogId, String aiAudit) throws Exception {
+        String message = objectMapper.writeValueAsString(
+                new AuditAiResultMessage(auditLogId, aiAudit, LocalDateTime.now()));
+        kafkaTemplate.send(AuditAiResultMessage.TOPIC, auditLogId.toString(), message)
+                .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
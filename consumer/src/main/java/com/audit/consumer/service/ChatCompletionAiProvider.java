@@ -0,0 +1,338 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.dto.ChatCompletionResult;
+import com.audit.consumer.exception.AiProviderException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI兼容的chat/completions接口客户端基类
+ * DeepSeek和本地模型服务都使用该协议，子类只需提供地址、密钥和模型名
+ */
+public abstract class ChatCompletionAiProvider implements AiAuditProvider {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected TokenUsageTracker tokenUsageTracker;
+
+    @Autowired
+    protected ChatCompletionResponseParser responseParser;
+
+    private CloseableHttpClient httpClient;
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    private volatile long estimatedTokensPerCall;
+
+    protected abstract String getApiUrl();
+
+    protected abstract String getApiKey();
+
+    protected abstract String getModel();
+
+    protected int getTimeoutSeconds() {
+        return 15;
+    }
+
+    /**
+     * 429/503（限流、过载）时的重试次数，其他错误不重试，由HedgingAiRouter切换提供方
+     */
+    protected int getMaxRetries() {
+        return 1;
+    }
+
+    protected long getRetryBackoffMs() {
+        return 500;
+    }
+
+    protected long getMaxRetryDelayMs() {
+        return 2000;
+    }
+
+    /**
+     * 提供方的速率限制，返回null表示不限制
+     */
+    protected TokenBucketRateLimiter createRateLimiter() {
+        return null;
+    }
+
+    /**
+     * 还没有实际用量数据时，每次调用预估的token数
+     */
+    protected long getInitialTokenEstimate() {
+        return 800;
+    }
+
+    public TokenBucketRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    @PostConstruct
+    public void init() {
+        httpClient = createHttpClient();
+        rateLimiter = createRateLimiter();
+        estimatedTokensPerCall = getInitialTokenEstimate();
+    }
+
+    @PreDestroy
+    public void closeHttpClient() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    @Override
+    public String generateAuditStrategy(UserAuditFormMessage.FormData formData) {
+        return generateAuditStrategy(formData, AiCallContext.none());
+    }
+
+    @Override
+    public String generateAuditStrategy(UserAuditFormMessage.FormData formData, AiCallContext context) {
+        try {
+            String prompt = buildPrompt(formData);
+            byte[] jsonRequest = objectMapper.writeValueAsBytes(buildRequestBody(prompt));
+            logger.debug("Sending request to {} API: {} ({} bytes, prompt {} characters)",
+                    getName(), getApiUrl(), jsonRequest.length, prompt.length());
+
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return execute(jsonRequest, context);
+                } catch (RetryableStatusException e) {
+                    if (attempt >= getMaxRetries() || context.isCancelled()) {
+                        throw new AiProviderException(e.getMessage());
+                    }
+                    logger.info("{} API returned status {}, retrying in {}ms (attempt {}/{})", getName(),
+                            e.getStatusCode(), e.getDelayMs(), attempt + 2, getMaxRetries() + 1);
+                    Thread.sleep(e.getDelayMs());
+                }
+            }
+
+        } catch (AiProviderException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiProviderException(getName() + " API call interrupted", e);
+        } catch (Exception e) {
+            if (context.isCancelled()) {
+                logger.debug("{} API call cancelled: {}", getName(), e.getMessage());
+                throw new AiProviderException(getName() + " API call cancelled", e);
+            }
+            logger.error("❌ Error calling {} API", getName(), e);
+            throw new AiProviderException("Error calling " + getName() + " API", e);
+        }
+    }
+
+    /**
+     * 发送一次请求。预支的限流额度在成功时按实际用量结算，其余任何结局（非200、连接异常、解析失败）都退回
+     */
+    private String execute(byte[] jsonRequest, AiCallContext context) throws Exception {
+        long reservedTokens = acquireRateLimit();
+        boolean settled = false;
+        try {
+            // 在限流等待期间已输掉对冲竞争的请求不再发出，额度在finally中退回
+            if (context.isCancelled()) {
+                throw new AiProviderException(getName() + " API call cancelled");
+            }
+            long requestStart = System.currentTimeMillis();
+
+            HttpPost httpPost = new HttpPost(getApiUrl());
+            httpPost.setHeader("Content-Type", "application/json");
+            if (getApiKey() != null && !getApiKey().isEmpty()) {
+                httpPost.setHeader("Authorization", "Bearer " + getApiKey());
+            }
+            httpPost.setEntity(new ByteArrayEntity(jsonRequest, ContentType.APPLICATION_JSON));
+            // 延迟从取得限流许可后开始计算，限流等待不计入对冲延迟的分位数
+            context.requestStarted(httpPost::cancel);
+
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+                int statusCode = response.getCode();
+
+                if (statusCode == 200) {
+                    ChatCompletionResult completion;
+                    try (InputStream body = response.getEntity().getContent()) {
+                        completion = responseParser.parse(body);
+                    }
+                    recordUsage(reservedTokens, completion);
+                    context.recordTokens(completion.getTotalTokens());
+                    settled = true;
+                    logger.info("✅ {} AI call completed in {}ms: {} characters, {} tokens",
+                            getName(), System.currentTimeMillis() - requestStart,
+                            completion.getContent().length(), completion.getTotalTokens());
+                    logger.debug("AI response: {}", completion.getContent());
+                    return completion.getContent();
+                }
+
+                String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                logger.warn("❌ {} API returned non-200 status: {}", getName(), statusCode);
+                logger.warn("Response body: {}", responseBody.substring(0, Math.min(500, responseBody.length())));
+                String message = getName() + " API returned status " + statusCode;
+                if (statusCode == 429 || statusCode == 503) {
+                    throw new RetryableStatusException(message, statusCode, retryDelayMs(response));
+                }
+                throw new AiProviderException(message);
+            }
+        } finally {
+            context.requestFinished(settled);
+            if (!settled) {
+                releaseRateLimit(reservedTokens);
+            }
+        }
+    }
+
+    /**
+     * 429/503的重试等待：优先使用Retry-After（秒），不超过getMaxRetryDelayMs
+     */
+    private long retryDelayMs(CloseableHttpResponse response) {
+        Header retryAfter = response.getFirstHeader("Retry-After");
+        if (retryAfter != null) {
+            try {
+                long seconds = Long.parseLong(retryAfter.getValue().trim());
+                return Math.max(0, Math.min(getMaxRetryDelayMs(), TimeUnit.SECONDS.toMillis(seconds)));
+            } catch (NumberFormatException e) {
+                // HTTP日期格式的Retry-After按默认退避处理
+            }
+        }
+        return getRetryBackoffMs();
+    }
+
+    private long acquireRateLimit() throws InterruptedException {
+        if (rateLimiter == null) {
+            return 0;
+        }
+        long reservedTokens = estimatedTokensPerCall;
+        long waitedMs = rateLimiter.acquire(reservedTokens);
+        if (waitedMs > 0) {
+            logger.info("Rate limit reached for {}, call delayed {}ms", getName(), waitedMs);
+        }
+        return reservedTokens;
+    }
+
+    private void releaseRateLimit(long reservedTokens) {
+        if (rateLimiter != null) {
+            rateLimiter.reconcile(reservedTokens, 0);
+        }
+    }
+
+    private void recordUsage(long reservedTokens, ChatCompletionResult completion) {
+        tokenUsageTracker.record(getName(), completion.getPromptTokens(),
+                completion.getCompletionTokens(), completion.getTotalTokens());
+        if (rateLimiter != null) {
+            rateLimiter.reconcile(reservedTokens, completion.getTotalTokens());
+            if (completion.getTotalTokens() > 0) {
+                // 指数平滑更新下次调用的预估值
+                estimatedTokensPerCall = (estimatedTokensPerCall * 7 + completion.getTotalTokens()) / 8;
+            }
+        }
+    }
+
+    protected String maskApiKey(String apiKey) {
+        if (apiKey == null || apiKey.length() < 10) return "***";
+        return apiKey.substring(0, 6) + "***" + apiKey.substring(apiKey.length() - 4);
+    }
+
+    private static class RetryableStatusException extends AiProviderException {
+
+        private final int statusCode;
+        private final long delayMs;
+
+        RetryableStatusException(String message, int statusCode, long delayMs) {
+            super(message);
+            this.statusCode = statusCode;
+            this.delayMs = delayMs;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        long getDelayMs() {
+            return delayMs;
+        }
+    }
+
+    private CloseableHttpClient createHttpClient() {
+        RequestConfig config = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofSeconds(getTimeoutSeconds()))
+                .setResponseTimeout(Timeout.ofSeconds(getTimeoutSeconds()))
+                .build();
+
+        // 客户端自带的429/503重试绕过限流器，重试由generateAuditStrategy负责
+        return HttpClients.custom()
+                .setDefaultRequestConfig(config)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    protected String buildPrompt(UserAuditFormMessage.FormData formData) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("请根据以下客户风险问卷信息，生成具体的审核策略建议：\n\n");
+        prompt.append("风险评分: ").append(formData.getRiskScore()).append("\n");
+        prompt.append("投资者类型: ").append(formData.getInvestorType()).append("\n");
+        prompt.append("计划投资金额: ").append(formData.getInvestmentAmount()).append("元\n");
+        prompt.append("年收入代码: ").append(formData.getAnnualIncome()).append("\n");
+        prompt.append("可承受最大亏损比例代码: ").append(formData.getMaxLoss()).append("\n");
+
+        if (formData.getCustomerAge() != null) {
+            prompt.append("客户年龄: ").append(formData.getCustomerAge()).append("岁\n");
+        }
+
+        if (formData.getOccupation() != null && !formData.getOccupation().trim().isEmpty()) {
+            prompt.append("职业: ").append(formData.getOccupation()).append("\n");
+        }
+
+        prompt.append("\n请提供针对性的审核建议，包括：\n");
+        prompt.append("1. 重点关注的风险点\n");
+        prompt.append("2. 建议的审核策略\n");
+        prompt.append("3. 需要特别核实的信息\n");
+        prompt.append("4. 给出推荐的风险评分（根据客户的各项信息）以及风险分类。保守型：评分< 40 稳健型: 40-69 激进型: 70-100\n" );
+        prompt.append("5. 你可以修正客户自带的风险评分，判断是否准确。给出修正建议及理由\n" );
+        prompt.append("请确保回复简洁明了，控制在250字以内。");
+
+        return prompt.toString();
+    }
+
+    protected Map<String, Object> buildRequestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", getModel());
+        requestBody.put("stream", false);
+
+        Map<String, String> systemMessage = new HashMap<>();
+        systemMessage.put("role", "system");
+        systemMessage.put("content", "您是一位专业的金融风险审核专家，请根据客户的风险问卷信息提供专业的审核策略建议。");
+
+        Map<String, String> userMessage = new HashMap<>();
+        userMessage.put("role", "user");
+        userMessage.put("content", prompt);
+
+        requestBody.put("messages", List.of(systemMessage, userMessage));
+
+        return requestBody;
+    }
+}
@@ -0,0 +1,114 @@
+package com.audit.consumer.service;
+
+import com.audit.consumer.dto.ChatCompletionResult;
+import com.audit.consumer.exception.AiProviderException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * chat/completions响应的流式解析器
+ * 直接从字节流中只取出 choices[0].message.content 和 usage 计数，其余字段跳过，不构建JsonNode树
+ */
+@Component
+public class ChatCompletionResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public ChatCompletionResponseParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public ChatCompletionResult parse(InputStream inputStream) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            return parse(parser);
+        }
+    }
+
+    private ChatCompletionResult parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new AiProviderException("Response is not a JSON object");
+        }
+
+        String content = null;
+        int promptTokens = 0;
+        int completionTokens = 0;
+        int totalTokens = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("choices".equals(field) && token == JsonToken.START_ARRAY) {
+                content = readFirstChoiceContent(parser);
+            } else if ("usage".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String usageField = parser.currentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if (valueToken != JsonToken.VALUE_NUMBER_INT) {
+                        parser.skipChildren();
+                    } else if ("prompt_tokens".equals(usageField)) {
+                        promptTokens = parser.getIntValue();
+                    } else if ("completion_tokens".equals(usageField)) {
+                        completionTokens = parser.getIntValue();
+                    } else if ("total_tokens".equals(usageField)) {
+                        totalTokens = parser.getIntValue();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (content == null) {
+            throw new AiProviderException("Unexpected response format: choices[0].message.content not found");
+        }
+        if (totalTokens < 0) {
+            totalTokens = promptTokens + completionTokens;
+        }
+        return new ChatCompletionResult(content.trim(), promptTokens, completionTokens, totalTokens);
+    }
+
+    private String readFirstChoiceContent(JsonParser parser) throws IOException {
+        String content = null;
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (first && token == JsonToken.START_OBJECT) {
+                content = readChoiceContent(parser);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return content;
+    }
+
+    private String readChoiceContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("message".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if ("content".equals(messageField) && valueToken == JsonToken.VALUE_STRING) {
+                        content = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+}
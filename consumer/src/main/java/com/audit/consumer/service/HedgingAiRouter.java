@@ -0,0 +1,225 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * AI请求对冲路由
+ * 先请求主提供方，若在其p95延迟内未返回，则向备用提供方再发一次请求，取先返回的结果，并取消另一个请求
+ */
+@Service
+public class HedgingAiRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingAiRouter.class);
+
+    @Autowired
+    private List<AiAuditProvider> providers;
+
+    @Value("${ai.hedging.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${ai.hedging.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${ai.hedging.initial-delay-ms:3000}")
+    private long initialDelayMs;
+
+    @Value("${ai.hedging.min-delay-ms:200}")
+    private long minDelayMs;
+
+    @Value("${ai.hedging.max-delay-ms:10000}")
+    private long maxDelayMs;
+
+    @Value("${ai.hedging.window-size:200}")
+    private int windowSize;
+
+    @Value("${ai.hedging.min-samples:20}")
+    private int minSamples;
+
+    @Value("${ai.hedging.overall-timeout-ms:35000}")
+    private long overallTimeoutMs;
+
+    @Value("${ai.hedging.pool-size:8}")
+    private int poolSize;
+
+    private final Map<String, ProviderLatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(poolSize * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ai-hedge-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        logger.info("AI providers (in priority order): {}, hedging enabled: {}",
+                providers.stream().map(AiAuditProvider::getName).toList(), hedgingEnabled);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 生成审核策略，所有提供方都失败时返回繁忙占位文案
+     */
+    public String generateAuditStrategy(UserAuditFormMessage.FormData formData) {
+        return generateAuditStrategy(formData, null);
+    }
+
+    /**
+     * @param tokenListener 接收本次生成实际花费的token数，对冲时两个提供方的花费都会上报；可以为null
+     */
+    public String generateAuditStrategy(UserAuditFormMessage.FormData formData, LongConsumer tokenListener) {
+        if (providers.isEmpty()) {
+            logger.warn("❌ No AI provider configured");
+            return AiAuditProvider.FALLBACK_STRATEGY;
+        }
+
+        AiAuditProvider primary = providers.get(0);
+        if (!hedgingEnabled || providers.size() < 2) {
+            try {
+                return primary.generateAuditStrategy(formData, newContext(primary, tokenListener));
+            } catch (Exception e) {
+                logger.warn("❌ AI provider {} failed: {}", primary.getName(), e.getMessage());
+                return AiAuditProvider.FALLBACK_STRATEGY;
+            }
+        }
+
+        AiAuditProvider secondary = providers.get(1);
+        long deadline = System.currentTimeMillis() + overallTimeoutMs;
+        AiCallContext primaryContext = newContext(primary, tokenListener);
+        CompletableFuture<String> primaryFuture;
+        try {
+            primaryFuture = submit(primary, formData, primaryContext);
+        } catch (RejectedExecutionException e) {
+            logger.warn("AI executor saturated, calling {} on the caller thread", primary.getName());
+            try {
+                return primary.generateAuditStrategy(formData, primaryContext);
+            } catch (Exception callError) {
+                return AiAuditProvider.FALLBACK_STRATEGY;
+            }
+        }
+
+        long hedgeDelay = getHedgeDelayMs(primary);
+        try {
+            return primaryFuture.get(hedgeDelay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.info("⏱ {} has not answered within {}ms, hedging to {}", primary.getName(), hedgeDelay, secondary.getName());
+        } catch (ExecutionException e) {
+            logger.warn("❌ AI provider {} failed, failing over to {}: {}",
+                    primary.getName(), secondary.getName(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryContext.cancel();
+            return AiAuditProvider.FALLBACK_STRATEGY;
+        }
+
+        AiCallContext secondaryContext = newContext(secondary, tokenListener);
+        CompletableFuture<String> secondaryFuture;
+        try {
+            secondaryFuture = submit(secondary, formData, secondaryContext);
+            hedgedRequests.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            logger.warn("AI executor saturated, skipping hedge request to {}", secondary.getName());
+            secondaryFuture = CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            String result = awaitFirstSuccess(List.of(primaryFuture, secondaryFuture),
+                    Math.max(0, deadline - System.currentTimeMillis()));
+            if (!primaryFuture.isDone() || primaryFuture.isCompletedExceptionally()) {
+                hedgeWins.incrementAndGet();
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("❌ All AI providers failed or timed out: {}", e.getMessage());
+        } finally {
+            // 胜出的请求已经结束，取消只作用于仍在进行的落败请求，释放连接和执行线程
+            primaryContext.cancel();
+            secondaryContext.cancel();
+        }
+        return AiAuditProvider.FALLBACK_STRATEGY;
+    }
+
+    /**
+     * 当前主提供方的对冲触发延迟：窗口内分位延迟，样本不足时使用初始值
+     */
+    public long getHedgeDelayMs(AiAuditProvider provider) {
+        long observed = getTracker(provider).percentile(hedgePercentile);
+        if (observed < 0) {
+            return initialDelayMs;
+        }
+        return Math.max(minDelayMs, Math.min(maxDelayMs, observed));
+    }
+
+    public long getHedgedRequests() {
+        return hedgedRequests.get();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    private CompletableFuture<String> submit(AiAuditProvider provider, UserAuditFormMessage.FormData formData,
+                                             AiCallContext context) {
+        return CompletableFuture.supplyAsync(() -> provider.generateAuditStrategy(formData, context), executor);
+    }
+
+    /**
+     * 提供方在发出请求后上报延迟，不包含限流等待；被取消的请求按已等待的时间记录
+     */
+    private AiCallContext newContext(AiAuditProvider provider, LongConsumer tokenListener) {
+        return new AiCallContext(getTracker(provider)::record, tokenListener);
+    }
+
+    private String awaitFirstSuccess(List<CompletableFuture<String>> futures, long timeoutMs) throws Exception {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (CompletableFuture<String> future : futures) {
+            future.whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    first.complete(result);
+                } else if (remaining.decrementAndGet() == 0) {
+                    first.completeExceptionally(throwable);
+                }
+            });
+        }
+        return first.get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private ProviderLatencyTracker getTracker(AiAuditProvider provider) {
+        return latencyTrackers.computeIfAbsent(provider.getName(),
+                name -> new ProviderLatencyTracker(windowSize, minSamples));
+    }
+}
@@ -1,152 +1,325 @@
 package com.audit.consumer.service;
 
-import com.audit.consumer.dto.UserAuditFormMessage;
-import com.audit.consumer.entity.AuditLog;
+import com.audit.common.codec.UserAuditFormCodec;
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.exception.ResultDeliveryException;
 import com.audit.consumer.repository.AuditLogRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class KafkaConsumerService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerService.class);
-    
+
+    // 等待AI结果的审核状态，处理完成后改为0（可分配）
+    private static final int STATUS_WAITING_FOR_AI = 5;
+    private static final int STATUS_ASSIGNABLE = 0;
+
     @Autowired
     private ObjectMapper objectMapper;
-    
+
     @Autowired
     private AuditLogRepository auditLogRepository;
-    
+
     @Autowired
-    private DeepSeekAiService deepSeekAiService;
-    
-    @KafkaListener(topics = "user_audit_form_topic", groupId = "audit-consumer-group")
-    @Transactional
-    public void consumeUserAuditFormMessage(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
-        logger.info("=== KAFKA MESSAGE RECEIVED ===");
-        logger.info("Message Key: {}", key);
-        logger.info("Raw Message: {}", message);
-        
-        try {
-            logger.info("Step 1: Parsing JSON message...");
-            UserAuditFormMessage auditFormMessage = objectMapper.readValue(message, UserAuditFormMessage.class);
-            Long auditLogId = auditFormMessage.getAuditLogId();
-            
-            logger.info("Step 2: Parsed message successfully");
-            logger.info("  - AuditLogId: {}", auditLogId);
-            logger.info("  - CustomerId: {}", auditFormMessage.getCustomerId());
-            logger.info("  - SubmitTime: {}", auditFormMessage.getSubmitTime());
-            if (auditFormMessage.getFormData() != null) {
-                logger.info("  - Risk Score: {}", auditFormMessage.getFormData().getRiskScore());
-                logger.info("  - Investor Type: {}", auditFormMessage.getFormData().getInvestorType());
-                logger.info("  - Investment Amount: {}", auditFormMessage.getFormData().getInvestmentAmount());
+    private HedgingAiRouter aiRouter;
+
+    @Autowired
+    private RulePrescreenService rulePrescreenService;
+
+    @Autowired
+    private AiResultPublisher aiResultPublisher;
+
+    @Autowired
+    private LaneLatencyStats laneLatencyStats;
+
+    // database：直接写audit_log；topic：结果发到audit_ai_result_topic，由客户服务写库，本服务不访问数据库
+    @Value("${ai.result.delivery:database}")
+    private String resultDelivery;
+
+    // topic模式下结果发送失败时，从失败的消息起整批重新投递前的等待时间
+    @Value("${ai.result.redelivery-backoff-ms:5000}")
+    private long resultRedeliveryBackoffMs;
+
+    // 审核记录还查不到时（如生产端事务提交前消息已到达）从该消息起重新投递，超过次数后跳过
+    @Value("${ai.missing-row.max-redeliveries:5}")
+    private int missingRowMaxRedeliveries;
+
+    @Value("${ai.missing-row.redelivery-backoff-ms:2000}")
+    private long missingRowBackoffMs;
+
+    private boolean publishResults;
+
+    // auditLogId -> 因记录不存在已重新投递的次数
+    private final Map<Long, Integer> missingRowRedeliveries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!"database".equals(resultDelivery) && !"topic".equals(resultDelivery)) {
+            throw new IllegalStateException("Unsupported ai.result.delivery: " + resultDelivery);
+        }
+        publishResults = "topic".equals(resultDelivery);
+        logger.info("AI results are delivered via {}", resultDelivery);
+    }
+
+    /**
+     * 按批消费：先从消息头取出auditLogId，一次查询整批记录的状态，
+     * 只有仍在等待AI结果的消息才反序列化并处理，状态已不是5的直接跳过；
+     * 记录还不存在的从该消息起nack重新投递，超过ai.missing-row.max-redeliveries次后跳过。
+     * topic模式下不查询状态，过期结果由客户服务的条件更新丢弃
+     */
+    @KafkaListener(topics = UserAuditFormMessage.TOPIC, groupId = "audit-consumer-group",
+                   containerFactory = "auditFormListenerContainerFactory")
+    public void consumeUserAuditFormMessages(List<ConsumerRecord<String, byte[]>> records,
+                                             Acknowledgment acknowledgment) {
+        consumeBatch(records, acknowledgment, LaneLatencyStats.NORMAL_LANE);
+    }
+
+    /**
+     * 快速通道：高优先级问卷使用独立的消费组和并发度，不受普通主题积压影响
+     */
+    @KafkaListener(topics = UserAuditFormMessage.PRIORITY_TOPIC, groupId = "audit-consumer-priority-group",
+                   containerFactory = "auditFormListenerContainerFactory",
+                   concurrency = "${ai.fast-lane.concurrency:2}")
+    public void consumePriorityAuditFormMessages(List<ConsumerRecord<String, byte[]>> records,
+                                                 Acknowledgment acknowledgment) {
+        consumeBatch(records, acknowledgment, LaneLatencyStats.FAST_LANE);
+    }
+
+    private void consumeBatch(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment,
+                              String lane) {
+        logger.info("=== KAFKA BATCH RECEIVED ({} lane): {} messages ===", lane, records.size());
+
+        Set<Long> auditLogIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            Long auditLogId = auditLogIdOf(record);
+            if (auditLogId != null) {
+                auditLogIds.add(auditLogId);
+            }
+        }
+        Map<Long, Integer> statuses = publishResults ? null : loadStatuses(auditLogIds);
+
+        int skipped = 0;
+        Set<Long> processed = new HashSet<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            Long auditLogId = auditLogIdOf(record);
+            if (auditLogId != null) {
+                Integer status = statuses != null ? statuses.get(auditLogId) : STATUS_WAITING_FOR_AI;
+                if (status == null) {
+                    if (redeliverMissingRow(auditLogId)) {
+                        logger.info("=== KAFKA BATCH PARTIAL ({} lane): {} processed, {} redelivered in {}ms ===",
+                                lane, i - skipped, records.size() - i, missingRowBackoffMs);
+                        acknowledgment.nack(i, Duration.ofMillis(missingRowBackoffMs));
+                        return;
+                    }
+                    skipped++;
+                    continue;
+                }
+                missingRowRedeliveries.remove(auditLogId);
+                // 已处理或已被补偿的不需要解析消息体；同一批中的重复消息只处理一次
+                if (status != STATUS_WAITING_FOR_AI || !processed.add(auditLogId)) {
+                    logger.debug("Skipping message for auditLogId {} with status {}", auditLogId, status);
+                    skipped++;
+                    continue;
+                }
             }
-            
-            logger.info("Step 3: Validating audit log status...");
-            AuditLog auditLog = auditLogRepository.findById(auditLogId).orElse(null);
-            if (auditLog == null) {
-                logger.warn("❌ AuditLog not found for id: {}, ignoring message", auditLogId);
-                acknowledgment.acknowledge();
+            long startTime = System.currentTimeMillis();
+            try {
+                processRecord(record, auditLogId);
+            } catch (ResultDeliveryException e) {
+                // 结果没有写入Kafka，不能提交该消息的位移
+                logger.error("=== KAFKA BATCH PARTIAL ({} lane): {} processed, {} redelivered in {}ms ===",
+                        lane, i - skipped, records.size() - i, resultRedeliveryBackoffMs, e);
+                acknowledgment.nack(i, Duration.ofMillis(resultRedeliveryBackoffMs));
                 return;
             }
-            
-            logger.info("  - Found AuditLog: id={}, customerId={}, status={}, stage={}", 
-                    auditLog.getId(), auditLog.getCustomerId(), auditLog.getStatus(), auditLog.getStage());
-            
-            if (auditLog.getStatus() != 5) {
-                logger.warn("❌ AuditLog status is not 5 (got {}), ignoring message for auditLogId: {}", 
-                        auditLog.getStatus(), auditLogId);
-                acknowledgment.acknowledge();
+            // 延迟从消息写入Kafka时算起（CreateTime），包含在主题中排队的时间
+            if (record.timestamp() > 0) {
+                laneLatencyStats.record(lane, Math.max(0, startTime - record.timestamp()),
+                        Math.max(0, System.currentTimeMillis() - record.timestamp()));
+            }
+        }
+
+        logger.info("=== KAFKA BATCH COMPLETE ({} lane): {} processed, {} skipped ===",
+                lane, records.size() - skipped, skipped);
+        acknowledgment.acknowledge();
+    }
+
+    private void processRecord(ConsumerRecord<String, byte[]> record, Long headerAuditLogId) {
+        String format = headerValue(record, UserAuditFormCodec.FORMAT_HEADER);
+        String submitTime = headerValue(record, UserAuditFormCodec.SUBMIT_TIME_HEADER);
+        logger.info("Processing message: key={}, format={}, {} bytes, submitted at {}", record.key(),
+                format != null ? format : UserAuditFormCodec.FORMAT_JSON, record.value().length, submitTime);
+
+        UserAuditFormMessage auditFormMessage;
+        try {
+            auditFormMessage = decode(record.value(), format);
+        } catch (Exception e) {
+            logger.error("❌ Failed to decode message with key: {}", record.key(), e);
+            if (headerAuditLogId != null) {
+                handleProcessingError(headerAuditLogId);
+            }
+            return;
+        }
+
+        Long auditLogId = auditFormMessage.getAuditLogId();
+        try {
+            if (headerAuditLogId == null && !publishResults && !isWaitingForAi(auditLogId)) {
+                // 升级前的生产端没有消息头，只能解析后再逐条检查状态
+                logger.warn("❌ AuditLog {} is not waiting for AI result, ignoring message", auditLogId);
                 return;
             }
-            
-            logger.info("Step 4: Calling DeepSeek AI service...");
+
             long startTime = System.currentTimeMillis();
-            String aiStrategy = deepSeekAiService.generateAuditStrategy(auditFormMessage.getFormData());
-            long endTime = System.currentTimeMillis();
-            
-            logger.info("Step 5: AI response received in {}ms", (endTime - startTime));
-            logger.info("  - AI Strategy length: {} characters", aiStrategy.length());
-            logger.info("  - AI Strategy preview: {}", 
-                    aiStrategy.length() > 100 ? aiStrategy.substring(0, 100) + "..." : aiStrategy);
-            
-            logger.info("Step 6: Updating database...");
-            updateAuditLogWithAiResult(auditLog, aiStrategy);
-            
+            UserAuditFormMessage.FormData formData = auditFormMessage.getFormData();
+            String aiStrategy = rulePrescreenService.prescreen(formData)
+                    .orElseGet(() -> aiRouter.generateAuditStrategy(formData));
+            logger.info("Audit strategy for auditLogId {} ready in {}ms, {} characters",
+                    auditLogId, System.currentTimeMillis() - startTime, aiStrategy.length());
+
+            writeAiResult(auditLogId, aiStrategy);
             logger.info("✅ Successfully processed audit form message for auditLogId: {}", auditLogId);
-            logger.info("=== MESSAGE PROCESSING COMPLETE ===");
-            acknowledgment.acknowledge();
-            
+        } catch (ResultDeliveryException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("❌ ERROR processing Kafka message with key: {}", key);
-            logger.error("Error details: {}", e.getMessage(), e);
-            
-            try {
-                logger.info("Attempting error recovery...");
-                UserAuditFormMessage auditFormMessage = objectMapper.readValue(message, UserAuditFormMessage.class);
-                handleProcessingError(auditFormMessage.getAuditLogId(), e);
-                logger.info("Error recovery completed");
-            } catch (Exception parseError) {
-                logger.error("❌ Failed to parse message for error handling", parseError);
-            }
-            
-            logger.info("Message acknowledged despite error");
-            acknowledgment.acknowledge();
+            logger.error("❌ ERROR processing Kafka message for auditLogId: {}", auditLogId, e);
+            handleProcessingError(auditLogId);
+        }
+    }
+
+    /**
+     * 记录不存在时是否重新投递：未超过次数时计数加一并返回true，超过后放弃并清除计数
+     */
+    private boolean redeliverMissingRow(Long auditLogId) {
+        int redeliveries = missingRowRedeliveries.getOrDefault(auditLogId, 0);
+        if (redeliveries < missingRowMaxRedeliveries) {
+            missingRowRedeliveries.put(auditLogId, redeliveries + 1);
+            logger.warn("AuditLog {} not found, redelivering (attempt {}/{})",
+                    auditLogId, redeliveries + 1, missingRowMaxRedeliveries);
+            return true;
+        }
+        missingRowRedeliveries.remove(auditLogId);
+        logger.error("❌ AuditLog {} still not found after {} redeliveries, message skipped",
+                auditLogId, missingRowMaxRedeliveries);
+        return false;
+    }
+
+    private Map<Long, Integer> loadStatuses(Set<Long> auditLogIds) {
+        Map<Long, Integer> statuses = new HashMap<>();
+        if (auditLogIds.isEmpty()) {
+            return statuses;
+        }
+        for (Object[] row : auditLogRepository.findStatusesByIdIn(auditLogIds)) {
+            statuses.put((Long) row[0], (Integer) row[1]);
+        }
+        return statuses;
+    }
+
+    private boolean isWaitingForAi(Long auditLogId) {
+        if (auditLogId == null) {
+            return false;
         }
+        Integer status = loadStatuses(Set.of(auditLogId)).get(auditLogId);
+        return status != null && status == STATUS_WAITING_FOR_AI;
     }
-    
-    private void updateAuditLogWithAiResult(AuditLog auditLog, String aiStrategy) {
-        logger.info("=== UPDATING DATABASE ===");
-        logger.info("Updating audit log id: {} with AI strategy", auditLog.getId());
-        
+
+    /**
+     * 优先取消息头中的auditLogId，没有时使用消息key（生产端以auditLogId作为key）
+     */
+    private Long auditLogIdOf(ConsumerRecord<String, byte[]> record) {
+        String value = headerValue(record, UserAuditFormCodec.AUDIT_LOG_ID_HEADER);
+        if (value == null) {
+            value = record.key();
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String headerValue(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 按消息头选择解码方式，没有消息头的是升级前生产端发出的JSON消息
+     */
+    private UserAuditFormMessage decode(byte[] message, String format) throws IOException {
+        if (UserAuditFormCodec.FORMAT_PB1.equals(format)) {
+            return UserAuditFormCodec.decode(message);
+        }
+        if (format == null || UserAuditFormCodec.FORMAT_JSON.equals(format)) {
+            return objectMapper.readValue(message, UserAuditFormMessage.class);
+        }
+        throw new IllegalArgumentException("Unsupported audit form format: " + format);
+    }
+
+    private void writeAiResult(Long auditLogId, String aiStrategy) {
         int maxRetries = 2;
         int currentRetry = 0;
-        
+
         while (currentRetry <= maxRetries) {
             try {
-                logger.info("Database update attempt {}/{}", currentRetry + 1, maxRetries + 1);
-                logger.info("  - Setting aiAudit field with {} characters", aiStrategy.length());
-                logger.info("  - Setting status from {} to 0 (available for assignment)", auditLog.getStatus());
-                
-                auditLog.setAiAudit(aiStrategy);
-                auditLog.setStatus(0); // 设置为可分配状态
-                
-                AuditLog savedLog = auditLogRepository.save(auditLog);
-                
-                logger.info("✅ Successfully updated audit log:");
-                logger.info("  - AuditLog ID: {}", savedLog.getId());
-                logger.info("  - Customer ID: {}", savedLog.getCustomerId());
-                logger.info("  - New Status: {}", savedLog.getStatus());
-                logger.info("  - AI Audit length: {} characters", 
-                        savedLog.getAiAudit() != null ? savedLog.getAiAudit().length() : 0);
-                logger.info("=== DATABASE UPDATE COMPLETE ===");
+                if (publishResults) {
+                    aiResultPublisher.publish(auditLogId, aiStrategy);
+                    logger.info("✅ Published AI result for auditLogId {}, {} characters",
+                            auditLogId, aiStrategy.length());
+                    return;
+                }
+                // 只在状态仍为5时写入，避免覆盖补偿任务或人工已处理的结果
+                int rows = auditLogRepository.updateAiResultIfStatus(auditLogId, aiStrategy,
+                        STATUS_ASSIGNABLE, STATUS_WAITING_FOR_AI, LocalDateTime.now());
+                if (rows == 0) {
+                    logger.warn("AuditLog {} is no longer waiting for AI result, result discarded", auditLogId);
+                } else {
+                    logger.info("✅ Updated audit log {}: status 5 -> 0, {} characters of AI audit",
+                            auditLogId, aiStrategy.length());
+                }
                 return;
-                
+
             } catch (Exception e) {
                 currentRetry++;
-                logger.warn("❌ Database update failed (attempt {}/{})", currentRetry, maxRetries + 1);
+                logger.warn("❌ Writing AI result failed (attempt {}/{})", currentRetry, maxRetries + 1);
                 logger.warn("Error: {}", e.getMessage());
-                
+
                 if (currentRetry > maxRetries) {
-                    logger.error("❌ Failed to update audit log after {} attempts for auditLogId: {}", 
-                            maxRetries + 1, auditLog.getId());
+                    logger.error("❌ Failed to write AI result after {} attempts for auditLogId: {}",
+                            maxRetries + 1, auditLogId);
                     logger.error("Final error: ", e);
+                    if (publishResults) {
+                        throw new ResultDeliveryException("Failed to publish AI result for auditLogId " + auditLogId, e);
+                    }
                     return;
                 }
-                
+
                 try {
                     int sleepTime = 1000 * currentRetry;
                     logger.info("Waiting {}ms before retry...", sleepTime);
@@ -154,23 +327,34 @@ public class KafkaConsumerService {
                 } catch (InterruptedException ie) {
                     logger.warn("Sleep interrupted, stopping retry attempts");
                     Thread.currentThread().interrupt();
+                    if (publishResults) {
+                        throw new ResultDeliveryException("Interrupted while publishing AI result for auditLogId "
+                                + auditLogId, ie);
+                    }
                     break;
                 }
             }
         }
     }
-    
-    private void handleProcessingError(Long auditLogId, Exception e) {
-        try {
-            AuditLog auditLog = auditLogRepository.findById(auditLogId).orElse(null);
-            if (auditLog != null) {
-                auditLog.setAiAudit("暂时繁忙，无法生成策略");
-                auditLog.setStatus(0); // 设置为可分配状态
-                auditLogRepository.save(auditLog);
+
+    /**
+     * 写入占位策略；topic模式下发送失败抛出ResultDeliveryException，由批处理nack重新投递
+     */
+    private void handleProcessingError(Long auditLogId) {
+        if (publishResults) {
+            try {
+                aiResultPublisher.publish(auditLogId, AiAuditProvider.FALLBACK_STRATEGY);
+            } catch (Exception e) {
+                throw new ResultDeliveryException("Failed to publish fallback result for auditLogId " + auditLogId, e);
             }
+            return;
+        }
+        try {
+            auditLogRepository.updateAiResultIfStatus(auditLogId, AiAuditProvider.FALLBACK_STRATEGY,
+                    STATUS_ASSIGNABLE, STATUS_WAITING_FOR_AI, LocalDateTime.now());
         } catch (Exception updateError) {
-            logger.error("Failed to update audit log after processing error for auditLogId: {}", 
+            logger.error("Failed to update audit log after processing error for auditLogId: {}",
                     auditLogId, updateError);
         }
     }
-}
\ No newline at end of file
+}
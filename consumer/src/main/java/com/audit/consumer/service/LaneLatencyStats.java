@@ -0,0 +1,58 @@
+package com.audit.consumer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按通道（普通/快速）统计审核表单消息的延迟，见 GET /api/consumer/stats/lanes
+ * 排队延迟：消息写入Kafka到开始处理；端到端延迟：消息写入Kafka到AI结果写出
+ */
+@Component
+public class LaneLatencyStats {
+
+    public static final String NORMAL_LANE = "normal";
+    public static final String FAST_LANE = "fast";
+
+    @Value("${ai.fast-lane.latency-window-size:500}")
+    private int windowSize;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public void record(String lane, long queueWaitMs, long endToEndMs) {
+        Lane stats = lanes.computeIfAbsent(lane, name -> new Lane(windowSize));
+        stats.queueWait.record(queueWaitMs);
+        stats.endToEnd.record(endToEndMs);
+        stats.processed.incrementAndGet();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        for (String name : new String[]{NORMAL_LANE, FAST_LANE}) {
+            Lane lane = lanes.get(name);
+            Map<String, Object> laneStats = new LinkedHashMap<>();
+            laneStats.put("processed", lane != null ? lane.processed.get() : 0L);
+            laneStats.put("queueWaitP50Ms", lane != null ? lane.queueWait.percentile(0.5) : -1L);
+            laneStats.put("queueWaitP95Ms", lane != null ? lane.queueWait.percentile(0.95) : -1L);
+            laneStats.put("endToEndP50Ms", lane != null ? lane.endToEnd.percentile(0.5) : -1L);
+            laneStats.put("endToEndP95Ms", lane != null ? lane.endToEnd.percentile(0.95) : -1L);
+            statistics.put(name, laneStats);
+        }
+        return statistics;
+    }
+
+    private static class Lane {
+        final ProviderLatencyTracker queueWait;
+        final ProviderLatencyTracker endToEnd;
+        final AtomicLong processed = new AtomicLong();
+
+        Lane(int windowSize) {
+            queueWait = new ProviderLatencyTracker(windowSize, 1);
+            endToEnd = new ProviderLatencyTracker(windowSize, 1);
+        }
+    }
+}
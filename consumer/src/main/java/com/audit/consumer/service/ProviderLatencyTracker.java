@@ -0,0 +1,46 @@
+package com.audit.consumer.service;
+
+import java.util.Arrays;
+
+/**
+ * 单个AI提供方的滑动窗口延迟统计，用于计算对冲请求的触发延迟
+ */
+public class ProviderLatencyTracker {
+    
+    private final long[] samples;
+    private final int minSamples;
+    private int next = 0;
+    private int count = 0;
+    
+    public ProviderLatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[windowSize];
+        this.minSamples = minSamples;
+    }
+    
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+    
+    /**
+     * 计算窗口内的延迟分位数
+     * @param percentile 分位数，如0.95
+     * @return 分位延迟（毫秒），样本不足时返回-1
+     */
+    public synchronized long percentile(double percentile) {
+        if (count < minSamples) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+    
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
@@ -0,0 +1,215 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.config.PrescreenProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地规则预审
+ * 在调用AI之前用确定性规则给问卷打分，能完全解释的问卷直接生成模板策略，只有模糊的问卷才交给AI
+ */
+@Service
+public class RulePrescreenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RulePrescreenService.class);
+
+    @Autowired
+    private PrescreenProperties properties;
+
+    private List<CompiledRule> compiledRules = new ArrayList<>();
+    private final LongAdder evaluatedCount = new LongAdder();
+    private final LongAdder ambiguousCount = new LongAdder();
+
+    @PostConstruct
+    public void compileRules() {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (PrescreenProperties.Rule rule : properties.getRules()) {
+            if (rule.getStrategy() == null || rule.getStrategy().trim().isEmpty()) {
+                throw new IllegalStateException("预审规则缺少策略模板: " + rule.getName());
+            }
+            rules.add(new CompiledRule(rule));
+        }
+        compiledRules = rules;
+        logger.info("Rule prescreen enabled: {}, {} rules loaded", properties.isEnabled(), rules.size());
+    }
+
+    /**
+     * 按顺序匹配规则，命中则返回模板策略；未命中（需要AI判断）返回空
+     */
+    public Optional<String> prescreen(UserAuditFormMessage.FormData formData) {
+        if (!properties.isEnabled() || formData == null) {
+            return Optional.empty();
+        }
+
+        evaluatedCount.increment();
+        for (CompiledRule rule : compiledRules) {
+            if (rule.matches(formData)) {
+                rule.hits.increment();
+                logger.info("Prescreen rule '{}' matched, skipping AI call", rule.name);
+                return Optional.of(rule.render(formData));
+            }
+        }
+
+        ambiguousCount.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 各规则的命中次数和跳过AI的比例
+     */
+    public Map<String, Object> getStatistics() {
+        long evaluated = evaluatedCount.sum();
+        Map<String, Object> ruleStats = new LinkedHashMap<>();
+        for (CompiledRule rule : compiledRules) {
+            long hits = rule.hits.sum();
+            Map<String, Object> stat = new LinkedHashMap<>();
+            stat.put("hits", hits);
+            stat.put("skipRate", evaluated == 0 ? 0.0 : (double) hits / evaluated);
+            ruleStats.put(rule.name, stat);
+        }
+
+        long ambiguous = ambiguousCount.sum();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("evaluated", evaluated);
+        statistics.put("sentToAi", ambiguous);
+        statistics.put("totalSkipRate", evaluated == 0 ? 0.0 : (double) (evaluated - ambiguous) / evaluated);
+        statistics.put("rules", ruleStats);
+        return statistics;
+    }
+
+    private enum Placeholder {
+        RULE, RISK_SCORE, INVESTOR_TYPE, INVESTMENT_AMOUNT, ANNUAL_INCOME, MAX_LOSS;
+
+        static Placeholder fromName(String name) {
+            switch (name) {
+                case "rule": return RULE;
+                case "riskScore": return RISK_SCORE;
+                case "investorType": return INVESTOR_TYPE;
+                case "investmentAmount": return INVESTMENT_AMOUNT;
+                case "annualIncome": return ANNUAL_INCOME;
+                case "maxLoss": return MAX_LOSS;
+                default: return null;
+            }
+        }
+    }
+
+    /**
+     * 预编译的规则：条件转为基本类型区间和位掩码，模板预先切分为片段
+     */
+    private static class CompiledRule {
+        private final String name;
+        private final int minRiskScore;
+        private final int maxRiskScore;
+        private final long maxLossMask;
+        private final int minAnnualIncome;
+        private final int maxAnnualIncome;
+        private final double minInvestmentAmount;
+        private final double maxInvestmentAmount;
+        private final List<Object> templateSegments;
+        private final LongAdder hits = new LongAdder();
+
+        CompiledRule(PrescreenProperties.Rule rule) {
+            this.name = rule.getName() != null ? rule.getName() : "unnamed";
+            this.minRiskScore = rule.getMinRiskScore() != null ? rule.getMinRiskScore() : Integer.MIN_VALUE;
+            this.maxRiskScore = rule.getMaxRiskScore() != null ? rule.getMaxRiskScore() : Integer.MAX_VALUE;
+            this.minAnnualIncome = rule.getMinAnnualIncome() != null ? rule.getMinAnnualIncome() : Integer.MIN_VALUE;
+            this.maxAnnualIncome = rule.getMaxAnnualIncome() != null ? rule.getMaxAnnualIncome() : Integer.MAX_VALUE;
+            this.minInvestmentAmount = rule.getMinInvestmentAmount() != null ? rule.getMinInvestmentAmount() : Double.NEGATIVE_INFINITY;
+            this.maxInvestmentAmount = rule.getMaxInvestmentAmount() != null ? rule.getMaxInvestmentAmount() : Double.POSITIVE_INFINITY;
+
+            long mask = 0;
+            if (rule.getMaxLossCodes() == null || rule.getMaxLossCodes().isEmpty()) {
+                mask = -1L;
+            } else {
+                for (Integer code : rule.getMaxLossCodes()) {
+                    if (code < 0 || code > 63) {
+                        throw new IllegalStateException("预审规则亏损代码超出范围: " + code);
+                    }
+                    mask |= 1L << code;
+                }
+            }
+            this.maxLossMask = mask;
+            this.templateSegments = parseTemplate(rule.getStrategy());
+        }
+
+        boolean matches(UserAuditFormMessage.FormData formData) {
+            Integer riskScore = formData.getRiskScore();
+            Integer maxLoss = formData.getMaxLoss();
+            Integer annualIncome = formData.getAnnualIncome();
+            Double investmentAmount = formData.getInvestmentAmount();
+            // 缺少任一关键字段都视为无法解释，交给AI
+            if (riskScore == null || maxLoss == null || annualIncome == null || investmentAmount == null) {
+                return false;
+            }
+            return riskScore >= minRiskScore && riskScore <= maxRiskScore
+                    && maxLoss >= 0 && maxLoss <= 63 && (maxLossMask & (1L << maxLoss)) != 0
+                    && annualIncome >= minAnnualIncome && annualIncome <= maxAnnualIncome
+                    && investmentAmount >= minInvestmentAmount && investmentAmount <= maxInvestmentAmount;
+        }
+
+        String render(UserAuditFormMessage.FormData formData) {
+            StringBuilder result = new StringBuilder(256);
+            for (Object segment : templateSegments) {
+                if (segment instanceof Placeholder) {
+                    switch ((Placeholder) segment) {
+                        case RULE: result.append(name); break;
+                        case RISK_SCORE: result.append(formData.getRiskScore()); break;
+                        case INVESTOR_TYPE: result.append(formData.getInvestorType()); break;
+                        case INVESTMENT_AMOUNT: result.append(formatAmount(formData.getInvestmentAmount())); break;
+                        case ANNUAL_INCOME: result.append(formData.getAnnualIncome()); break;
+                        case MAX_LOSS: result.append(formData.getMaxLoss()); break;
+                        default: break;
+                    }
+                } else {
+                    result.append((String) segment);
+                }
+            }
+            return result.toString();
+        }
+
+        /**
+         * 金额保留两位小数并去掉末尾的0，避免输出"100000.0元"
+         */
+        private static String formatAmount(Double amount) {
+            return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+        }
+
+        private static List<Object> parseTemplate(String template) {
+            List<Object> segments = new ArrayList<>();
+            int position = 0;
+            while (position < template.length()) {
+                int open = template.indexOf('{', position);
+                int close = open < 0 ? -1 : template.indexOf('}', open);
+                if (open < 0 || close < 0) {
+                    segments.add(template.substring(position));
+                    break;
+                }
+                Placeholder placeholder = Placeholder.fromName(template.substring(open + 1, close));
+                if (placeholder == null) {
+                    // 未知占位符按原文保留
+                    segments.add(template.substring(position, close + 1));
+                } else {
+                    if (open > position) {
+                        segments.add(template.substring(position, open));
+                    }
+                    segments.add(placeholder);
+                }
+                position = close + 1;
+            }
+            return segments;
+        }
+    }
+}
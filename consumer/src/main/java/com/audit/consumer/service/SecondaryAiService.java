@@ -0,0 +1,56 @@
+package com.audit.consumer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * 备用提供方（另一家云服务或本地模型服务，需兼容chat/completions协议）
+ * 仅在 ai.secondary.enabled=true 时启用，作为对冲请求的目标
+ */
+@Service
+@Order(2)
+@ConditionalOnProperty(name = "ai.secondary.enabled", havingValue = "true")
+public class SecondaryAiService extends ChatCompletionAiProvider {
+    
+    @Value("${ai.secondary.name:secondary}")
+    private String name;
+    
+    @Value("${ai.secondary.url:http://localhost:11434/v1/chat/completions}")
+    private String apiUrl;
+    
+    @Value("${ai.secondary.api-key:}")
+    private String apiKey;
+    
+    @Value("${ai.secondary.model:qwen2.5:7b}")
+    private String model;
+    
+    @Value("${ai.secondary.timeout-seconds:15}")
+    private int timeoutSeconds;
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    protected String getApiUrl() {
+        return apiUrl;
+    }
+    
+    @Override
+    protected String getApiKey() {
+        return apiKey;
+    }
+    
+    @Override
+    protected String getModel() {
+        return model;
+    }
+    
+    @Override
+    protected int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
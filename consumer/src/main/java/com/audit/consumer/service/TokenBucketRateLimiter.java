@@ -0,0 +1,107 @@
+package com.audit.consumer.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同时限制每秒请求数和每分钟token数的令牌桶
+ * 超出速率时不拒绝请求，而是预支额度并让调用方等待到额度补足，从而把突发流量平滑开
+ */
+public class TokenBucketRateLimiter {
+    
+    private final double requestsPerNano;
+    private final double requestCapacity;
+    private final double tokensPerNano;
+    private final double tokenCapacity;
+    
+    private double availableRequests;
+    private double availableTokens;
+    private long lastRefillNanos;
+    
+    private final AtomicLong delayedCalls = new AtomicLong();
+    private final AtomicLong totalDelayMs = new AtomicLong();
+    
+    /**
+     * @param requestsPerSecond 每秒请求数，&lt;=0 表示不限制
+     * @param requestBurst 请求突发容量
+     * @param tokensPerMinute 每分钟token数，&lt;=0 表示不限制
+     */
+    public TokenBucketRateLimiter(double requestsPerSecond, int requestBurst, long tokensPerMinute) {
+        this.requestsPerNano = requestsPerSecond > 0 ? requestsPerSecond / TimeUnit.SECONDS.toNanos(1) : 0;
+        this.requestCapacity = Math.max(1, requestBurst);
+        this.tokensPerNano = tokensPerMinute > 0 ? (double) tokensPerMinute / TimeUnit.MINUTES.toNanos(1) : 0;
+        this.tokenCapacity = tokensPerMinute;
+        this.availableRequests = requestCapacity;
+        this.availableTokens = tokenCapacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    /**
+     * 预支一次请求和预估的token数，额度不足时阻塞等待
+     * @return 实际等待的毫秒数
+     */
+    public long acquire(long estimatedTokens) throws InterruptedException {
+        long waitNanos = 0;
+        synchronized (this) {
+            refill(System.nanoTime());
+            if (requestsPerNano > 0) {
+                availableRequests -= 1;
+                if (availableRequests < 0) {
+                    waitNanos = (long) (-availableRequests / requestsPerNano);
+                }
+            }
+            if (tokensPerNano > 0) {
+                availableTokens -= estimatedTokens;
+                if (availableTokens < 0) {
+                    waitNanos = Math.max(waitNanos, (long) (-availableTokens / tokensPerNano));
+                }
+            }
+        }
+        
+        if (waitNanos <= 0) {
+            return 0;
+        }
+        long waitMs = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        delayedCalls.incrementAndGet();
+        totalDelayMs.addAndGet(waitMs);
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+        return waitMs;
+    }
+    
+    /**
+     * 用响应中的实际用量修正预估值，多用的部分从后续额度中扣除
+     */
+    public synchronized void reconcile(long estimatedTokens, long actualTokens) {
+        if (tokensPerNano > 0) {
+            refill(System.nanoTime());
+            availableTokens -= (actualTokens - estimatedTokens);
+        }
+    }
+    
+    public synchronized double getAvailableTokens() {
+        refill(System.nanoTime());
+        return availableTokens;
+    }
+    
+    public long getDelayedCalls() {
+        return delayedCalls.get();
+    }
+    
+    public long getTotalDelayMs() {
+        return totalDelayMs.get();
+    }
+    
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastRefillNanos = now;
+        if (requestsPerNano > 0) {
+            availableRequests = Math.min(requestCapacity, availableRequests + elapsed * requestsPerNano);
+        }
+        if (tokensPerNano > 0) {
+            availableTokens = Math.min(tokenCapacity, availableTokens + elapsed * tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.audit.consumer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按小时累计各AI提供方的token花费，用于按预算评估吞吐量
+ */
+@Service
+public class TokenUsageTracker {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Value("${ai.usage.retention-hours:48}")
+    private int retentionHours;
+
+    private final Map<String, HourlyUsage> usageByProviderHour = new ConcurrentHashMap<>();
+
+    public void record(String provider, int promptTokens, int completionTokens, int totalTokens) {
+        long hour = System.currentTimeMillis() / HOUR_MILLIS;
+        String key = provider + "@" + hour;
+        HourlyUsage usage = usageByProviderHour.get(key);
+        if (usage == null) {
+            evictExpired(hour);
+            usage = usageByProviderHour.computeIfAbsent(key, k -> new HourlyUsage(provider, hour));
+        }
+        usage.requests.increment();
+        usage.promptTokens.add(promptTokens);
+        usage.completionTokens.add(completionTokens);
+        usage.totalTokens.add(totalTokens);
+    }
+
+    /**
+     * 当前小时内所有提供方的token花费合计
+     */
+    public long getTotalTokensInCurrentHour() {
+        long hour = System.currentTimeMillis() / HOUR_MILLIS;
+        long total = 0;
+        for (HourlyUsage usage : usageByProviderHour.values()) {
+            if (usage.hour == hour) {
+                total += usage.totalTokens.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 各提供方每小时的token花费，按时间升序
+     */
+    public List<Map<String, Object>> getHourlyUsage() {
+        TreeMap<String, HourlyUsage> sorted = new TreeMap<>();
+        for (HourlyUsage usage : usageByProviderHour.values()) {
+            sorted.put(String.format("%012d-%s", usage.hour, usage.provider), usage);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (HourlyUsage usage : sorted.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("provider", usage.provider);
+            entry.put("hourStart", Instant.ofEpochMilli(usage.hour * HOUR_MILLIS).toString());
+            entry.put("requests", usage.requests.sum());
+            entry.put("promptTokens", usage.promptTokens.sum());
+            entry.put("completionTokens", usage.completionTokens.sum());
+            entry.put("totalTokens", usage.totalTokens.sum());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private void evictExpired(long currentHour) {
+        usageByProviderHour.values().removeIf(usage -> usage.hour <= currentHour - retentionHours);
+    }
+
+    private static class HourlyUsage {
+        private final String provider;
+        private final long hour;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalTokens = new LongAdder();
+
+        HourlyUsage(String provider, long hour) {
+            this.provider = provider;
+            this.hour = hour;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.audit.consumer.benchmark;
+
+import com.audit.consumer.dto.ChatCompletionResult;
+import com.audit.consumer.service.ChatCompletionResponseParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chat/completions成功响应的解析：流式解析器 vs 原先的 String + JsonNode 树
+ * 分配量用 -prof gc 查看（gc.alloc.rate.norm，每次解析分配的字节数）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatCompletionResponseParserBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ChatCompletionResponseParser parser;
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        parser = new ChatCompletionResponseParser(objectMapper);
+
+        // 与DeepSeek实际响应结构一致，内容约250个汉字
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 250) {
+            content.append("1. 风险点：客户计划投资金额较大，需核实资金来源。");
+        }
+        response = ("{\"id\":\"chatcmpl-0f3a\",\"object\":\"chat.completion\",\"created\":1718000000,"
+                + "\"model\":\"deepseek-chat\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\","
+                + "\"content\":\"" + content + "\"},\"logprobs\":null,\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":312,\"completion_tokens\":268,\"total_tokens\":580,"
+                + "\"prompt_tokens_details\":{\"cached_tokens\":0},\"prompt_cache_hit_tokens\":0,"
+                + "\"prompt_cache_miss_tokens\":312},\"system_fingerprint\":\"fp_3a5770e1b4\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ChatCompletionResult streaming() throws IOException {
+        return parser.parse(new ByteArrayInputStream(response));
+    }
+
+    /**
+     * 改动前的做法：读成String，建JsonNode树，再为日志生成first choice和message的toString
+     */
+    @Benchmark
+    public ChatCompletionResult treeWithLogStrings() throws IOException {
+        InputStream body = new ByteArrayInputStream(response);
+        String responseBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        JsonNode responseJson = objectMapper.readTree(responseBody);
+
+        JsonNode usage = responseJson.get("usage");
+        int promptTokens = usage.path("prompt_tokens").asInt(0);
+        int completionTokens = usage.path("completion_tokens").asInt(0);
+        int totalTokens = usage.path("total_tokens").asInt(promptTokens + completionTokens);
+        String usageLog = usage.toString();
+
+        JsonNode firstChoice = responseJson.get("choices").get(0);
+        String choiceLog = firstChoice.toString();
+        JsonNode message = firstChoice.get("message");
+        String messageLog = message.toString();
+        String content = message.get("content").asText().trim();
+
+        if (usageLog.isEmpty() || choiceLog.isEmpty() || messageLog.isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return new ChatCompletionResult(content, promptTokens, completionTokens, totalTokens);
+    }
+}
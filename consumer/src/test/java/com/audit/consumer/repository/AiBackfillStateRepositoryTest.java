@@ -0,0 +1,87 @@
+package com.audit.consumer.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在H2（MySQL模式）上验证租约、检查点和每小时预算的SQL
+ */
+class AiBackfillStateRepositoryTest {
+
+    private static final String JOB = "ai-backfill";
+
+    private JdbcTemplate jdbcTemplate;
+    private AiBackfillStateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:ai_backfill_state;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        repository = new AiBackfillStateRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS ai_backfill_state");
+    }
+
+    @Test
+    void onlyTheLeaseHolderCanWriteCheckpoints() {
+        assertTrue(repository.tryLock(JOB, "a", 60000));
+        assertFalse(repository.tryLock(JOB, "b", 60000));
+        assertTrue(repository.tryLock(JOB, "a", 60000));
+
+        assertTrue(repository.writeCheckpoint(JOB, "a", 42L, 60000));
+        assertFalse(repository.writeCheckpoint(JOB, "b", 99L, 60000));
+        assertEquals(42L, repository.readCheckpoint(JOB));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndTheOldHolderIsStopped() throws InterruptedException {
+        assertTrue(repository.tryLock(JOB, "a", 1));
+        assertTrue(repository.writeCheckpoint(JOB, "a", 10L, 1));
+        Thread.sleep(20);
+
+        assertTrue(repository.tryLock(JOB, "b", 60000));
+
+        assertFalse(repository.writeCheckpoint(JOB, "a", 11L, 60000));
+        // 接管的实例从原实例最后的检查点继续
+        assertEquals(10L, repository.readCheckpoint(JOB));
+    }
+
+    @Test
+    void unlockOnlyReleasesOwnLease() {
+        assertTrue(repository.tryLock(JOB, "a", 60000));
+
+        repository.unlock(JOB, "b");
+        assertFalse(repository.tryLock(JOB, "b", 60000));
+
+        repository.unlock(JOB, "a");
+        assertTrue(repository.tryLock(JOB, "b", 60000));
+    }
+
+    @Test
+    void tokensAccumulateWithinTheHourAndResetInTheNextOne() {
+        repository.tryLock(JOB, "a", 60000);
+        long currentHour = System.currentTimeMillis() / TimeUnit.HOURS.toMillis(1);
+        jdbcTemplate.update("UPDATE ai_backfill_state SET budget_hour = ?, budget_tokens = ? WHERE job_name = ?",
+                currentHour - 1, 5000L, JOB);
+        assertEquals(0L, repository.getTokensInCurrentHour(JOB));
+
+        repository.addTokens(JOB, 300);
+        repository.addTokens(JOB, 200);
+
+        assertEquals(500L, repository.getTokensInCurrentHour(JOB));
+    }
+}
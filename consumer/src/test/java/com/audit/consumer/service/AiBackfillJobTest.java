@@ -0,0 +1,177 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.entity.AuditLog;
+import com.audit.consumer.entity.RiskAssessment;
+import com.audit.consumer.repository.AiBackfillStateRepository;
+import com.audit.consumer.repository.AuditLogRepository;
+import com.audit.consumer.repository.CustomerInfoRepository;
+import com.audit.consumer.repository.RiskAssessmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 键集分页推进检查点、提供方仍不可用时暂停、租约被接管时停止
+ */
+class AiBackfillJobTest {
+
+    private static final String JOB = "ai-backfill";
+
+    private final AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+    private final RiskAssessmentRepository riskAssessmentRepository = mock(RiskAssessmentRepository.class);
+    private final CustomerInfoRepository customerInfoRepository = mock(CustomerInfoRepository.class);
+    private final RulePrescreenService rulePrescreenService = mock(RulePrescreenService.class);
+    private final HedgingAiRouter aiRouter = mock(HedgingAiRouter.class);
+    private final AiBackfillStateRepository stateRepository = mock(AiBackfillStateRepository.class);
+
+    private AiBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new AiBackfillJob();
+        ReflectionTestUtils.setField(job, "auditLogRepository", auditLogRepository);
+        ReflectionTestUtils.setField(job, "riskAssessmentRepository", riskAssessmentRepository);
+        ReflectionTestUtils.setField(job, "customerInfoRepository", customerInfoRepository);
+        ReflectionTestUtils.setField(job, "rulePrescreenService", rulePrescreenService);
+        ReflectionTestUtils.setField(job, "aiRouter", aiRouter);
+        ReflectionTestUtils.setField(job, "stateRepository", stateRepository);
+        ReflectionTestUtils.setField(job, "pageSize", 2);
+        ReflectionTestUtils.setField(job, "maxCallsPerRun", 100);
+        ReflectionTestUtils.setField(job, "callIntervalMs", 0L);
+        ReflectionTestUtils.setField(job, "hourlyTokenBudget", 0L);
+        ReflectionTestUtils.setField(job, "lockLeaseMs", 60000L);
+
+        when(stateRepository.tryLock(eq(JOB), anyString(), anyLong())).thenReturn(true);
+        when(stateRepository.readCheckpoint(JOB)).thenReturn(0L);
+        when(stateRepository.writeCheckpoint(eq(JOB), anyString(), anyLong(), anyLong())).thenReturn(true);
+        when(rulePrescreenService.prescreen(any())).thenReturn(Optional.empty());
+        when(aiRouter.generateAuditStrategy(any(), any())).thenReturn("新策略");
+        when(auditLogRepository.updateAiAuditIfPlaceholder(anyLong(), anyString(), any(), any())).thenReturn(1);
+        when(customerInfoRepository.findAllById(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void checkpointAdvancesPageByPageAndResetsAtTheEnd() {
+        page(0L, audit(1L, 11L), audit(2L, 12L));
+        page(2L, audit(3L, 13L));
+        page(3L);
+        risks(11L, 12L, 13L);
+
+        assertEquals(3, job.runOnce());
+
+        InOrder order = inOrder(stateRepository);
+        order.verify(stateRepository).writeCheckpoint(eq(JOB), anyString(), eq(1L), anyLong());
+        order.verify(stateRepository).writeCheckpoint(eq(JOB), anyString(), eq(2L), anyLong());
+        order.verify(stateRepository).writeCheckpoint(eq(JOB), anyString(), eq(3L), anyLong());
+        order.verify(stateRepository).writeCheckpoint(eq(JOB), anyString(), eq(0L), anyLong());
+        order.verify(stateRepository).unlock(eq(JOB), anyString());
+    }
+
+    @Test
+    void pausesOnTheAuditWhoseStrategyIsStillAPlaceholder() {
+        page(0L, audit(1L, 11L), audit(2L, 12L));
+        risks(11L, 12L);
+        when(aiRouter.generateAuditStrategy(any(), any()))
+                .thenReturn("新策略")
+                .thenReturn(AiAuditProvider.FALLBACK_STRATEGY);
+
+        assertEquals(1, job.runOnce());
+
+        verify(auditLogRepository, times(1)).updateAiAuditIfPlaceholder(anyLong(), anyString(), any(), any());
+        verify(stateRepository).writeCheckpoint(eq(JOB), anyString(), eq(1L), anyLong());
+        // 检查点停在1，下次从审核记录2重新开始
+        verify(stateRepository, never()).writeCheckpoint(eq(JOB), anyString(), eq(2L), anyLong());
+    }
+
+    @Test
+    void stopsWhenTheLeaseWasTakenOver() {
+        page(0L, audit(1L, 11L), audit(2L, 12L));
+        risks(11L, 12L);
+        when(stateRepository.writeCheckpoint(eq(JOB), anyString(), anyLong(), anyLong())).thenReturn(false);
+
+        assertEquals(1, job.runOnce());
+
+        verify(aiRouter, times(1)).generateAuditStrategy(any(), any());
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheLock() {
+        when(stateRepository.tryLock(eq(JOB), anyString(), anyLong())).thenReturn(false);
+
+        assertEquals(0, job.runOnce());
+
+        verify(auditLogRepository, never()).findPlaceholderAuditsAfterId(anyLong(), any(), any(), any());
+        verify(stateRepository, never()).unlock(anyString(), anyString());
+    }
+
+    @Test
+    void investorTypeUsesTheSharedRiskTypeBands() {
+        page(0L, audit(1L, 11L), audit(2L, 12L));
+        page(2L, audit(3L, 13L));
+        page(3L);
+        List<RiskAssessment> assessments = new ArrayList<>();
+        assessments.add(risk(11L, 39));
+        assessments.add(risk(12L, 40));
+        assessments.add(risk(13L, 70));
+        when(riskAssessmentRepository.findByCustomerIdIn(any())).thenAnswer(invocation -> assessments);
+
+        job.runOnce();
+
+        ArgumentCaptor<UserAuditFormMessage.FormData> formData = ArgumentCaptor.forClass(UserAuditFormMessage.FormData.class);
+        verify(aiRouter, times(3)).generateAuditStrategy(formData.capture(), any());
+        assertEquals(List.of("保守型", "稳健型", "激进型"),
+                formData.getAllValues().stream().map(UserAuditFormMessage.FormData::getInvestorType).toList());
+    }
+
+    private void page(long afterId, AuditLog... audits) {
+        when(auditLogRepository.findPlaceholderAuditsAfterId(eq(afterId), any(), any(), any()))
+                .thenReturn(List.of(audits));
+    }
+
+    private void risks(Long... customerIds) {
+        List<RiskAssessment> assessments = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            assessments.add(risk(customerId, 50));
+        }
+        when(riskAssessmentRepository.findByCustomerIdIn(any())).thenReturn(assessments);
+    }
+
+    private static AuditLog audit(Long id, Long customerId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(id);
+        auditLog.setCustomerId(customerId);
+        auditLog.setAiAudit(AiAuditProvider.FALLBACK_STRATEGY);
+        return auditLog;
+    }
+
+    private static RiskAssessment risk(Long customerId, int score) {
+        RiskAssessment risk = new RiskAssessment();
+        ReflectionTestUtils.setField(risk, "id", customerId * 10);
+        ReflectionTestUtils.setField(risk, "customerId", customerId);
+        ReflectionTestUtils.setField(risk, "score", score);
+        ReflectionTestUtils.setField(risk, "annualIncome", 3);
+        ReflectionTestUtils.setField(risk, "maxLoss", 2);
+        ReflectionTestUtils.setField(risk, "investmentAmount", new BigDecimal("50000"));
+        return risk;
+    }
+}
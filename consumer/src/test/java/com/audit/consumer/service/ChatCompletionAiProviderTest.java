@@ -0,0 +1,274 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.exception.AiProviderException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用本地HTTP桩服务验证chat/completions客户端：响应解析、429重试和限流额度结算
+ */
+class ChatCompletionAiProviderTest {
+
+    private static final long TOKENS_PER_MINUTE = 60000;
+    private static final long TOKEN_ESTIMATE = 1000;
+
+    private static final String SUCCESS_BODY = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\","
+            + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"  审核策略  \"},"
+            + "\"finish_reason\":\"stop\"},{\"index\":1,\"message\":{\"content\":\"ignored\"}}],"
+            + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":80,\"total_tokens\":200,"
+            + "\"prompt_tokens_details\":{\"cached_tokens\":0}},\"system_fingerprint\":\"fp\"}";
+
+    private final Queue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+    private final AtomicReference<byte[]> lastRequestBody = new AtomicReference<>();
+
+    private HttpServer server;
+    private StubProvider provider;
+    private TokenUsageTracker tokenUsageTracker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        tokenUsageTracker = new TokenUsageTracker();
+        ReflectionTestUtils.setField(tokenUsageTracker, "retentionHours", 48);
+
+        provider = new StubProvider("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+        provider.objectMapper = objectMapper;
+        provider.tokenUsageTracker = tokenUsageTracker;
+        provider.responseParser = new ChatCompletionResponseParser(objectMapper);
+        provider.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.closeHttpClient();
+        server.stop(0);
+    }
+
+    @Test
+    void parsesContentAndUsageFromSuccessfulResponse() throws IOException {
+        responses.add(new StubResponse(200, SUCCESS_BODY, null));
+
+        String strategy = provider.generateAuditStrategy(formData());
+
+        assertEquals("审核策略", strategy);
+        assertEquals(1, requestCount.get());
+        assertEquals("Bearer sk-test", lastAuthorization.get());
+        JsonNode request = new ObjectMapper().readTree(lastRequestBody.get());
+        assertEquals("stub-model", request.get("model").asText());
+        assertEquals(2, request.get("messages").size());
+        assertEquals(200, tokenUsageTracker.getTotalTokensInCurrentHour());
+    }
+
+    @Test
+    void reportsActualTokensOfSuccessfulCallToContext() {
+        responses.add(new StubResponse(429, "{\"error\":\"rate limited\"}", "0"));
+        responses.add(new StubResponse(200, SUCCESS_BODY, null));
+
+        List<Long> tokens = new ArrayList<>();
+        provider.generateAuditStrategy(formData(), new AiCallContext(null, tokens::add));
+
+        assertEquals(List.of(200L), tokens);
+    }
+
+    @Test
+    void retriesOnceAfter429() {
+        responses.add(new StubResponse(429, "{\"error\":\"rate limited\"}", "0"));
+        responses.add(new StubResponse(200, SUCCESS_BODY, null));
+
+        assertEquals("审核策略", provider.generateAuditStrategy(formData()));
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    void failsAfterRetriesAreExhaustedAndReleasesReservedTokens() {
+        responses.add(new StubResponse(429, "{\"error\":\"rate limited\"}", "0"));
+        responses.add(new StubResponse(503, "overloaded", null));
+
+        AiProviderException e = assertThrows(AiProviderException.class,
+                () -> provider.generateAuditStrategy(formData()));
+
+        assertTrue(e.getMessage().contains("503"));
+        assertEquals(2, requestCount.get());
+        assertTokensReleased();
+    }
+
+    @Test
+    void doesNotRetryOtherErrors() {
+        responses.add(new StubResponse(500, "internal error", null));
+
+        assertThrows(AiProviderException.class, () -> provider.generateAuditStrategy(formData()));
+        assertEquals(1, requestCount.get());
+        assertTokensReleased();
+    }
+
+    @Test
+    void rejectsResponseWithoutContent() {
+        responses.add(new StubResponse(200, "{\"choices\":[],\"usage\":{\"total_tokens\":5}}", null));
+
+        assertThrows(AiProviderException.class, () -> provider.generateAuditStrategy(formData()));
+        assertTokensReleased();
+    }
+
+    @Test
+    void releasesReservedTokensWhenConnectionFails() {
+        // 桩服务不返回响应直接断开连接，客户端得到IOException
+        responses.add(new StubResponse(-1, null, null));
+
+        assertThrows(AiProviderException.class, () -> provider.generateAuditStrategy(formData()));
+        assertTokensReleased();
+    }
+
+    @Test
+    void latencyExcludesRateLimitWait() throws IOException {
+        // 每秒2个请求、突发1个：第二次调用要在限流器中等待约500ms
+        provider.closeHttpClient();
+        provider.limiter = new TokenBucketRateLimiter(2, 1, TOKENS_PER_MINUTE);
+        provider.init();
+        responses.add(new StubResponse(200, SUCCESS_BODY, null));
+        responses.add(new StubResponse(200, SUCCESS_BODY, null));
+        provider.generateAuditStrategy(formData(), AiCallContext.none());
+
+        List<Long> samples = new ArrayList<>();
+        long start = System.nanoTime();
+        provider.generateAuditStrategy(formData(), new AiCallContext(samples::add));
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(totalMs >= 400, "second call was not throttled: " + totalMs + "ms");
+        assertEquals(1, samples.size());
+        assertTrue(samples.get(0) < 300, "latency includes the rate limit wait: " + samples.get(0) + "ms");
+    }
+
+    @Test
+    void cancelledCallIsNotSentAndReleasesReservedTokens() {
+        AiCallContext context = AiCallContext.none();
+        context.cancel();
+
+        assertThrows(AiProviderException.class, () -> provider.generateAuditStrategy(formData(), context));
+        assertEquals(0, requestCount.get());
+        assertTokensReleased();
+    }
+
+    private void assertTokensReleased() {
+        double available = provider.getRateLimiter().getAvailableTokens();
+        assertTrue(available > TOKENS_PER_MINUTE - TOKEN_ESTIMATE / 2,
+                "reserved tokens were not released, available: " + available);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+        lastRequestBody.set(exchange.getRequestBody().readAllBytes());
+
+        StubResponse response = responses.poll();
+        if (response == null || response.status < 0) {
+            exchange.close();
+            return;
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (response.retryAfter != null) {
+            exchange.getResponseHeaders().set("Retry-After", response.retryAfter);
+        }
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static UserAuditFormMessage.FormData formData() {
+        return new UserAuditFormMessage.FormData(55, "稳健型", 200000.0, 2, 2,
+                Map.of("investmentExperience", "1-3年"), 35, "工程师");
+    }
+
+    private static class StubResponse {
+        final int status;
+        final String body;
+        final String retryAfter;
+
+        StubResponse(int status, String body, String retryAfter) {
+            this.status = status;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    private static class StubProvider extends ChatCompletionAiProvider {
+
+        private final String url;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1000, 10, TOKENS_PER_MINUTE);
+
+        StubProvider(String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        protected String getApiUrl() {
+            return url;
+        }
+
+        @Override
+        protected String getApiKey() {
+            return "sk-test";
+        }
+
+        @Override
+        protected String getModel() {
+            return "stub-model";
+        }
+
+        @Override
+        protected int getTimeoutSeconds() {
+            return 2;
+        }
+
+        @Override
+        protected long getRetryBackoffMs() {
+            return 10;
+        }
+
+        @Override
+        protected TokenBucketRateLimiter createRateLimiter() {
+            return limiter;
+        }
+
+        @Override
+        protected long getInitialTokenEstimate() {
+            return TOKEN_ESTIMATE;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.exception.AiProviderException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingAiRouterTest {
+
+    private final SlowProvider primary = new SlowProvider("primary");
+    private final FixedProvider secondary = new FixedProvider("secondary", "备用策略");
+
+    private HedgingAiRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new HedgingAiRouter();
+        ReflectionTestUtils.setField(router, "providers", List.of(primary, secondary));
+        ReflectionTestUtils.setField(router, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(router, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(router, "initialDelayMs", 50L);
+        ReflectionTestUtils.setField(router, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(router, "maxDelayMs", 1000L);
+        ReflectionTestUtils.setField(router, "windowSize", 200);
+        ReflectionTestUtils.setField(router, "minSamples", 1);
+        ReflectionTestUtils.setField(router, "overallTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(router, "poolSize", 4);
+        router.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+
+    @Test
+    void hedgeWinsAndSlowPrimaryIsCancelled() throws InterruptedException {
+        String strategy = router.generateAuditStrategy(new UserAuditFormMessage.FormData());
+
+        assertEquals("备用策略", strategy);
+        assertEquals(1, router.getHedgedRequests());
+        assertEquals(1, router.getHedgeWins());
+        assertTrue(primary.aborted.await(1, TimeUnit.SECONDS), "losing primary request was not cancelled");
+    }
+
+    @Test
+    void cancelledPrimaryStillContributesALatencySample() throws InterruptedException {
+        router.generateAuditStrategy(new UserAuditFormMessage.FormData());
+        assertTrue(primary.aborted.await(1, TimeUnit.SECONDS));
+
+        // 取消时已等待约一个对冲延迟，该下界样本进入主提供方的延迟窗口
+        long hedgeDelay = router.getHedgeDelayMs(primary);
+        assertTrue(hedgeDelay >= 40 && hedgeDelay < 1000, "unexpected hedge delay " + hedgeDelay);
+    }
+
+    /**
+     * 一直不返回，直到被取消
+     */
+    private static class SlowProvider implements AiAuditProvider {
+
+        private final String name;
+        final CountDownLatch aborted = new CountDownLatch(1);
+
+        SlowProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String generateAuditStrategy(UserAuditFormMessage.FormData formData) {
+            return generateAuditStrategy(formData, AiCallContext.none());
+        }
+
+        @Override
+        public String generateAuditStrategy(UserAuditFormMessage.FormData formData, AiCallContext context) {
+            context.requestStarted(aborted::countDown);
+            try {
+                aborted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                context.requestFinished(false);
+            }
+            throw new AiProviderException(name + " aborted");
+        }
+    }
+
+    private static class FixedProvider implements AiAuditProvider {
+
+        private final String name;
+        private final String result;
+
+        FixedProvider(String name, String result) {
+            this.name = name;
+            this.result = result;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String generateAuditStrategy(UserAuditFormMessage.FormData formData) {
+            return result;
+        }
+    }
+}
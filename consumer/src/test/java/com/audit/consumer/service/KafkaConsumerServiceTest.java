@@ -0,0 +1,139 @@
+package com.audit.consumer.service;
+
+import com.audit.common.codec.UserAuditFormCodec;
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.repository.AuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaConsumerServiceTest {
+
+    private final AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+    private final RulePrescreenService rulePrescreenService = mock(RulePrescreenService.class);
+    private final HedgingAiRouter aiRouter = mock(HedgingAiRouter.class);
+    private final AiResultPublisher aiResultPublisher = mock(AiResultPublisher.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+    private KafkaConsumerService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new KafkaConsumerService();
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "auditLogRepository", auditLogRepository);
+        ReflectionTestUtils.setField(service, "aiRouter", aiRouter);
+        ReflectionTestUtils.setField(service, "rulePrescreenService", rulePrescreenService);
+        ReflectionTestUtils.setField(service, "aiResultPublisher", aiResultPublisher);
+        ReflectionTestUtils.setField(service, "laneLatencyStats", new LaneLatencyStats());
+        ReflectionTestUtils.setField(service, "resultDelivery", "database");
+        ReflectionTestUtils.setField(service, "missingRowMaxRedeliveries", 2);
+        ReflectionTestUtils.setField(service, "missingRowBackoffMs", 100L);
+        ReflectionTestUtils.setField(service, "resultRedeliveryBackoffMs", 200L);
+        service.init();
+
+        when(rulePrescreenService.prescreen(any())).thenReturn(Optional.of("规则策略"));
+    }
+
+    @Test
+    void missingRowIsRedeliveredFromThatMessage() {
+        when(auditLogRepository.findStatusesByIdIn(any())).thenReturn(statuses(new Object[] {1L, 5}, new Object[] {3L, 5}));
+
+        service.consumeUserAuditFormMessages(List.of(record(0, 1L), record(1, 2L), record(2, 3L)), acknowledgment);
+
+        verify(auditLogRepository).updateAiResultIfStatus(eq(1L), eq("规则策略"), eq(0), eq(5), any());
+        verify(auditLogRepository, never()).updateAiResultIfStatus(eq(3L), anyString(), anyInt(), anyInt(), any());
+        verify(acknowledgment).nack(1, Duration.ofMillis(100));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void missingRowIsSkippedAfterMaxRedeliveries() {
+        when(auditLogRepository.findStatusesByIdIn(any())).thenReturn(statuses());
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            service.consumeUserAuditFormMessages(List.of(record(0, 2L)), acknowledgment);
+        }
+
+        verify(acknowledgment, times(2)).nack(0, Duration.ofMillis(100));
+        verify(acknowledgment).acknowledge();
+        verify(rulePrescreenService, never()).prescreen(any());
+    }
+
+    @Test
+    void rowFoundOnRedeliveryIsProcessed() {
+        when(auditLogRepository.findStatusesByIdIn(any())).thenReturn(statuses(), statuses(new Object[] {2L, 5}));
+
+        service.consumeUserAuditFormMessages(List.of(record(0, 2L)), acknowledgment);
+        service.consumeUserAuditFormMessages(List.of(record(0, 2L)), acknowledgment);
+
+        verify(acknowledgment).nack(0, Duration.ofMillis(100));
+        verify(auditLogRepository).updateAiResultIfStatus(eq(2L), eq("规则策略"), eq(0), eq(5), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void rowNoLongerWaitingForAiIsSkippedWithoutRedelivery() {
+        when(auditLogRepository.findStatusesByIdIn(any())).thenReturn(statuses(new Object[] {1L, 1}));
+
+        service.consumeUserAuditFormMessages(List.of(record(0, 1L)), acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verify(acknowledgment, never()).nack(anyInt(), any());
+        verify(rulePrescreenService, never()).prescreen(any());
+    }
+
+    @Test
+    void failedResultPublishNacksFromThatMessage() throws Exception {
+        ReflectionTestUtils.setField(service, "resultDelivery", "topic");
+        service.init();
+        doThrow(new IllegalStateException("broker unavailable")).when(aiResultPublisher).publish(eq(2L), anyString());
+
+        service.consumeUserAuditFormMessages(List.of(record(0, 1L), record(1, 2L), record(2, 3L)), acknowledgment);
+
+        verify(aiResultPublisher).publish(1L, "规则策略");
+        // 重试3次，不改发占位策略
+        verify(aiResultPublisher, times(3)).publish(eq(2L), anyString());
+        verify(aiResultPublisher, never()).publish(eq(3L), anyString());
+        verify(acknowledgment).nack(1, Duration.ofMillis(200));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private static List<Object[]> statuses(Object[]... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, Long auditLogId) {
+        UserAuditFormMessage message = new UserAuditFormMessage(auditLogId, 10L,
+                new UserAuditFormMessage.FormData(), LocalDateTime.now());
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(UserAuditFormMessage.TOPIC, 0, offset,
+                auditLogId.toString(), UserAuditFormCodec.encode(message));
+        record.headers().add(UserAuditFormCodec.FORMAT_HEADER,
+                UserAuditFormCodec.FORMAT_PB1.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(UserAuditFormCodec.AUDIT_LOG_ID_HEADER,
+                auditLogId.toString().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
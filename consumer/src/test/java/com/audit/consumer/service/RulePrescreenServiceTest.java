@@ -0,0 +1,135 @@
+package com.audit.consumer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.consumer.config.PrescreenProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RulePrescreenServiceTest {
+
+    private PrescreenProperties properties;
+    private RulePrescreenService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PrescreenProperties();
+        properties.setRules(List.of(
+                rule("small", null, 39, List.of(1, 2), null, 100000.0, "{rule}:{riskScore}:{investmentAmount}元:{maxLoss}"),
+                rule("catch-all-low", null, 39, List.of(), null, null, "{rule}")));
+        service = newService(properties);
+    }
+
+    @Test
+    void firstMatchingRuleWins() {
+        assertEquals(Optional.of("small:30:80000元:2"), service.prescreen(form(30, 2, 3, 80000.0)));
+        // 金额超出第一条规则，落到第二条
+        assertEquals(Optional.of("catch-all-low"), service.prescreen(form(30, 2, 3, 200000.0)));
+    }
+
+    @Test
+    void maxLossCodesAreMatchedAsBitmask() {
+        assertEquals(Optional.of("catch-all-low"), service.prescreen(form(30, 3, 3, 80000.0)));
+        assertEquals(Optional.of("small:30:80000元:1"), service.prescreen(form(30, 1, 3, 80000.0)));
+        // 超出位掩码范围的代码不会命中任何规则
+        assertFalse(service.prescreen(form(30, 64, 3, 80000.0)).isPresent());
+        assertFalse(service.prescreen(form(30, -1, 3, 80000.0)).isPresent());
+    }
+
+    @Test
+    void outOfRangeMaxLossCodeIsRejectedAtStartup() {
+        PrescreenProperties invalid = new PrescreenProperties();
+        invalid.setRules(List.of(rule("bad", null, null, List.of(64), null, null, "x")));
+
+        assertThrows(IllegalStateException.class, () -> newService(invalid));
+    }
+
+    @Test
+    void missingFieldsAreLeftToTheAi() {
+        assertFalse(service.prescreen(form(null, 2, 3, 80000.0)).isPresent());
+        assertFalse(service.prescreen(form(30, null, 3, 80000.0)).isPresent());
+        assertFalse(service.prescreen(form(30, 2, null, 80000.0)).isPresent());
+        assertFalse(service.prescreen(form(30, 2, 3, null)).isPresent());
+        assertFalse(service.prescreen(null).isPresent());
+    }
+
+    @Test
+    void investmentAmountIsRenderedWithoutTrailingZeros() {
+        assertEquals(Optional.of("small:30:1234.5元:2"), service.prescreen(form(30, 2, 3, 1234.5)));
+        assertEquals(Optional.of("small:30:99999.99元:2"), service.prescreen(form(30, 2, 3, 99999.994)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsSkipsPerRule() {
+        service.prescreen(form(30, 2, 3, 80000.0));
+        service.prescreen(form(30, 2, 3, 90000.0));
+        service.prescreen(form(30, 3, 3, 80000.0));
+        service.prescreen(form(80, 2, 3, 80000.0));
+
+        Map<String, Object> statistics = service.getStatistics();
+        Map<String, Map<String, Object>> rules = (Map<String, Map<String, Object>>) statistics.get("rules");
+        assertEquals(4L, statistics.get("evaluated"));
+        assertEquals(1L, statistics.get("sentToAi"));
+        assertEquals(0.75, (Double) statistics.get("totalSkipRate"), 1e-9);
+        assertEquals(2L, rules.get("small").get("hits"));
+        assertEquals(0.5, (Double) rules.get("small").get("skipRate"), 1e-9);
+        assertEquals(1L, rules.get("catch-all-low").get("hits"));
+    }
+
+    @Test
+    void disabledPrescreenSendsEverythingToTheAi() {
+        properties.setEnabled(false);
+
+        assertFalse(service.prescreen(form(30, 2, 3, 80000.0)).isPresent());
+        assertEquals(0L, service.getStatistics().get("evaluated"));
+    }
+
+    @Test
+    void rendersEveryPlaceholderAndKeepsUnknownOnes() {
+        PrescreenProperties allPlaceholders = new PrescreenProperties();
+        allPlaceholders.setRules(List.of(rule("r", null, null, List.of(), null, null,
+                "{rule}{riskScore}{investorType}{investmentAmount}{annualIncome}{maxLoss}{unknown}")));
+
+        Optional<String> strategy = newService(allPlaceholders).prescreen(form(30, 2, 3, 100000.0));
+
+        assertTrue(strategy.isPresent());
+        assertEquals("r30保守型10000032{unknown}", strategy.get());
+    }
+
+    private static RulePrescreenService newService(PrescreenProperties properties) {
+        RulePrescreenService service = new RulePrescreenService();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        service.compileRules();
+        return service;
+    }
+
+    private static PrescreenProperties.Rule rule(String name, Integer minRiskScore, Integer maxRiskScore,
+                                                 List<Integer> maxLossCodes, Integer minAnnualIncome,
+                                                 Double maxInvestmentAmount, String strategy) {
+        PrescreenProperties.Rule rule = new PrescreenProperties.Rule();
+        rule.setName(name);
+        rule.setMinRiskScore(minRiskScore);
+        rule.setMaxRiskScore(maxRiskScore);
+        rule.setMaxLossCodes(maxLossCodes);
+        rule.setMinAnnualIncome(minAnnualIncome);
+        rule.setMaxInvestmentAmount(maxInvestmentAmount);
+        rule.setStrategy(strategy);
+        return rule;
+    }
+
+    private static UserAuditFormMessage.FormData form(Integer riskScore, Integer maxLoss, Integer annualIncome,
+                                                      Double investmentAmount) {
+        return new UserAuditFormMessage.FormData(riskScore, "保守型", investmentAmount, annualIncome, maxLoss,
+                null, 35, "engineer");
+    }
+}
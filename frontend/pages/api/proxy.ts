@@ -69,6 +69,16 @@ export default async function handler(
       timeout: 10000,
     };
 
+    // 转发访问令牌（注册初级以上审核员等需要投资委员会令牌的接口）
+    if (req.headers.authorization) {
+      axiosConfig.headers.Authorization = req.headers.authorization;
+    }
+
+    // 传递客户端地址，后端登录限流按真实IP计数；只写入本次连接的地址，不沿用客户端自带的X-Forwarded-For，避免伪造
+    if (req.socket.remoteAddress) {
+      axiosConfig.headers['X-Forwarded-For'] = req.socket.remoteAddress;
+    }
+
     // 使用httpsAgent处理自签名证书
     axiosConfig.httpsAgent = httpsAgent;
 
@@ -120,10 +120,13 @@ const AuditorLoginPage: React.FC = () => {
 
     setLoading(true);
     try {
+      // 初级以上级别需要投资委员会成员已登录，携带其访问令牌
+      const token = sessionStorage.getItem('auditorToken');
       const response = await fetch('/api/proxy', {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
+          ...(token ? { Authorization: token } : {}),
         },
         body: JSON.stringify({
           path: '/api/auditor/register',
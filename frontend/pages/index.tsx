@@ -142,6 +142,7 @@ const CustomerPage = () => {
           investAmount: Number(formData.investAmount) * 10000 // 转换为元
         },
         riskAssessment: {
+          ageRange: formData.age,
           annualIncome: getIncomeCode(formData.income),
           investmentAmount: Number(formData.investAmount) * 10000,
           investmentExperience: getExperienceText(formData.experience),
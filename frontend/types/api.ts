@@ -17,6 +17,7 @@ export interface CustomerInfo {
 
 // 风险评估信息
 export interface RiskAssessment {
+  ageRange?: string;
   annualIncome: number;
   investmentAmount: number;
   investmentExperience?: string;
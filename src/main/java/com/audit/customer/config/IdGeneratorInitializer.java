@@ -0,0 +1,54 @@
+package com.audit.customer.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 表生成器（id_generator）初始化
+ * 各实体改用号段分配ID后，号段起点必须高于原自增主键的最大值；在EntityManagerFactory建表之后、
+ * Web服务开始接收请求之前执行，保证首个号段不与历史数据冲突。
+ */
+@Component
+public class IdGeneratorInitializer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+    
+    // 与实体上@TableGenerator的allocationSize保持一致
+    private static final int ALLOCATION_SIZE = 50;
+    
+    private static final List<String> TABLES = List.of(
+        "customer_info", "risk_assessment", "audit_log", "risk_assessment_result");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // 注入EntityManagerFactory以确保ddl-auto已创建id_generator表
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generator (" +
+            "sequence_name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+        
+        for (String table : TABLES) {
+            long floor = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class) + ALLOCATION_SIZE + 1;
+            
+            int updated = jdbcTemplate.update(
+                "UPDATE id_generator SET next_val = GREATEST(COALESCE(next_val, 0), ?) WHERE sequence_name = ?",
+                floor, table);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO id_generator (sequence_name, next_val) VALUES (?, ?)", table, floor);
+            }
+            logger.info("Id generator for {} starts at or above {}", table, floor);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.audit.customer.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+    
+    /**
+     * Spring Boot会把容器中的Module自动注册到全局ObjectMapper，对所有JSON请求体生效
+     */
+    @Bean
+    public Module sanitizingModule() {
+        return new SanitizingModule();
+    }
+}
@@ -2,6 +2,7 @@ package com.audit.customer.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,21 +26,64 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:audit-consumer-group}")
     private String consumerGroupId;
 
+    // 生产者吞吐相关参数，high-throughput配置档加大攒批时间和批大小并开启压缩
+    @Value("${kafka.producer.idempotence:true}")
+    private boolean idempotence;
+
+    @Value("${kafka.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:16384}")
+    private int batchSize;
+
+    @Value("${kafka.producer.compression-type:none}")
+    private String compressionType;
+
+    @Value("${kafka.producer.max-in-flight:5}")
+    private int maxInFlight;
+
+    @Value("${kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(StringSerializer.class));
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    /**
+     * 审核表单消息按字节发送，JSON和二进制格式共用，格式由消息头区分
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> auditFormProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(ByteArraySerializer.class));
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> auditFormKafkaTemplate() {
+        return new KafkaTemplate<>(auditFormProducerFactory());
+    }
+
+    private Map<String, Object> producerConfigs(Class<?> valueSerializer) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 2000);
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
-    @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        // 幂等要求acks=all且在途请求不超过5，重试时不会产生重复或乱序
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION_CONFIG, maxInFlight);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        return configProps;
     }
 
     @Bean
@@ -62,4 +106,16 @@ public class KafkaConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * 按批消费，用于AI审核结果等可合并写库的消息
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,88 @@
+package com.audit.customer.config;
+
+import com.audit.customer.util.SanitizedText;
+import com.audit.customer.util.SecurityUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * JSON请求体清理模块
+ * 为带有@SanitizedText注解的String字段替换反序列化器，在解析时对字符串只做一遍校验和转义，
+ * 不再需要在Service中逐字段调用SecurityUtil.sanitizeAndValidate
+ */
+public class SanitizingModule extends SimpleModule {
+    
+    public SanitizingModule() {
+        super("SanitizingModule");
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config,
+                                                         BeanDescription beanDesc,
+                                                         BeanDeserializerBuilder builder) {
+                List<SettableBeanProperty> replacements = new ArrayList<>();
+                Iterator<SettableBeanProperty> properties = builder.getProperties();
+                while (properties.hasNext()) {
+                    SettableBeanProperty property = properties.next();
+                    SanitizedText annotation = property.getAnnotation(SanitizedText.class);
+                    if (annotation != null && property.getType().hasRawClass(String.class)) {
+                        replacements.add(property.withValueDeserializer(new SanitizingStringDeserializer(annotation)));
+                    }
+                }
+                for (SettableBeanProperty replacement : replacements) {
+                    builder.addOrReplaceProperty(replacement, true);
+                }
+                return builder;
+            }
+        });
+    }
+    
+    static class SanitizingStringDeserializer extends StdScalarDeserializer<String> {
+        
+        private final int maxLength;
+        private final boolean checkSqlKeywords;
+        private final boolean escapeHtml;
+        
+        SanitizingStringDeserializer(SanitizedText annotation) {
+            super(String.class);
+            this.maxLength = annotation.maxLength();
+            this.checkSqlKeywords = annotation.checkSqlKeywords();
+            this.escapeHtml = annotation.escapeHtml();
+        }
+        
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return (String) ctxt.handleUnexpectedToken(String.class, p);
+            }
+            
+            String value = p.getText().trim();
+            String field = p.currentName();
+            
+            if (checkSqlKeywords && SecurityUtil.containsSqlInjection(value)) {
+                return (String) ctxt.handleWeirdStringValue(String.class, value,
+                    "输入内容包含非法字符（字段：" + field + "）");
+            }
+            String result = escapeHtml ? HtmlUtils.htmlEscape(value) : value;
+            // 按转义后的长度检查，即实际写入数据库的长度
+            if (maxLength >= 0 && result.length() > maxLength) {
+                return (String) ctxt.handleWeirdStringValue(String.class, value,
+                    "输入内容超过最大长度限制：" + maxLength + "（字段：" + field + "）");
+            }
+            return result;
+        }
+    }
+}
@@ -7,6 +7,9 @@ import jakarta.servlet.http.HttpServletRequestWrapper;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
@@ -17,47 +20,76 @@ public class SecurityFilter implements Filter {
             throws IOException, ServletException {
         
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        SecurityRequestWrapper wrappedRequest = new SecurityRequestWrapper(httpRequest);
         
+        // 没有查询串且不是表单提交（如JSON请求体）时不存在请求参数，无需包装
+        if (httpRequest.getQueryString() == null && !isFormRequest(httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        SecurityRequestWrapper wrappedRequest = new SecurityRequestWrapper(httpRequest);
         chain.doFilter(wrappedRequest, response);
     }
     
+    private static boolean isFormRequest(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null
+            && (contentType.regionMatches(true, 0, "application/x-www-form-urlencoded", 0, 33)
+                || contentType.regionMatches(true, 0, "multipart/form-data", 0, 19));
+    }
+    
     private static class SecurityRequestWrapper extends HttpServletRequestWrapper {
         
+        // 首次访问参数时清理一次并缓存，之后的访问直接查表
+        private Map<String, String[]> sanitizedParameters;
+        
         public SecurityRequestWrapper(HttpServletRequest request) {
             super(request);
         }
         
         @Override
         public String getParameter(String name) {
-            String value = super.getParameter(name);
-            return sanitizeParameter(value);
+            String[] values = getSanitizedParameters().get(name);
+            return values != null && values.length > 0 ? values[0] : null;
         }
         
         @Override
         public String[] getParameterValues(String name) {
-            String[] values = super.getParameterValues(name);
-            if (values == null) {
-                return null;
-            }
-            
-            String[] sanitizedValues = new String[values.length];
-            for (int i = 0; i < values.length; i++) {
-                sanitizedValues[i] = sanitizeParameter(values[i]);
-            }
-            return sanitizedValues;
+            String[] values = getSanitizedParameters().get(name);
+            return values != null ? values.clone() : null;
         }
         
         @Override
         public Map<String, String[]> getParameterMap() {
-            Map<String, String[]> map = super.getParameterMap();
-            for (Map.Entry<String, String[]> entry : map.entrySet()) {
-                String[] values = entry.getValue();
-                for (int i = 0; i < values.length; i++) {
-                    values[i] = sanitizeParameter(values[i]);
+            // 数组逐个复制，调用方修改返回的数组不会改写缓存的清理结果
+            Map<String, String[]> sanitized = getSanitizedParameters();
+            Map<String, String[]> copy = new LinkedHashMap<>(sanitized.size() * 2);
+            for (Map.Entry<String, String[]> entry : sanitized.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().clone());
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(getSanitizedParameters().keySet());
+        }
+        
+        private Map<String, String[]> getSanitizedParameters() {
+            if (sanitizedParameters == null) {
+                Map<String, String[]> original = super.getParameterMap();
+                Map<String, String[]> sanitized = new LinkedHashMap<>(original.size() * 2);
+                for (Map.Entry<String, String[]> entry : original.entrySet()) {
+                    String[] values = entry.getValue();
+                    String[] sanitizedValues = new String[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        sanitizedValues[i] = sanitizeParameter(values[i]);
+                    }
+                    sanitized.put(entry.getKey(), sanitizedValues);
                 }
+                sanitizedParameters = Collections.unmodifiableMap(sanitized);
             }
-            return map;
+            return sanitizedParameters;
         }
         
         private String sanitizeParameter(String value) {
@@ -74,4 +106,4 @@ public class SecurityFilter implements Filter {
             return SecurityUtil.sanitizeInput(value);
         }
     }
-}
\ No newline at end of file
+}
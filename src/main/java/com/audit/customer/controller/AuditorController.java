@@ -8,12 +8,18 @@ import com.audit.customer.dto.AuditTaskResponse;
 import com.audit.customer.dto.AuditorLoginRequest;
 import com.audit.customer.dto.AuditorLoginResponse;
 import com.audit.customer.dto.AuditorRegistrationRequest;
+import com.audit.customer.dto.AuditorStateUpdateRequest;
+import com.audit.customer.dto.RefreshTokenRequest;
+import com.audit.customer.exception.AccessDeniedException;
+import com.audit.customer.exception.TooManyRequestsException;
 import com.audit.customer.service.AuditTaskService;
 import com.audit.customer.service.AuditWorkflowService;
 import com.audit.customer.service.AuditorAuthService;
+import com.audit.customer.util.JwtUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -162,8 +168,12 @@ public class AuditorController {
         }
     }
     
+    /**
+     * 自助注册只能创建初级审核员；更高级别需要投资委员会成员的访问令牌
+     */
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<Void>> registerAuditor(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
             @Valid @RequestBody AuditorRegistrationRequest request,
             BindingResult bindingResult) {
         
@@ -177,9 +187,15 @@ public class AuditorController {
         }
         
         try {
-            auditorAuthService.registerAuditor(request);
+            auditorAuthService.registerAuditor(request, authorization);
             logger.info("Auditor registered successfully: {}", request.getAccount());
             return ResponseEntity.ok(ApiResponse.success("注册成功", null));
+        } catch (AccessDeniedException e) {
+            logger.warn("Auditor registration denied: {} requested level {}", request.getAccount(), request.getLevel());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(e.getMessage()));
+        } catch (TooManyRequestsException e) {
+            logger.warn("Auditor registration rejected, password hashing pool is saturated");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             logger.warn("Auditor registration failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -193,7 +209,8 @@ public class AuditorController {
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<AuditorLoginResponse>> loginAuditor(
             @Valid @RequestBody AuditorLoginRequest request,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest) {
         
         if (bindingResult.hasErrors()) {
             StringBuilder errorMsg = new StringBuilder();
@@ -205,10 +222,14 @@ public class AuditorController {
         }
         
         try {
-            AuditorLoginResponse response = auditorAuthService.login(request);
+            // 经前端代理转发时，getRemoteAddr()由server.forward-headers-strategy解析为X-Forwarded-For中的客户端地址
+            AuditorLoginResponse response = auditorAuthService.login(request, httpRequest.getRemoteAddr());
             logger.info("Auditor logged in successfully: {} (level: {})", 
                        response.getAccount(), response.getLevel());
             return ResponseEntity.ok(ApiResponse.success("登录成功", response));
+        } catch (TooManyRequestsException e) {
+            logger.warn("Auditor login throttled: {} from {}", request.getAccount(), httpRequest.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             logger.warn("Auditor login failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -218,4 +239,80 @@ public class AuditorController {
                     .body(ApiResponse.error("服务器内部错误"));
         }
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuditorLoginResponse>> refreshToken(
+            @Valid @RequestBody RefreshTokenRequest request,
+            BindingResult bindingResult) {
+        
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("刷新令牌不能为空"));
+        }
+        
+        try {
+            AuditorLoginResponse response = auditorAuthService.refresh(request.getRefreshToken());
+            logger.info("Auditor token refreshed: {} (level: {})", response.getAccount(), response.getLevel());
+            return ResponseEntity.ok(ApiResponse.success("刷新成功", response));
+        } catch (RuntimeException e) {
+            logger.warn("Auditor token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error refreshing auditor token", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("服务器内部错误"));
+        }
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logoutAuditor(
+            @Valid @RequestBody RefreshTokenRequest request,
+            BindingResult bindingResult) {
+        
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("刷新令牌不能为空"));
+        }
+        
+        try {
+            auditorAuthService.logout(request.getRefreshToken());
+            return ResponseEntity.ok(ApiResponse.success("退出成功", null));
+        } catch (Exception e) {
+            logger.error("Error logging out auditor", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("服务器内部错误"));
+        }
+    }
+    
+    /**
+     * 修改审核员级别或启用状态，仅投资委员会可操作；变更立即使所有实例的审核员状态缓存失效
+     */
+    @PutMapping("/{auditorId}/state")
+    public ResponseEntity<ApiResponse<Void>> updateAuditorState(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @PathVariable Long auditorId,
+            @Valid @RequestBody AuditorStateUpdateRequest request,
+            BindingResult bindingResult) {
+        
+        if (bindingResult.hasErrors()) {
+            StringBuilder errorMsg = new StringBuilder();
+            bindingResult.getFieldErrors().forEach(error -> 
+                errorMsg.append(error.getDefaultMessage()).append("; "));
+            return ResponseEntity.badRequest().body(ApiResponse.error(errorMsg.toString()));
+        }
+        
+        try {
+            JwtUtil.AuditorInfo operator = auditorAuthService.requireAdmin(authorization);
+            auditorAuthService.updateAuditorState(auditorId, request.getLevel(), request.getIsActive());
+            logger.info("Auditor {} state updated by {}: level={}, active={}",
+                    auditorId, operator.getUsername(), request.getLevel(), request.getIsActive());
+            return ResponseEntity.ok(ApiResponse.success("审核员状态已更新", null));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error updating auditor state", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("服务器内部错误"));
+        }
+    }
+}
@@ -3,10 +3,19 @@ package com.audit.customer.controller;
 import com.audit.customer.dto.ApiResponse;
 import com.audit.customer.dto.AuditStatusResponse;
 import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.dto.ImportReport;
+import com.audit.customer.dto.QuestionnaireTicketResponse;
+import com.audit.customer.exception.AccessDeniedException;
 import com.audit.customer.exception.CustomerAlreadyExistsException;
 import com.audit.customer.exception.CustomerAuditAlreadyExistsException;
+import com.audit.customer.exception.TooManyRequestsException;
 import com.audit.customer.service.AuditStatusService;
+import com.audit.customer.service.AuditorAuthService;
 import com.audit.customer.service.CustomerQuestionnaireService;
+import com.audit.customer.service.QuestionnaireImportService;
+import com.audit.customer.service.QuestionnaireIntakeService;
+import com.audit.customer.util.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -29,6 +39,15 @@ public class CustomerQuestionnaireController {
     
     @Autowired
     private AuditStatusService auditStatusService;
+    
+    @Autowired
+    private QuestionnaireIntakeService questionnaireIntakeService;
+    
+    @Autowired
+    private QuestionnaireImportService questionnaireImportService;
+    
+    @Autowired
+    private AuditorAuthService auditorAuthService;
 
     @PostMapping("/questionnaire")
     public ResponseEntity<ApiResponse<Long>> submitQuestionnaire(
@@ -61,6 +80,75 @@ public class CustomerQuestionnaireController {
         }
     }
     
+    /**
+     * 异步提交问卷：校验通过后立即返回202和凭证，客户ID或重复错误通过凭证查询
+     */
+    @PostMapping("/questionnaire/async")
+    public ResponseEntity<ApiResponse<QuestionnaireTicketResponse>> submitQuestionnaireAsync(
+            @Valid @RequestBody CustomerQuestionnaireRequest request,
+            BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            StringBuilder errorMsg = new StringBuilder();
+            bindingResult.getFieldErrors().forEach(error ->
+                errorMsg.append(error.getDefaultMessage()).append("; ")
+            );
+            logger.warn("Validation failed: {}", errorMsg.toString());
+            return ResponseEntity.badRequest().body(ApiResponse.error(errorMsg.toString()));
+        }
+
+        try {
+            String ticket = questionnaireIntakeService.submit(request);
+            QuestionnaireTicketResponse response = new QuestionnaireTicketResponse(
+                    ticket, QuestionnaireTicketResponse.STATUS_PENDING, null, "问卷处理中");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("问卷已受理", response));
+        } catch (TooManyRequestsException e) {
+            logger.warn("Questionnaire intake queue is full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/questionnaire/tickets/{ticket}")
+    public ResponseEntity<ApiResponse<QuestionnaireTicketResponse>> getQuestionnaireTicket(@PathVariable String ticket) {
+        return questionnaireIntakeService.getTicket(ticket)
+                .map(response -> ResponseEntity.ok(ApiResponse.success("查询成功", response)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("凭证不存在或已过期")));
+    }
+    
+    /**
+     * 批量导入问卷，请求体直接为CSV（首行为表头）或NDJSON（每行一个问卷JSON），流式读取
+     * 仅投资委员会级别的审核员可调用
+     */
+    @PostMapping(value = "/questionnaire/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse<ImportReport>> importQuestionnaires(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            HttpServletRequest httpRequest) {
+        JwtUtil.AuditorInfo operator;
+        try {
+            operator = auditorAuthService.requireAdmin(authorization);
+        } catch (AccessDeniedException e) {
+            logger.warn("Questionnaire import denied: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(e.getMessage()));
+        }
+        
+        QuestionnaireImportService.Format format = httpRequest.getContentType().toLowerCase().startsWith("text/csv")
+                ? QuestionnaireImportService.Format.CSV
+                : QuestionnaireImportService.Format.NDJSON;
+        try {
+            ImportReport report = questionnaireImportService.importQuestionnaires(httpRequest.getInputStream(), format);
+            logger.info("Questionnaire import by {}: {} rows, {} imported, {} failed", operator.getUsername(),
+                    report.getTotalRows(), report.getImported(), report.getFailed());
+            return ResponseEntity.ok(ApiResponse.success("导入完成", report));
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("Questionnaire import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error("导入文件格式错误：" + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing questionnaires", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("服务器内部错误"));
+        }
+    }
+    
     @PostMapping("/audit-status") // 改为POST，避免客户ID在URL中暴露
     public ResponseEntity<ApiResponse<AuditStatusResponse>> getAuditStatus(@RequestBody Map<String, Long> request) {
         Long customerId = request.get("customerId");
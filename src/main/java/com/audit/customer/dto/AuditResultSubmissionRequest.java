@@ -1,5 +1,6 @@
 package com.audit.customer.dto;
 
+import com.audit.customer.util.SanitizedText;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -27,6 +28,7 @@ public class AuditResultSubmissionRequest {
     private Integer riskScore;
     
     @NotBlank(message = "审核意见不能为空")
+    @SanitizedText(maxLength = 255, checkSqlKeywords = false, escapeHtml = false)
     private String opinion;
     
     public AuditResultSubmissionRequest() {}
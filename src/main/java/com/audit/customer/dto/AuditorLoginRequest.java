@@ -1,10 +1,12 @@
 package com.audit.customer.dto;
 
+import com.audit.customer.util.SanitizedText;
 import jakarta.validation.constraints.NotBlank;
 
 public class AuditorLoginRequest {
     
     @NotBlank(message = "账号不能为空")
+    @SanitizedText(maxLength = 50)
     private String account;
     
     @NotBlank(message = "密码不能为空")
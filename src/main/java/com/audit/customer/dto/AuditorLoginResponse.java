@@ -7,6 +7,7 @@ public class AuditorLoginResponse {
     private Integer level;
     private String levelName;
     private String token;
+    private String refreshToken;
     
     public AuditorLoginResponse() {}
     
@@ -56,4 +57,12 @@ public class AuditorLoginResponse {
     public void setToken(String token) {
         this.token = token;
     }
-}
\ No newline at end of file
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
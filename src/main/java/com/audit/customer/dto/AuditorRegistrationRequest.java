@@ -1,5 +1,6 @@
 package com.audit.customer.dto;
 
+import com.audit.customer.util.SanitizedText;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Max;
@@ -8,6 +9,7 @@ import jakarta.validation.constraints.Min;
 public class AuditorRegistrationRequest {
     
     @NotBlank(message = "账号不能为空")
+    @SanitizedText(maxLength = 50)
     private String account;
     
     @NotBlank(message = "密码不能为空")
@@ -0,0 +1,38 @@
+package com.audit.customer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 审核员状态变更广播消息，各实例收到后使本地缓存中版本号更旧的条目失效
+ */
+public class AuditorStateChangedMessage {
+    
+    @JsonProperty("auditorId")
+    private Long auditorId;
+    
+    @JsonProperty("securityEpoch")
+    private Long securityEpoch;
+    
+    public AuditorStateChangedMessage() {}
+    
+    public AuditorStateChangedMessage(Long auditorId, Long securityEpoch) {
+        this.auditorId = auditorId;
+        this.securityEpoch = securityEpoch;
+    }
+    
+    public Long getAuditorId() {
+        return auditorId;
+    }
+    
+    public void setAuditorId(Long auditorId) {
+        this.auditorId = auditorId;
+    }
+    
+    public Long getSecurityEpoch() {
+        return securityEpoch;
+    }
+    
+    public void setSecurityEpoch(Long securityEpoch) {
+        this.securityEpoch = securityEpoch;
+    }
+}
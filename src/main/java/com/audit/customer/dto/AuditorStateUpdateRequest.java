@@ -0,0 +1,39 @@
+package com.audit.customer.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * 修改审核员级别或启用状态，未提供的字段保持不变
+ */
+public class AuditorStateUpdateRequest {
+    
+    @Min(value = 0, message = "等级必须在0-3之间")
+    @Max(value = 3, message = "等级必须在0-3之间")
+    private Integer level;
+    
+    private Boolean isActive;
+    
+    public AuditorStateUpdateRequest() {}
+    
+    public AuditorStateUpdateRequest(Integer level, Boolean isActive) {
+        this.level = level;
+        this.isActive = isActive;
+    }
+    
+    public Integer getLevel() {
+        return level;
+    }
+    
+    public void setLevel(Integer level) {
+        this.level = level;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+}
@@ -1,5 +1,6 @@
 package com.audit.customer.dto;
 
+import com.audit.customer.util.SanitizedText;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -12,6 +13,7 @@ public class CustomerInfoDto {
 
     @NotBlank(message = "客户姓名不能为空")
     @Size(max = 100, message = "客户姓名长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String name;
 
     @NotBlank(message = "手机号不能为空")
@@ -24,9 +26,11 @@ public class CustomerInfoDto {
 
     @Email(message = "邮箱格式不正确")
     @Size(max = 100, message = "邮箱长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String email;
 
     @Size(max = 100, message = "职业长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String occupation;
 
     @DecimalMin(value = "0.00", message = "投资金额不能为负数")
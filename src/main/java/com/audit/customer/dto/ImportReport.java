@@ -0,0 +1,96 @@
+package com.audit.customer.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+    
+    public void recordSuccess() {
+        totalRows++;
+        imported++;
+    }
+    
+    public void recordFailure(long row, String message, int maxErrors) {
+        totalRows++;
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    public long getTotalRows() {
+        return totalRows;
+    }
+    
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+    
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+    
+    public static class RowError {
+        private long row;
+        private String message;
+        
+        public RowError() {}
+        
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+        
+        public long getRow() {
+            return row;
+        }
+        
+        public void setRow(long row) {
+            this.row = row;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.audit.customer.dto;
+
+public class QuestionnaireTicketResponse {
+    
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_DUPLICATE = "DUPLICATE";
+    public static final String STATUS_FAILED = "FAILED";
+    
+    private String ticket;
+    private String status;
+    private Long customerId;
+    private String message;
+    
+    public QuestionnaireTicketResponse() {}
+    
+    public QuestionnaireTicketResponse(String ticket, String status, Long customerId, String message) {
+        this.ticket = ticket;
+        this.status = status;
+        this.customerId = customerId;
+        this.message = message;
+    }
+    
+    public String getTicket() {
+        return ticket;
+    }
+    
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Long getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
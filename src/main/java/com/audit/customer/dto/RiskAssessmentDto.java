@@ -1,5 +1,6 @@
 package com.audit.customer.dto;
 
+import com.audit.customer.util.SanitizedText;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -8,6 +9,10 @@ import java.math.BigDecimal;
 
 public class RiskAssessmentDto {
 
+    @Size(max = 20, message = "年龄段长度不能超过20字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
+    private String ageRange;
+
     @NotNull(message = "年收入代码不能为空")
     private Integer annualIncome;
 
@@ -16,20 +21,31 @@ public class RiskAssessmentDto {
     private BigDecimal investmentAmount;
 
     @Size(max = 100, message = "投资经验说明长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String investmentExperience;
 
     @NotNull(message = "可承受最大亏损比例代码不能为空")
     private Integer maxLoss;
 
     @Size(max = 100, message = "投资目标说明长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String investmentTarget;
 
     @Size(max = 100, message = "投资期限说明长度不能超过100字符")
+    @SanitizedText(checkSqlKeywords = false, escapeHtml = false)
     private String investmentExpire;
 
-    @NotNull(message = "风险评分不能为空")
+    // 客户端计算的评分，仅作参考，服务端以RiskScoringEngine的结果为准
     private Integer score;
 
+    public String getAgeRange() {
+        return ageRange;
+    }
+
+    public void setAgeRange(String ageRange) {
+        this.ageRange = ageRange;
+    }
+
     public Integer getAnnualIncome() {
         return annualIncome;
     }
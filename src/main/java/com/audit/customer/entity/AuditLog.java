@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_log")
+@Table(name = "audit_log",
+       indexes = {
+           // 任务分配：按stage、status过滤后按priority降序、created_at升序取任务
+           @Index(name = "idx_audit_log_assign", columnList = "stage, status, priority DESC, created_at")
+       })
 public class AuditLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_log_id")
+    @TableGenerator(name = "audit_log_id", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "audit_log", allocationSize = 50)
     private Long id;
     
     @Column(name = "customer_id", nullable = false)
@@ -26,6 +32,10 @@ public class AuditLog {
     @Column(name = "ai_audit", columnDefinition = "TEXT")
     private String aiAudit;
     
+    // 审核优先级，见AuditPriorityPolicy：0普通 1高 2最高
+    @Column(name = "priority", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer priority = 0;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -75,6 +85,14 @@ public class AuditLog {
         this.stage = stage;
     }
     
+    public Integer getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
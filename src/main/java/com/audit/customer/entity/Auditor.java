@@ -29,6 +29,10 @@ public class Auditor {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
     
+    // 安全版本号：级别或启用状态每次变更时递增，用于使各实例的审核员状态缓存失效
+    @Column(name = "security_epoch", nullable = false, columnDefinition = "bigint not null default 0")
+    private Long securityEpoch = 0L;
+    
     public Auditor() {}
     
     public Auditor(String account, String password, Integer level) {
@@ -98,4 +102,12 @@ public class Auditor {
     public void setIsActive(Boolean isActive) {
         this.isActive = isActive;
     }
+    
+    public Long getSecurityEpoch() {
+        return securityEpoch;
+    }
+    
+    public void setSecurityEpoch(Long securityEpoch) {
+        this.securityEpoch = securityEpoch;
+    }
 }
\ No newline at end of file
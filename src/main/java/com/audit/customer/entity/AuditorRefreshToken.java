@@ -0,0 +1,99 @@
+package com.audit.customer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 审核员刷新令牌，只保存令牌的SHA-256哈希
+ */
+@Entity
+@Table(name = "auditor_refresh_token", indexes = {
+    @Index(name = "idx_refresh_token_auditor", columnList = "auditor_id")
+})
+public class AuditorRefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "auditor_id", nullable = false)
+    private Long auditorId;
+    
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked", nullable = false)
+    private Boolean revoked = false;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public AuditorRefreshToken() {}
+    
+    public AuditorRefreshToken(Long auditorId, String tokenHash, LocalDateTime expiresAt) {
+        this.auditorId = auditorId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+        this.revoked = false;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public boolean isUsable(LocalDateTime now) {
+        return !Boolean.TRUE.equals(revoked) && expiresAt.isAfter(now);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAuditorId() {
+        return auditorId;
+    }
+    
+    public void setAuditorId(Long auditorId) {
+        this.auditorId = auditorId;
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public Boolean getRevoked() {
+        return revoked;
+    }
+    
+    public void setRevoked(Boolean revoked) {
+        this.revoked = revoked;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.audit.customer.entity;
 
+import com.audit.customer.util.PiiAttributeConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
@@ -12,13 +13,15 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "customer_info",
        uniqueConstraints = {
-           @UniqueConstraint(name = "uq_customer_phone", columnNames = "phone"),
-           @UniqueConstraint(name = "uq_customer_id_card", columnNames = "idCard")
+           @UniqueConstraint(name = "uq_customer_phone_hash", columnNames = "phone_hash"),
+           @UniqueConstraint(name = "uq_customer_id_card_hash", columnNames = "id_card_hash")
        })
 public class CustomerInfo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "customer_info_id")
+    @TableGenerator(name = "customer_info_id", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "customer_info", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -26,16 +29,25 @@ public class CustomerInfo {
     @Column(name = "name", nullable = false, length = 100)
     private String name;
 
+    // 手机号和身份证号开启加密后以SM4密文落库，查重和唯一约束使用对应的盲索引列
     @NotBlank
     @Size(max = 20)
-    @Column(name = "phone", nullable = false, length = 20)
+    @Convert(converter = PiiAttributeConverter.class)
+    @Column(name = "phone", nullable = false, length = 128)
     private String phone;
 
     @NotBlank
     @Size(max = 20)
-    @Column(name = "id_card", nullable = false, length = 20)
+    @Convert(converter = PiiAttributeConverter.class)
+    @Column(name = "id_card", nullable = false, length = 128)
     private String idCard;
 
+    @Column(name = "phone_hash", length = 64)
+    private String phoneHash;
+
+    @Column(name = "id_card_hash", length = 64)
+    private String idCardHash;
+
     @Email
     @Size(max = 100)
     @Column(name = "email", length = 100)
@@ -98,6 +110,22 @@ public class CustomerInfo {
         this.idCard = idCard;
     }
 
+    public String getPhoneHash() {
+        return phoneHash;
+    }
+
+    public void setPhoneHash(String phoneHash) {
+        this.phoneHash = phoneHash;
+    }
+
+    public String getIdCardHash() {
+        return idCardHash;
+    }
+
+    public void setIdCardHash(String idCardHash) {
+        this.idCardHash = idCardHash;
+    }
+
     public String getEmail() {
         return email;
     }
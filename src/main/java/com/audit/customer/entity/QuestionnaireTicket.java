@@ -0,0 +1,95 @@
+package com.audit.customer.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步问卷的处理结果，按凭证查询；凭证只写入一次，落库后任一实例都能查询
+ */
+@Entity
+@Table(name = "questionnaire_ticket", indexes = {
+    @Index(name = "idx_questionnaire_ticket_completed", columnList = "completed_at")
+})
+public class QuestionnaireTicket implements Persistable<String> {
+    
+    @Id
+    @Column(name = "ticket", length = 36)
+    private String ticket;
+    
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+    
+    @Column(name = "customer_id")
+    private Long customerId;
+    
+    @Column(name = "message", length = 255)
+    private String message;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+    
+    public QuestionnaireTicket() {}
+    
+    public QuestionnaireTicket(String ticket, String status, Long customerId, String message, LocalDateTime completedAt) {
+        this.ticket = ticket;
+        this.status = status;
+        this.customerId = customerId;
+        this.message = message;
+        this.completedAt = completedAt;
+    }
+    
+    @Override
+    public String getId() {
+        return ticket;
+    }
+    
+    /**
+     * 凭证由受理时生成且只保存一次，直接insert，省去merge前的查询
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+    
+    public String getTicket() {
+        return ticket;
+    }
+    
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Long getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
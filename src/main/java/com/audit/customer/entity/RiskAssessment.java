@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
 public class RiskAssessment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "risk_assessment_id")
+    @TableGenerator(name = "risk_assessment_id", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "risk_assessment", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 public class RiskAssessmentResult {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "risk_assessment_result_id")
+    @TableGenerator(name = "risk_assessment_result_id", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "risk_assessment_result", allocationSize = 50)
     private Long id;
     
     @Column(name = "audit_id", nullable = false)
@@ -0,0 +1,8 @@
+package com.audit.customer.exception;
+
+public class AccessDeniedException extends RuntimeException {
+    
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -19,26 +20,26 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
     List<AuditLog> findByStageAndStatus(Integer stage, Integer status);
     
-    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status ORDER BY al.createdAt ASC")
-    List<AuditLog> findByStageAndStatusOrderByCreatedAtAsc(@Param("stage") Integer stage, 
-                                                           @Param("status") Integer status, 
-                                                           Pageable pageable);
+    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status ORDER BY al.priority DESC, al.createdAt ASC")
+    List<AuditLog> findByStageAndStatusOrderByPriorityDescCreatedAtAsc(@Param("stage") Integer stage, 
+                                                                       @Param("status") Integer status,
+                                                                       Pageable pageable);
     
-    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status IN :statusList ORDER BY al.createdAt ASC")
-    List<AuditLog> findByStageAndStatusInOrderByCreatedAtAsc(@Param("stage") Integer stage, 
-                                                             @Param("statusList") List<Integer> statusList, 
-                                                             Pageable pageable);
+    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status IN :statusList ORDER BY al.priority DESC, al.createdAt ASC")
+    List<AuditLog> findByStageAndStatusInOrderByPriorityDescCreatedAtAsc(@Param("stage") Integer stage, 
+                                                                         @Param("statusList") List<Integer> statusList,
+                                                                         Pageable pageable);
     
-    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status AND al.id NOT IN :excludeIds ORDER BY al.createdAt ASC")
-    List<AuditLog> findByStageAndStatusAndIdNotInOrderByCreatedAtAsc(@Param("stage") Integer stage, 
-                                                                     @Param("status") Integer status,
-                                                                     @Param("excludeIds") List<Long> excludeIds, 
-                                                                     Pageable pageable);
+    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status AND al.id NOT IN :excludeIds ORDER BY al.priority DESC, al.createdAt ASC")
+    List<AuditLog> findByStageAndStatusAndIdNotInOrderByPriorityDescCreatedAtAsc(@Param("stage") Integer stage, 
+                                                                                 @Param("status") Integer status,
+                                                                                 @Param("excludeIds") List<Long> excludeIds,
+                                                                                 Pageable pageable);
     
-    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status AND al.auditorId = :auditorId ORDER BY al.createdAt ASC")
-    List<AuditLog> findByStageAndStatusAndAuditorIdOrderByCreatedAtAsc(@Param("stage") Integer stage, 
-                                                                        @Param("status") Integer status,
-                                                                        @Param("auditorId") Long auditorId);
+    @Query("SELECT al FROM AuditLog al WHERE al.stage = :stage AND al.status = :status AND al.auditorId = :auditorId ORDER BY al.priority DESC, al.createdAt ASC")
+    List<AuditLog> findByStageAndStatusAndAuditorIdOrderByPriorityDescCreatedAtAsc(@Param("stage") Integer stage, 
+                                                                                   @Param("status") Integer status,
+                                                                                   @Param("auditorId") Long auditorId);
     
     @Modifying
     @Query("UPDATE AuditLog al SET al.status = :newStatus WHERE al.id IN :auditIds AND al.status = :oldStatus")
@@ -52,4 +53,16 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
                                     @Param("newStatus") Integer newStatus, 
                                     @Param("auditorId") Long auditorId,
                                     @Param("oldStatus") Integer oldStatus);
-}
\ No newline at end of file
+    
+    /**
+     * 批量把消息投递失败的审核记录退回人工队列，只处理仍在等待AI结果的记录
+     */
+    @Modifying
+    @Query("UPDATE AuditLog al SET al.status = :newStatus, al.aiAudit = :aiAudit, al.updatedAt = :updatedAt " +
+           "WHERE al.id IN :auditIds AND al.status = :oldStatus")
+    int updateStatusAndAiAuditByIds(@Param("auditIds") List<Long> auditIds,
+                                    @Param("newStatus") Integer newStatus,
+                                    @Param("aiAudit") String aiAudit,
+                                    @Param("updatedAt") LocalDateTime updatedAt,
+                                    @Param("oldStatus") Integer oldStatus);
+}
@@ -0,0 +1,27 @@
+package com.audit.customer.repository;
+
+import com.audit.customer.entity.AuditorRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuditorRefreshTokenRepository extends JpaRepository<AuditorRefreshToken, Long> {
+    
+    Optional<AuditorRefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * 仅当令牌仍未吊销时将其吊销，返回1表示当前调用赢得了这次轮换
+     */
+    @Modifying
+    @Query("UPDATE AuditorRefreshToken t SET t.revoked = true WHERE t.id = :id AND t.revoked = false")
+    int revokeIfActive(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE AuditorRefreshToken t SET t.revoked = true WHERE t.auditorId = :auditorId AND t.revoked = false")
+    int revokeAllByAuditorId(@Param("auditorId") Long auditorId);
+}
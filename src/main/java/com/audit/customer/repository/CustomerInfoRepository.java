@@ -1,19 +1,61 @@
 package com.audit.customer.repository;
 
 import com.audit.customer.entity.CustomerInfo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerInfoRepository extends JpaRepository<CustomerInfo, Long> {
     
-    Optional<CustomerInfo> findByPhone(String phone);
+    // 手机号、身份证号按盲索引查询，参数为PiiProtector.blindIndex的结果
+    Optional<CustomerInfo> findByPhoneHash(String phoneHash);
     
-    Optional<CustomerInfo> findByIdCard(String idCard);
+    Optional<CustomerInfo> findByIdCardHash(String idCardHash);
     
-    boolean existsByPhone(String phone);
+    boolean existsByPhoneHash(String phoneHash);
     
-    boolean existsByIdCard(String idCard);
-}
\ No newline at end of file
+    boolean existsByIdCardHash(String idCardHash);
+    
+    @Query("SELECT c.phoneHash FROM CustomerInfo c WHERE c.phoneHash IN :hashes")
+    List<String> findExistingPhoneHashes(@Param("hashes") Collection<String> hashes);
+    
+    @Query("SELECT c.idCardHash FROM CustomerInfo c WHERE c.idCardHash IN :hashes")
+    List<String> findExistingIdCardHashes(@Param("hashes") Collection<String> hashes);
+    
+    /**
+     * 按id分页读取盲索引，用于加载查重布隆过滤器；返回 [id, phoneHash, idCardHash]
+     */
+    @Query("SELECT c.id, c.phoneHash, c.idCardHash FROM CustomerInfo c WHERE c.id > :afterId ORDER BY c.id")
+    List<Object[]> findBlindIndexesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 查找尚未生成盲索引，或需要加密但仍为明文的记录
+     */
+    @Query(value = "SELECT id FROM customer_info " +
+                   "WHERE id > :afterId AND (phone_hash IS NULL OR id_card_hash IS NULL " +
+                   "OR (:encrypt = true AND (phone NOT LIKE 'sm4:%' OR id_card NOT LIKE 'sm4:%'))) " +
+                   "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsNeedingPiiMigration(@Param("afterId") Long afterId,
+                                          @Param("encrypt") boolean encrypt,
+                                          @Param("limit") int limit);
+    
+    /**
+     * 直接写入已处理好的列值，绕过转换器，避免对已加密数据重复加密
+     */
+    @Modifying
+    @Query(value = "UPDATE customer_info SET phone = :phone, id_card = :idCard, " +
+                   "phone_hash = :phoneHash, id_card_hash = :idCardHash WHERE id = :id", nativeQuery = true)
+    int updateProtectedPii(@Param("id") Long id,
+                           @Param("phone") String phone,
+                           @Param("idCard") String idCard,
+                           @Param("phoneHash") String phoneHash,
+                           @Param("idCardHash") String idCardHash);
+}
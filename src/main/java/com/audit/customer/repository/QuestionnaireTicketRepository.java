@@ -0,0 +1,23 @@
+package com.audit.customer.repository;
+
+import com.audit.customer.entity.QuestionnaireTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface QuestionnaireTicketRepository extends JpaRepository<QuestionnaireTicket, String> {
+    
+    /**
+     * 清理超过保留时间的凭证，由问卷写入线程定期调用
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QuestionnaireTicket t WHERE t.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
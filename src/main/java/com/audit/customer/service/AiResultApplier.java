@@ -0,0 +1,105 @@
+package com.audit.customer.service;
+
+import com.audit.common.message.AuditAiResultMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 消费端以topic模式回传的AI审核结果，按批写入audit_log
+ * 每次poll的结果合并成一个JDBC批量条件更新，只更新仍在等待AI结果（状态5）的记录
+ */
+@Service
+public class AiResultApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiResultApplier.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE audit_log SET ai_audit = ?, status = 0, updated_at = ? WHERE id = ? AND status = 5";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 写库失败时整批重新投递前的等待时间
+    @Value("${audit.ai-result.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @KafkaListener(topics = AuditAiResultMessage.TOPIC,
+                   groupId = "audit-ai-result-group",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   properties = {"max.poll.records=${audit.ai-result.max-batch-size:500}"})
+    public void onAiResults(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        // 同一审核记录只保留最后一条结果
+        Map<Long, AuditAiResultMessage> results = new LinkedHashMap<>();
+        int invalid = 0;
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                AuditAiResultMessage result = objectMapper.readValue(record.value(), AuditAiResultMessage.class);
+                if (result.getAuditLogId() != null && result.getAiAudit() != null) {
+                    results.put(result.getAuditLogId(), result);
+                } else {
+                    invalid++;
+                    logger.warn("AI result message at offset {} has no auditLogId or aiAudit, skipping", record.offset());
+                }
+            } catch (Exception e) {
+                invalid++;
+                logger.warn("Invalid AI result message at offset {}: {}", record.offset(), e.getMessage());
+            }
+        }
+
+        try {
+            int[] counts = apply(results.values());
+            int updated = 0;
+            int unknown = 0;
+            for (int count : counts) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    // 驱动重写批量语句时不返回每行的影响行数，无法区分是否已更新
+                    unknown++;
+                } else if (count > 0) {
+                    updated += count;
+                }
+            }
+            logger.info("Applied AI results: {} received, {} invalid, {} updated, {} stale or duplicate, {} without row count",
+                    records.size(), invalid, updated, records.size() - invalid - updated - unknown, unknown);
+            acknowledgment.acknowledge();
+        } catch (Exception e) {
+            logger.error("Failed to apply {} AI results, redelivering in {}ms", results.size(), retryBackoffMs, e);
+            acknowledgment.nack(Duration.ofMillis(retryBackoffMs));
+        }
+    }
+
+    private int[] apply(Iterable<AuditAiResultMessage> results) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (AuditAiResultMessage result : results) {
+            batchArgs.add(new Object[] {result.getAiAudit(), now, result.getAuditLogId()});
+        }
+        if (batchArgs.isEmpty()) {
+            return new int[0];
+        }
+        return transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs));
+    }
+}
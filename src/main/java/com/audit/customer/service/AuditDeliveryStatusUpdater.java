@@ -0,0 +1,137 @@
+package com.audit.customer.service;
+
+import com.audit.customer.repository.AuditLogRepository;
+import com.audit.customer.util.AuditLogger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审核消息投递结果的批量处理
+ * Kafka发送回调运行在生产者I/O线程上，回调里只登记审核记录ID；由单独的线程按批处理，
+ * 投递失败的记录用一条 UPDATE ... WHERE id IN 退回人工队列
+ */
+@Service
+public class AuditDeliveryStatusUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditDeliveryStatusUpdater.class);
+
+    public static final String SEND_FAILED_MESSAGE = "消息发送失败，待重试";
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${audit.delivery-status.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${audit.delivery-status.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // 回调不能阻塞I/O线程，队列不设上限；只存ID，单条开销很小
+    private final BlockingQueue<Long> delivered = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Long> failed = new LinkedBlockingQueue<>();
+
+    private Thread updaterThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        updaterThread = new Thread(this::updateLoop, "audit-delivery-updater");
+        updaterThread.setDaemon(true);
+        updaterThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        updaterThread.interrupt();
+        updaterThread.join(TimeUnit.SECONDS.toMillis(10));
+        // 退出前把剩余的结果处理完
+        flushAll();
+    }
+
+    public void markDelivered(Long auditLogId) {
+        delivered.offer(auditLogId);
+    }
+
+    public void markFailed(Long auditLogId) {
+        failed.offer(auditLogId);
+    }
+
+    public int getPendingCount() {
+        return delivered.size() + failed.size();
+    }
+
+    private void updateLoop() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+                flushAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in audit delivery updater", e);
+            }
+        }
+    }
+
+    private void flushAll() {
+        List<Long> batch = new ArrayList<>(maxBatchSize);
+        while (failed.drainTo(batch, maxBatchSize) > 0) {
+            boolean applied = applyFailed(batch);
+            batch.clear();
+            if (!applied) {
+                break;
+            }
+        }
+        // 审核记录创建时已是5（等待AI结果），投递成功无需改状态；
+        // 原先逐条写回5还可能覆盖消费端已经写入的结果，这里只记录数量，ID在DEBUG级别输出
+        int deliveredCount = 0;
+        while (delivered.drainTo(batch, maxBatchSize) > 0) {
+            deliveredCount += batch.size();
+            logger.debug("Audit messages delivered, auditLogIds: {}", batch);
+            batch.clear();
+        }
+        if (deliveredCount > 0) {
+            logger.info("Audit messages delivered: {}", deliveredCount);
+        }
+    }
+
+    private boolean applyFailed(List<Long> auditLogIds) {
+        try {
+            // 只退回仍在等待AI结果的记录，已被消费端处理的不受影响
+            Integer updated = transactionTemplate.execute(status -> auditLogRepository.updateStatusAndAiAuditByIds(
+                    auditLogIds, 0, SEND_FAILED_MESSAGE, LocalDateTime.now(), 5));
+            AuditLogger.logSecurityEvent("KAFKA_MESSAGE_FAILED", "Messages returned to manual queue: " + updated,
+                    "Send failures: " + auditLogIds.size());
+            logger.debug("Audit logs returned to manual queue after send failure, auditLogIds: {}", auditLogIds);
+            return true;
+        } catch (Exception e) {
+            // 数据库暂时不可用时放回队列，下一轮重试，避免记录一直停留在等待AI结果
+            logger.error("Failed to update {} audit logs after message send failure, will retry", auditLogIds.size(), e);
+            failed.addAll(auditLogIds);
+            if (!running) {
+                logger.error("Audit logs left waiting for AI result after shutdown: {}", auditLogIds);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.audit.customer.service;
+
+import com.audit.common.enums.RiskType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * 审核优先级：提交时按计划投资金额和风险类型计算，写入audit_log.priority
+ * 优先级大于0的问卷走快速通道主题，任务分配时先于普通问卷
+ */
+@Component
+public class AuditPriorityPolicy {
+
+    public static final int NORMAL = 0;
+    public static final int HIGH = 1;
+    public static final int VIP = 2;
+
+    @Value("${audit.priority.vip-amount:10000000}")
+    private BigDecimal vipAmount;
+
+    @Value("${audit.priority.high-amount:1000000}")
+    private BigDecimal highAmount;
+
+    public int priorityOf(BigDecimal investAmount, RiskType riskType) {
+        if (investAmount == null || investAmount.compareTo(highAmount) < 0) {
+            return NORMAL;
+        }
+        if (investAmount.compareTo(vipAmount) >= 0) {
+            return VIP;
+        }
+        // 大额且风险偏好激进的客户，审核结论影响最大，与超大额同级
+        return riskType == RiskType.AGGRESSIVE ? VIP : HIGH;
+    }
+
+    public boolean isFastLane(int priority) {
+        return priority > NORMAL;
+    }
+}
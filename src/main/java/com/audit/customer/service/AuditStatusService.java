@@ -1,5 +1,6 @@
 package com.audit.customer.service;
 
+import com.audit.common.enums.RiskType;
 import com.audit.customer.dto.AuditStatusResponse;
 import com.audit.customer.dto.AuditResultDto;
 import com.audit.customer.entity.AuditLog;
@@ -56,25 +57,10 @@ public class AuditStatusService {
         }
         
         // 根据最终风险评分确定风险类型
-        Integer riskTypeCode = mapRiskScoreToType(finalRiskScore.get());
+        Integer riskTypeCode = RiskType.fromScore(finalRiskScore.get()).getCode();
         AuditResultDto result = new AuditResultDto(null, riskTypeCode, finalRiskScore.get(), "审核完成", LocalDateTime.now());
         List<AuditResultDto> results = Arrays.asList(result);
         
         return new AuditStatusResponse(customerId, "completed", "审核已完成", results);
     }
-    
-    /**
-     * 将风险评分映射到风险类型代码
-     * @param riskScore 风险评分
-     * @return 风险类型代码 (0: 稳健型, 1: 激进型, 2: 保守型)
-     */
-    private Integer mapRiskScoreToType(Integer riskScore) {
-        if (riskScore <= 40) {
-            return 0; // 保守型
-        } else if (riskScore <= 70) {
-            return 1; // 稳健型
-        } else {
-            return 2; // 激进型
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.audit.customer.service;
 
+import com.audit.common.enums.RiskType;
 import com.audit.customer.dto.AuditResultDto;
 import com.audit.customer.dto.AuditTaskDto;
 import com.audit.customer.dto.AuditTaskResponse;
@@ -7,7 +8,6 @@ import com.audit.customer.entity.AuditLog;
 import com.audit.customer.entity.CustomerInfo;
 import com.audit.customer.entity.RiskAssessment;
 import com.audit.customer.entity.RiskAssessmentResult;
-import com.audit.customer.enums.RiskType;
 import com.audit.customer.repository.AuditLogRepository;
 import com.audit.customer.repository.CustomerInfoRepository;
 import com.audit.customer.repository.RiskAssessmentRepository;
@@ -59,7 +59,7 @@ public class AuditTaskService {
         }
         
         // 1. 获取该审核员已经抢占但未完成的任务
-        List<AuditLog> existingTasks = auditLogRepository.findByStageAndStatusAndAuditorIdOrderByCreatedAtAsc(
+        List<AuditLog> existingTasks = auditLogRepository.findByStageAndStatusAndAuditorIdOrderByPriorityDescCreatedAtAsc(
                 auditorLevel, 1, auditorId);
         
         // 2. 获取新的待分配任务（减去已抢占的任务数量）
@@ -71,10 +71,10 @@ public class AuditTaskService {
             List<AuditLog> availableTasks;
             
             if (excludeTaskIds == null || excludeTaskIds.isEmpty()) {
-                availableTasks = auditLogRepository.findByStageAndStatusOrderByCreatedAtAsc(
+                availableTasks = auditLogRepository.findByStageAndStatusOrderByPriorityDescCreatedAtAsc(
                         auditorLevel, 0, pageable);
             } else {
-                availableTasks = auditLogRepository.findByStageAndStatusAndIdNotInOrderByCreatedAtAsc(
+                availableTasks = auditLogRepository.findByStageAndStatusAndIdNotInOrderByPriorityDescCreatedAtAsc(
                         auditorLevel, 0, excludeTaskIds, pageable);
             }
             
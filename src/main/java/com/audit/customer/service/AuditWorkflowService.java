@@ -1,11 +1,11 @@
 package com.audit.customer.service;
 
+import com.audit.common.enums.RiskType;
 import com.audit.customer.dto.AuditResultSubmissionRequest;
 import com.audit.customer.dto.AuditResultSubmissionResponse;
 import com.audit.customer.entity.AuditLog;
 import com.audit.customer.entity.RiskAssessment;
 import com.audit.customer.entity.RiskAssessmentResult;
-import com.audit.customer.enums.RiskType;
 import com.audit.customer.repository.AuditLogRepository;
 import com.audit.customer.repository.RiskAssessmentRepository;
 import com.audit.customer.repository.RiskAssessmentResultRepository;
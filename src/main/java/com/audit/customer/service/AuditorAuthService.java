@@ -4,32 +4,65 @@ import com.audit.customer.dto.AuditorLoginRequest;
 import com.audit.customer.dto.AuditorLoginResponse;
 import com.audit.customer.dto.AuditorRegistrationRequest;
 import com.audit.customer.entity.Auditor;
+import com.audit.customer.exception.AccessDeniedException;
 import com.audit.customer.repository.AuditorRepository;
 import com.audit.customer.util.JwtUtil;
 import com.audit.customer.util.AuditLogger;
-import com.audit.customer.util.SecurityUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class AuditorAuthService {
     
+    // 投资委员会级别，可以管理审核员状态和执行批量导入
+    // 第一个投资委员会账号没有可用的管理员令牌，需先注册为初级审核员，再由DBA在数据库中把level改为3
+    public static final int ADMIN_LEVEL = 3;
+    
+    // 未登录的自助注册只能创建初级审核员，更高级别由投资委员会成员携带令牌创建
+    public static final int SELF_REGISTRATION_LEVEL = 0;
+    
     @Autowired
     private AuditorRepository auditorRepository;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private LoginThrottleService loginThrottleService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
-    public void registerAuditor(AuditorRegistrationRequest request) {
+    @Autowired
+    private AuditorStateCache auditorStateCache;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    /**
+     * @param authorization 请求头中的访问令牌；注册级别高于初级时必须是投资委员会成员的令牌
+     */
+    public void registerAuditor(AuditorRegistrationRequest request, String authorization) {
         // 添加调试日志
         AuditLogger.logSecurityEvent("REGISTRATION_ATTEMPT", "Starting registration", 
             "Account: " + request.getAccount() + ", Level: " + request.getLevel());
         
-        // 输入安全检查
-        String account = SecurityUtil.sanitizeAndValidate(request.getAccount(), 50);
+        String operator = "self";
+        if (request.getLevel() == null || request.getLevel() > SELF_REGISTRATION_LEVEL) {
+            try {
+                operator = requireAdmin(authorization).getUsername();
+            } catch (AccessDeniedException e) {
+                AuditLogger.logSecurityViolation("REGISTRATION_LEVEL_DENIED", "Account: " + request.getAccount(),
+                    "Requested level: " + request.getLevel() + ", " + e.getMessage());
+                throw new AccessDeniedException("注册初级以上审核员需要投资委员会成员登录后操作");
+            }
+        }
+        
+        // 账号已在JSON反序列化时完成清理（@SanitizedText）
+        String account = request.getAccount();
         String password = request.getPassword();
         
         // 密码强度检查
@@ -42,8 +75,8 @@ public class AuditorAuthService {
             throw new RuntimeException("账号已存在");
         }
         
-        // 使用BCrypt加密密码
-        String encryptedPassword = passwordEncoder.encode(password);
+        // 使用BCrypt加密密码（在专用线程池中执行）
+        String encryptedPassword = passwordHashingService.encode(password);
         
         // 添加更多调试信息
         AuditLogger.logSecurityEvent("REGISTRATION_CREATING", "Creating auditor entity", 
@@ -54,30 +87,37 @@ public class AuditorAuthService {
         
         // 记录审计日志
         AuditLogger.logAuditorOperation("REGISTER", auditor.getId(), account, 
-            "Level: " + request.getLevel());
+            "Level: " + request.getLevel() + ", Created by: " + operator);
     }
     
-    public AuditorLoginResponse login(AuditorLoginRequest request) {
-        String account = SecurityUtil.sanitizeAndValidate(request.getAccount(), 50);
+    public AuditorLoginResponse login(AuditorLoginRequest request, String clientIp) {
+        // 账号已在JSON反序列化时完成清理（@SanitizedText）
+        String account = request.getAccount();
+        
+        // 超过失败次数限制时直接拒绝，不进行任何密码哈希
+        loginThrottleService.checkAllowed(account, clientIp);
         
         try {
             Auditor auditor = auditorRepository.findByAccount(account)
                 .orElseThrow(() -> {
-                    AuditLogger.logLogin(account, false, "Unknown");
+                    loginThrottleService.recordFailure(account, clientIp);
+                    AuditLogger.logLogin(account, false, clientIp);
                     return new RuntimeException("账号不存在");
                 });
             
             // 检查账号状态
             if (!auditor.getIsActive()) {
-                AuditLogger.logLogin(account, false, "Unknown");
+                AuditLogger.logLogin(account, false, clientIp);
                 throw new RuntimeException("账号已被禁用");
             }
             
-            // 使用BCrypt验证密码
-            if (!passwordEncoder.matches(request.getPassword(), auditor.getPassword())) {
-                AuditLogger.logLogin(account, false, "Unknown");
+            // 使用BCrypt验证密码（在专用线程池中执行）
+            if (!passwordHashingService.matches(request.getPassword(), auditor.getPassword())) {
+                loginThrottleService.recordFailure(account, clientIp);
+                AuditLogger.logLogin(account, false, clientIp);
                 throw new RuntimeException("密码错误");
             }
+            loginThrottleService.recordSuccess(account);
             
             // 生成加密的JWT token
             String token = jwtUtil.generateToken(
@@ -95,11 +135,12 @@ public class AuditorAuthService {
                 levelName
             );
             
-            // 添加JWT token到响应中
+            // 添加JWT token和刷新令牌到响应中
             response.setToken("Bearer " + token);
+            response.setRefreshToken(refreshTokenService.issue(auditor.getId()));
             
             // 记录成功登录
-            AuditLogger.logLogin(account, true, "Unknown");
+            AuditLogger.logLogin(account, true, clientIp);
             AuditLogger.logAuditorOperation("LOGIN", auditor.getId(), account, 
                 "Level: " + auditor.getLevel() + ", Token generated");
             
@@ -110,6 +151,47 @@ public class AuditorAuthService {
         }
     }
     
+    /**
+     * 使用刷新令牌换取新的访问令牌，不再校验密码
+     * 刷新令牌一次性使用，每次刷新同时轮换出新的刷新令牌
+     */
+    public AuditorLoginResponse refresh(String refreshToken) {
+        Long auditorId = refreshTokenService.consume(refreshToken);
+        
+        // 启用状态和级别从状态缓存读取，禁用后的账号无法继续刷新
+        AuditorStateCache.AuditorState state = auditorStateCache.get(auditorId)
+            .orElseThrow(() -> new RuntimeException("审核员不存在"));
+        if (!state.isActive()) {
+            refreshTokenService.revokeAll(auditorId);
+            throw new RuntimeException("账号已被禁用，请联系管理员");
+        }
+        
+        Auditor auditor = auditorRepository.findById(auditorId)
+            .orElseThrow(() -> new RuntimeException("审核员不存在"));
+        
+        String token = jwtUtil.generateToken(auditor.getId(), auditor.getAccount(), state.getLevel());
+        
+        AuditorLoginResponse response = new AuditorLoginResponse(
+            auditor.getId(),
+            auditor.getAccount(),
+            state.getLevel(),
+            getLevelName(state.getLevel())
+        );
+        response.setToken("Bearer " + token);
+        response.setRefreshToken(refreshTokenService.issue(auditorId));
+        
+        AuditLogger.logAuditorOperation("TOKEN_REFRESH", auditorId, auditor.getAccount(),
+            "Level: " + state.getLevel());
+        return response;
+    }
+    
+    /**
+     * 退出登录：吊销刷新令牌，访问令牌在过期前仍然有效
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+    
     /**
      * 验证token并获取审核员信息
      */
@@ -119,27 +201,89 @@ public class AuditorAuthService {
             token = token.substring(7);
         }
         
-        if (!jwtUtil.validateToken(token)) {
+        // 验签、过期检查和解密在一次解析中完成，已验证过的token直接命中缓存
+        JwtUtil.AuditorInfo auditorInfo;
+        try {
+            auditorInfo = jwtUtil.validateTokenAndGetAuditorInfo(token);
+        } catch (RuntimeException e) {
             throw new RuntimeException("Token无效或已过期");
         }
         
-        JwtUtil.AuditorInfo auditorInfo = jwtUtil.validateTokenAndGetAuditorInfo(token);
-        
-        // 实时验证审核员状态（从数据库重新获取，确保权限时效性）
-        Auditor auditor = auditorRepository.findById(auditorInfo.getAuditorId())
+        // 实时验证审核员状态（读取状态缓存，状态变更时缓存会被主动失效）
+        AuditorStateCache.AuditorState state = auditorStateCache.get(auditorInfo.getAuditorId())
             .orElseThrow(() -> new RuntimeException("审核员不存在"));
         
-        if (!auditor.getIsActive()) {
+        if (!state.isActive()) {
             throw new RuntimeException("账号已被禁用，请联系管理员");
         }
         
-        if (!auditor.getLevel().equals(auditorInfo.getStage())) {
+        if (!state.getLevel().equals(auditorInfo.getStage())) {
             throw new RuntimeException("审核员级别已变更，请重新登录");
         }
         
         return auditorInfo;
     }
     
+    /**
+     * 验证请求头中的token，并要求审核员为投资委员会级别
+     */
+    public JwtUtil.AuditorInfo requireAdmin(String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            throw new AccessDeniedException("缺少访问令牌");
+        }
+        
+        JwtUtil.AuditorInfo auditorInfo;
+        try {
+            auditorInfo = validateTokenAndGetAuditorInfo(authorization);
+        } catch (RuntimeException e) {
+            throw new AccessDeniedException(e.getMessage());
+        }
+        
+        if (auditorInfo.getStage() == null || auditorInfo.getStage() != ADMIN_LEVEL) {
+            throw new AccessDeniedException("无权限执行该操作");
+        }
+        return auditorInfo;
+    }
+    
+    /**
+     * 修改审核员级别或启用状态，递增安全版本号并通知所有实例失效状态缓存
+     */
+    @Transactional
+    public void updateAuditorState(Long auditorId, Integer level, Boolean isActive) {
+        Auditor auditor = auditorRepository.findById(auditorId)
+            .orElseThrow(() -> new RuntimeException("审核员不存在"));
+        
+        if (level != null) {
+            auditor.setLevel(level);
+        }
+        if (isActive != null) {
+            auditor.setIsActive(isActive);
+        }
+        long epoch = (auditor.getSecurityEpoch() != null ? auditor.getSecurityEpoch() : 0L) + 1;
+        auditor.setSecurityEpoch(epoch);
+        auditorRepository.save(auditor);
+        
+        // 账号被禁用时吊销全部刷新令牌，阻止其继续换取访问令牌
+        if (Boolean.FALSE.equals(isActive)) {
+            refreshTokenService.revokeAll(auditorId);
+        }
+        
+        // 事务提交后再失效缓存，避免其他线程在提交前重新加载到旧状态
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditorStateCache.invalidate(auditorId, epoch);
+                }
+            });
+        } else {
+            auditorStateCache.invalidate(auditorId, epoch);
+        }
+        
+        AuditLogger.logAuditorOperation("UPDATE_STATE", auditorId, auditor.getAccount(),
+            "Level: " + auditor.getLevel() + ", Active: " + auditor.getIsActive() + ", Epoch: " + epoch);
+    }
+    
     private String getLevelName(Integer level) {
         switch (level) {
             case 0: return "初级审核员";
@@ -0,0 +1,188 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.AuditorStateChangedMessage;
+import com.audit.customer.entity.Auditor;
+import com.audit.customer.repository.AuditorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 审核员状态缓存（启用状态、级别、安全版本号）
+ * 每次请求鉴权时从缓存读取，不再查询数据库；状态变更时本地失效并通过Kafka广播给其他实例
+ */
+@Service
+public class AuditorStateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditorStateCache.class);
+    public static final String INVALIDATION_TOPIC = "auditor_state_invalidation_topic";
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    @Autowired
+    private AuditorRepository auditorRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 兜底过期时间，覆盖绕过应用直接修改数据库的情况；正常变更经PUT /api/auditor/{id}/state主动失效
+    @Value("${auditor.state-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    // 失效广播消费组的实例标识，为空时使用主机名-端口
+    @Value("${auditor.state-cache.instance-id:}")
+    private String instanceId;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    private final Map<Long, AuditorState> cache = new ConcurrentHashMap<>();
+
+    // 按审核员ID分段的失效次数；加载前后不一致说明加载期间发生过失效，结果可能是旧状态，不写入缓存
+    // 分段数组大小固定，不随审核员数量增长；不同审核员落到同一段只会让本次加载不写入缓存
+    private final AtomicLongArray invalidationCounts = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    /**
+     * 获取审核员状态，缓存未命中或已过期时从数据库加载
+     */
+    public Optional<AuditorState> get(Long auditorId) {
+        AuditorState state = cache.get(auditorId);
+        if (state != null && System.currentTimeMillis() - state.getLoadedAt() < ttlMs) {
+            return Optional.of(state);
+        }
+
+        long invalidationsBeforeLoad = invalidationCount(auditorId);
+        Optional<Auditor> auditor = auditorRepository.findById(auditorId);
+        if (!auditor.isPresent()) {
+            cache.remove(auditorId);
+            return Optional.empty();
+        }
+
+        AuditorState loaded = AuditorState.from(auditor.get());
+        // 与失效在同一个key上串行执行：加载期间发生过失效，或现有条目版本号更高时不写入
+        cache.compute(auditorId, (id, existing) -> {
+            if (invalidationCount(id) != invalidationsBeforeLoad) {
+                return existing;
+            }
+            return existing == null || loaded.getSecurityEpoch() >= existing.getSecurityEpoch() ? loaded : existing;
+        });
+        return Optional.of(loaded);
+    }
+
+    /**
+     * 审核员级别或启用状态变更后调用：本地失效并广播给其他实例
+     */
+    public void invalidate(Long auditorId, Long securityEpoch) {
+        evictOlderThan(auditorId, securityEpoch);
+        try {
+            String message = objectMapper.writeValueAsString(new AuditorStateChangedMessage(auditorId, securityEpoch));
+            kafkaTemplate.send(INVALIDATION_TOPIC, auditorId.toString(), message);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast auditor state invalidation for auditorId: {}", auditorId, e);
+        }
+    }
+
+    /**
+     * 每个实例使用独立且固定的消费组，确保所有实例都能收到失效广播；
+     * 重启后沿用同一个组，不会每次启动都在Kafka留下新的消费组，停机期间错过的失效消息会补消费
+     */
+    @KafkaListener(topics = INVALIDATION_TOPIC,
+                   groupId = "#{__listener.consumerGroupId}",
+                   properties = {"auto.offset.reset=latest"})
+    public void onAuditorStateChanged(@Payload String message, Acknowledgment acknowledgment) {
+        try {
+            AuditorStateChangedMessage changed = objectMapper.readValue(message, AuditorStateChangedMessage.class);
+            evictOlderThan(changed.getAuditorId(), changed.getSecurityEpoch());
+            logger.debug("Auditor state invalidated: auditorId={}, epoch={}",
+                    changed.getAuditorId(), changed.getSecurityEpoch());
+        } catch (Exception e) {
+            logger.warn("Invalid auditor state invalidation message: {}", message, e);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    public String getConsumerGroupId() {
+        String instance = instanceId;
+        if (instance == null || instance.trim().isEmpty()) {
+            try {
+                instance = InetAddress.getLocalHost().getHostName() + "-" + serverPort;
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Cannot resolve host name, set auditor.state-cache.instance-id", e);
+            }
+        }
+        return "auditor-state-" + instance;
+    }
+
+    private void evictOlderThan(Long auditorId, Long securityEpoch) {
+        if (auditorId == null) {
+            return;
+        }
+        long epoch = securityEpoch != null ? securityEpoch : Long.MAX_VALUE;
+        cache.compute(auditorId, (id, state) -> {
+            invalidationCounts.incrementAndGet(stripe(id));
+            return state == null || state.getSecurityEpoch() < epoch ? null : state;
+        });
+    }
+
+    private long invalidationCount(Long auditorId) {
+        return invalidationCounts.get(stripe(auditorId));
+    }
+
+    private static int stripe(Long auditorId) {
+        return Long.hashCode(auditorId) & (INVALIDATION_STRIPES - 1);
+    }
+
+    public static class AuditorState {
+        private final boolean active;
+        private final Integer level;
+        private final long securityEpoch;
+        private final long loadedAt;
+
+        public AuditorState(boolean active, Integer level, long securityEpoch, long loadedAt) {
+            this.active = active;
+            this.level = level;
+            this.securityEpoch = securityEpoch;
+            this.loadedAt = loadedAt;
+        }
+
+        static AuditorState from(Auditor auditor) {
+            return new AuditorState(
+                    Boolean.TRUE.equals(auditor.getIsActive()),
+                    auditor.getLevel(),
+                    auditor.getSecurityEpoch() != null ? auditor.getSecurityEpoch() : 0L,
+                    System.currentTimeMillis());
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Integer getLevel() {
+            return level;
+        }
+
+        public long getSecurityEpoch() {
+            return securityEpoch;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
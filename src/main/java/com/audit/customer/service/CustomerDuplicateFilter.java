@@ -0,0 +1,134 @@
+package com.audit.customer.service;
+
+import com.audit.customer.repository.CustomerInfoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已存在客户的手机号、身份证号盲索引的布隆过滤器
+ * 未命中说明一定是新客户，可直接插入；命中只表示可能重复，需要再查一次数据库确认
+ */
+@Service
+public class CustomerDuplicateFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CustomerDuplicateFilter.class);
+    
+    // 每个客户写入两个键：手机号盲索引和身份证号盲索引
+    static final int KEYS_PER_CUSTOMER = 2;
+    
+    @Autowired
+    private CustomerInfoRepository customerInfoRepository;
+    
+    // 预计客户数，过滤器按其两倍的键数确定大小
+    @Value("${customer.duplicate-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${customer.duplicate-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${customer.duplicate-filter.load-batch-size:5000}")
+    private int loadBatchSize;
+    
+    private AtomicLongArray bits;
+    private long bitCount;
+    private int hashCount;
+    
+    // 启动加载完成前过滤器不完整，所有请求都按“可能重复”处理
+    private volatile boolean loaded;
+    
+    @PostConstruct
+    public void init() {
+        double ln2 = Math.log(2);
+        long expectedKeys = Math.max(1, expectedInsertions * KEYS_PER_CUSTOMER);
+        bitCount = Math.max(64, (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * ln2));
+        bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    }
+    
+    /**
+     * 在盲索引补齐之后加载现有客户
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void loadExisting() {
+        try {
+            long lastId = 0L;
+            long count = 0;
+            while (true) {
+                List<Object[]> rows = customerInfoRepository.findBlindIndexesAfterId(lastId, PageRequest.of(0, loadBatchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    put((String) row[1]);
+                    put((String) row[2]);
+                    lastId = (Long) row[0];
+                }
+                count += rows.size();
+            }
+            loaded = true;
+            logger.info("Customer duplicate filter loaded: {} customers, {} bits, {} hashes", count, bitCount, hashCount);
+        } catch (Exception e) {
+            logger.error("Failed to load customer duplicate filter, all questionnaires will be checked against the database", e);
+        }
+    }
+    
+    /**
+     * @return false表示一定不存在；true表示可能存在
+     */
+    public boolean mightContain(String blindIndex) {
+        if (!loaded || blindIndex == null) {
+            return true;
+        }
+        long hash1 = hash(blindIndex, 0);
+        long hash2 = hash(blindIndex, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public void put(String blindIndex) {
+        if (blindIndex == null) {
+            return;
+        }
+        long hash1 = hash(blindIndex, 0);
+        long hash2 = hash(blindIndex, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(index);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(index, current, current | mask));
+        }
+    }
+    
+    /**
+     * 盲索引本身是HMAC-SHA256的十六进制串，直接截取其中64位作为哈希值
+     */
+    private static long hash(String blindIndex, int offset) {
+        if (blindIndex.length() >= offset + 16) {
+            return Long.parseUnsignedLong(blindIndex, offset, offset + 16, 16) | 1L;
+        }
+        return (blindIndex.hashCode() * 0x9E3779B97F4A7C15L + offset) | 1L;
+    }
+}
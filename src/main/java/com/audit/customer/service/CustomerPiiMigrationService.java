@@ -0,0 +1,76 @@
+package com.audit.customer.service;
+
+import com.audit.customer.entity.CustomerInfo;
+import com.audit.customer.repository.CustomerInfoRepository;
+import com.audit.customer.util.PiiProtector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 启动时为历史客户记录补齐盲索引，开启加密时把明文手机号、身份证号改写为密文
+ * 在所有单例初始化完成后、Web服务器和Kafka监听器启动前同步执行，补齐完成前不接收请求，
+ * 查重不会漏掉尚无盲索引的记录；迁移失败时启动失败
+ */
+@Service
+public class CustomerPiiMigrationService implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CustomerPiiMigrationService.class);
+    
+    @Autowired
+    private CustomerInfoRepository customerInfoRepository;
+    
+    @Autowired
+    private PiiProtector piiProtector;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${pii.migration.batch-size:200}")
+    private int batchSize;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            int migrated = migrate();
+            logger.info("PII migration finished: {} customer records updated", migrated);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("PII migration failed, duplicate checks would miss records without blind index", e);
+        }
+    }
+    
+    public int migrate() {
+        boolean encrypt = piiProtector.isEncryptionEnabled();
+        long lastId = 0L;
+        int migrated = 0;
+        
+        while (true) {
+            List<Long> ids = customerInfoRepository.findIdsNeedingPiiMigration(lastId, encrypt, batchSize);
+            if (ids.isEmpty()) {
+                return migrated;
+            }
+            
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = 0;
+                // 转换器读取时同时兼容明文和密文
+                for (CustomerInfo customer : customerInfoRepository.findAllById(ids)) {
+                    count += customerInfoRepository.updateProtectedPii(
+                        customer.getId(),
+                        piiProtector.encrypt(customer.getPhone()),
+                        piiProtector.encrypt(customer.getIdCard()),
+                        piiProtector.blindIndex(customer.getPhone()),
+                        piiProtector.blindIndex(customer.getIdCard()));
+                }
+                return count;
+            });
+            migrated += updated != null ? updated : 0;
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+}
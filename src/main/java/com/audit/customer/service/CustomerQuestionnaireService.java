@@ -1,25 +1,35 @@
 package com.audit.customer.service;
 
+import com.audit.common.enums.RiskType;
+import com.audit.common.message.UserAuditFormMessage;
 import com.audit.customer.dto.CustomerInfoDto;
 import com.audit.customer.dto.CustomerQuestionnaireRequest;
 import com.audit.customer.dto.RiskAssessmentDto;
-import com.audit.customer.dto.UserAuditFormMessage;
 import com.audit.customer.entity.AuditLog;
 import com.audit.customer.entity.CustomerInfo;
 import com.audit.customer.entity.RiskAssessment;
 import com.audit.customer.exception.CustomerAlreadyExistsException;
-import com.audit.customer.exception.CustomerAuditAlreadyExistsException;
 import com.audit.customer.repository.AuditLogRepository;
 import com.audit.customer.repository.CustomerInfoRepository;
 import com.audit.customer.repository.RiskAssessmentRepository;
+import com.audit.customer.util.PiiProtector;
+import com.audit.customer.util.RiskScoringEngine;
+import com.audit.customer.util.SecurityUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CustomerQuestionnaireService {
@@ -35,47 +45,156 @@ public class CustomerQuestionnaireService {
     
     @Autowired
     private KafkaProducerService kafkaProducerService;
+    
+    @Autowired
+    private PiiProtector piiProtector;
+    
+    @Autowired
+    private CustomerDuplicateFilter customerDuplicateFilter;
+    
+    @Autowired
+    private AuditPriorityPolicy auditPriorityPolicy;
 
     @Transactional
     public Long createCustomerQuestionnaire(CustomerQuestionnaireRequest request) {
         CustomerInfoDto customerInfoDto = request.getCustomerInfo();
         
-        // 检查客户是否已存在
-        if (customerInfoRepository.existsByPhone(customerInfoDto.getPhone())) {
-            throw new CustomerAlreadyExistsException("手机号已存在：" + customerInfoDto.getPhone());
+        // 创建客户信息（同时计算手机号、身份证号的盲索引）
+        CustomerInfo customerInfo = convertToCustomerInfo(customerInfoDto);
+        
+        // 布隆过滤器未命中时一定是新客户，直接插入；命中时才查库确认，避免无谓的插入失败和自增ID浪费
+        if (customerDuplicateFilter.mightContain(customerInfo.getPhoneHash())
+                && customerInfoRepository.existsByPhoneHash(customerInfo.getPhoneHash())) {
+            throw new CustomerAlreadyExistsException("手机号已存在：" + SecurityUtil.maskPhone(customerInfoDto.getPhone()));
         }
         
-        if (customerInfoRepository.existsByIdCard(customerInfoDto.getIdCard())) {
-            throw new CustomerAlreadyExistsException("身份证号已存在：" + customerInfoDto.getIdCard());
+        if (customerDuplicateFilter.mightContain(customerInfo.getIdCardHash())
+                && customerInfoRepository.existsByIdCardHash(customerInfo.getIdCardHash())) {
+            throw new CustomerAlreadyExistsException("身份证号已存在：" + SecurityUtil.maskIdCard(customerInfoDto.getIdCard()));
         }
         
-        // 创建客户信息
-        CustomerInfo customerInfo = convertToCustomerInfo(customerInfoDto);
+        // ID由号段分配，save只登记实体，三条INSERT在flush时一起发出
         customerInfo = customerInfoRepository.save(customerInfo);
         
-        // 检查该客户是否已有审核流程
-        if (auditLogRepository.findByCustomerId(customerInfo.getId()).size() > 0) {
-            throw new CustomerAuditAlreadyExistsException("客户已存在审核流程：" + customerInfo.getId());
-        }
-        
         // 创建风险评估
         RiskAssessment riskAssessment = convertToRiskAssessment(request.getRiskAssessment(), customerInfo.getId());
         riskAssessmentRepository.save(riskAssessment);
         
         // 创建审核日志记录，进入审核流程
-        AuditLog auditLog = createAuditLog(customerInfo.getId());
+        AuditLog auditLog = createAuditLog(customerInfo, riskAssessment);
         
-        // 发送Kafka消息给AI处理
-        sendKafkaMessage(auditLog.getId(), customerInfo, riskAssessment, request);
+        // 并发提交或其他实例新增的客户由唯一约束兜底，在发送消息前flush以便捕获冲突
+        try {
+            customerInfoRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw toCustomerAlreadyExists(e, customerInfoDto);
+        }
+        customerDuplicateFilter.put(customerInfo.getPhoneHash());
+        customerDuplicateFilter.put(customerInfo.getIdCardHash());
+        
+        // 事务提交后再发送Kafka消息给AI处理，回滚的问卷不会被消费端处理
+        UserAuditFormMessage message = buildKafkaMessage(auditLog, customerInfo, riskAssessment);
+        int priority = auditLog.getPriority();
+        runAfterCommit(() -> kafkaProducerService.sendUserAuditFormMessage(message, priority));
         
         return customerInfo.getId();
     }
 
+    /**
+     * 批量创建问卷（组提交）：一个事务、一次flush写入整批客户、风险评估和审核日志
+     * 批内重复和库中已存在的客户在写入前剔除，对应结果为CustomerAlreadyExistsException；
+     * flush时仍发生唯一约束冲突（并发写入）则整批回滚并抛出，由调用方逐条重试
+     * @return 与输入顺序一致的结果，元素为customerId(Long)或异常(RuntimeException)
+     */
+    @Transactional
+    public List<Object> createCustomerQuestionnaires(List<CustomerQuestionnaireRequest> requests) {
+        List<CustomerInfo> customers = new ArrayList<>(requests.size());
+        Set<String> maybePhoneHashes = new HashSet<>();
+        Set<String> maybeIdCardHashes = new HashSet<>();
+        for (CustomerQuestionnaireRequest request : requests) {
+            CustomerInfo customerInfo = convertToCustomerInfo(request.getCustomerInfo());
+            customers.add(customerInfo);
+            if (customerDuplicateFilter.mightContain(customerInfo.getPhoneHash())) {
+                maybePhoneHashes.add(customerInfo.getPhoneHash());
+            }
+            if (customerDuplicateFilter.mightContain(customerInfo.getIdCardHash())) {
+                maybeIdCardHashes.add(customerInfo.getIdCardHash());
+            }
+        }
+        
+        // 布隆过滤器命中的才查库，每列一次IN查询
+        Set<String> existingPhoneHashes = maybePhoneHashes.isEmpty()
+            ? new HashSet<>() : new HashSet<>(customerInfoRepository.findExistingPhoneHashes(maybePhoneHashes));
+        Set<String> existingIdCardHashes = maybeIdCardHashes.isEmpty()
+            ? new HashSet<>() : new HashSet<>(customerInfoRepository.findExistingIdCardHashes(maybeIdCardHashes));
+        
+        List<Object> results = new ArrayList<>(requests.size());
+        List<PendingWrite> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerQuestionnaireRequest request = requests.get(i);
+            CustomerInfo customerInfo = customers.get(i);
+            
+            // add返回false表示库中已有或批内已出现
+            if (!existingPhoneHashes.add(customerInfo.getPhoneHash())) {
+                results.add(new CustomerAlreadyExistsException(
+                    "手机号已存在：" + SecurityUtil.maskPhone(request.getCustomerInfo().getPhone())));
+                continue;
+            }
+            if (!existingIdCardHashes.add(customerInfo.getIdCardHash())) {
+                results.add(new CustomerAlreadyExistsException(
+                    "身份证号已存在：" + SecurityUtil.maskIdCard(request.getCustomerInfo().getIdCard())));
+                continue;
+            }
+            
+            customerInfo = customerInfoRepository.save(customerInfo);
+            RiskAssessment riskAssessment = convertToRiskAssessment(request.getRiskAssessment(), customerInfo.getId());
+            riskAssessmentRepository.save(riskAssessment);
+            AuditLog auditLog = createAuditLog(customerInfo, riskAssessment);
+            
+            results.add(customerInfo.getId());
+            accepted.add(new PendingWrite(customerInfo, riskAssessment, auditLog));
+        }
+        
+        // 整批INSERT按表分组批量发出
+        customerInfoRepository.flush();
+        
+        List<UserAuditFormMessage> messages = new ArrayList<>(accepted.size());
+        List<Integer> priorities = new ArrayList<>(accepted.size());
+        for (PendingWrite write : accepted) {
+            customerDuplicateFilter.put(write.customerInfo.getPhoneHash());
+            customerDuplicateFilter.put(write.customerInfo.getIdCardHash());
+            messages.add(buildKafkaMessage(write.auditLog, write.customerInfo, write.riskAssessment));
+            priorities.add(write.auditLog.getPriority());
+        }
+        runAfterCommit(() -> {
+            for (int i = 0; i < messages.size(); i++) {
+                kafkaProducerService.sendUserAuditFormMessage(messages.get(i), priorities.get(i));
+            }
+        });
+        return results;
+    }
+    
+    /**
+     * 将唯一约束冲突转换为客户已存在异常
+     */
+    private RuntimeException toCustomerAlreadyExists(DataIntegrityViolationException e, CustomerInfoDto dto) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains("uq_customer_phone")) {
+            return new CustomerAlreadyExistsException("手机号已存在：" + SecurityUtil.maskPhone(dto.getPhone()));
+        }
+        if (message.contains("uq_customer_id_card")) {
+            return new CustomerAlreadyExistsException("身份证号已存在：" + SecurityUtil.maskIdCard(dto.getIdCard()));
+        }
+        return e;
+    }
+    
     private CustomerInfo convertToCustomerInfo(CustomerInfoDto dto) {
         CustomerInfo entity = new CustomerInfo();
         entity.setName(dto.getName());
         entity.setPhone(dto.getPhone());
         entity.setIdCard(dto.getIdCard());
+        entity.setPhoneHash(piiProtector.blindIndex(dto.getPhone()));
+        entity.setIdCardHash(piiProtector.blindIndex(dto.getIdCard()));
         entity.setEmail(dto.getEmail());
         entity.setOccupation(dto.getOccupation());
         entity.setInvestAmount(dto.getInvestAmount());
@@ -91,20 +210,27 @@ public class CustomerQuestionnaireService {
         entity.setMaxLoss(dto.getMaxLoss());
         entity.setInvestmentTarget(dto.getInvestmentTarget());
         entity.setInvestmentExpire(dto.getInvestmentExpire());
-        entity.setScore(dto.getScore());
+        // 评分由服务端按问卷答案重新计算，不信任客户端上报的分数
+        entity.setScore(RiskScoringEngine.score(dto));
         return entity;
     }
     
-    private AuditLog createAuditLog(Long customerId) {
+    private AuditLog createAuditLog(CustomerInfo customerInfo, RiskAssessment riskAssessment) {
         AuditLog auditLog = new AuditLog();
-        auditLog.setCustomerId(customerId);
+        auditLog.setCustomerId(customerInfo.getId());
         auditLog.setStatus(5); // 5等待AI结果
         auditLog.setStage(0);  // 0初级
+        // 优先级在提交时确定，后续各级审核沿用
+        auditLog.setPriority(auditPriorityPolicy.priorityOf(customerInfo.getInvestAmount(),
+                RiskType.fromScore(riskAssessment.getScore())));
         return auditLogRepository.save(auditLog);
     }
     
-    private void sendKafkaMessage(Long auditLogId, CustomerInfo customerInfo, 
-                                 RiskAssessment riskAssessment, CustomerQuestionnaireRequest request) {
+    /**
+     * 在事务内构建消息，构建失败时整个事务回滚
+     */
+    private UserAuditFormMessage buildKafkaMessage(AuditLog auditLog, CustomerInfo customerInfo,
+                                                   RiskAssessment riskAssessment) {
         try {
             // 计算客户年龄（如果有生日信息可以计算，这里简化处理）
             Integer customerAge = calculateAge(customerInfo);
@@ -116,7 +242,7 @@ public class CustomerQuestionnaireService {
             questionnaireAnswers.put("investmentExpire", riskAssessment.getInvestmentExpire());
             
             // 确定投资者类型
-            String investorType = determineInvestorType(riskAssessment.getScore());
+            String investorType = RiskType.fromScore(riskAssessment.getScore()).getDescription();
             
             // 构建FormData（不包含敏感信息如姓名、身份证）
             UserAuditFormMessage.FormData formData = new UserAuditFormMessage.FormData(
@@ -131,18 +257,31 @@ public class CustomerQuestionnaireService {
             );
             
             // 构建完整消息
-            UserAuditFormMessage message = new UserAuditFormMessage(
-                    auditLogId,
+            return new UserAuditFormMessage(
+                    auditLog.getId(),
                     customerInfo.getId(),
                     formData,
                     LocalDateTime.now()
             );
             
-            // 异步发送消息
-            kafkaProducerService.sendUserAuditFormMessage(message);
-            
         } catch (Exception e) {
-            throw new RuntimeException("Failed to send Kafka message for audit processing", e);
+            throw new RuntimeException("Failed to build Kafka message for audit processing", e);
+        }
+    }
+    
+    /**
+     * 事务提交后执行；消息异步发送，失败由AuditDeliveryStatusUpdater把记录退回人工队列
+     */
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
     
@@ -152,13 +291,15 @@ public class CustomerQuestionnaireService {
         return null;
     }
     
-    private String determineInvestorType(Integer score) {
-        if (score <= 30) {
-            return "保守型";
-        } else if (score <= 60) {
-            return "稳健型";
-        } else {
-            return "激进型";
+    private static class PendingWrite {
+        private final CustomerInfo customerInfo;
+        private final RiskAssessment riskAssessment;
+        private final AuditLog auditLog;
+        
+        PendingWrite(CustomerInfo customerInfo, RiskAssessment riskAssessment, AuditLog auditLog) {
+            this.customerInfo = customerInfo;
+            this.riskAssessment = riskAssessment;
+            this.auditLog = auditLog;
         }
     }
-}
\ No newline at end of file
+}
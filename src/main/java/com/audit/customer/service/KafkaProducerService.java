@@ -1,48 +1,86 @@
 package com.audit.customer.service;
 
-import com.audit.customer.dto.UserAuditFormMessage;
-import com.audit.customer.entity.AuditLog;
-import com.audit.customer.repository.AuditLogRepository;
-import com.audit.customer.util.AuditLogger;
+import com.audit.common.codec.UserAuditFormCodec;
+import com.audit.common.message.UserAuditFormMessage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 
 @Service
 public class KafkaProducerService {
     
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducerService.class);
-    private static final String TOPIC_NAME = "user_audit_form_topic";
     
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> auditFormKafkaTemplate;
     
     @Autowired
     private ObjectMapper objectMapper;
     
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditDeliveryStatusUpdater deliveryStatusUpdater;
     
-    public void sendUserAuditFormMessage(UserAuditFormMessage message) {
+    @Autowired
+    private AuditPriorityPolicy auditPriorityPolicy;
+    
+    // 关闭后所有问卷都发往普通主题，优先级仍用于任务分配排序
+    @Value("${audit.priority.fast-lane-enabled:true}")
+    private boolean fastLaneEnabled;
+    
+    // json或pb1；消费端全部升级到支持pb1之后再切换
+    @Value("${kafka.producer.audit-form-format:json}")
+    private String auditFormFormat;
+    
+    @PostConstruct
+    public void validateFormat() {
+        if (!UserAuditFormCodec.FORMAT_JSON.equals(auditFormFormat)
+                && !UserAuditFormCodec.FORMAT_PB1.equals(auditFormFormat)) {
+            throw new IllegalStateException("Unsupported kafka.producer.audit-form-format: " + auditFormFormat);
+        }
+    }
+    
+    /**
+     * 按优先级选择主题：高优先级问卷走快速通道，不在普通主题的积压后面排队
+     */
+    public void sendUserAuditFormMessage(UserAuditFormMessage message, int priority) {
         try {
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            logger.info("Preparing to send Kafka message for auditLogId: {}", message.getAuditLogId());
+            byte[] payload = UserAuditFormCodec.FORMAT_PB1.equals(auditFormFormat)
+                    ? UserAuditFormCodec.encode(message)
+                    : objectMapper.writeValueAsBytes(message);
             
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(TOPIC_NAME, 
-                    message.getAuditLogId().toString(), jsonMessage);
+            String topic = fastLaneEnabled && auditPriorityPolicy.isFastLane(priority)
+                    ? UserAuditFormMessage.PRIORITY_TOPIC : UserAuditFormMessage.TOPIC;
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic,
+                    message.getAuditLogId().toString(), payload);
+            record.headers().add(UserAuditFormCodec.FORMAT_HEADER, auditFormFormat.getBytes(StandardCharsets.UTF_8));
+            record.headers().add(UserAuditFormCodec.AUDIT_LOG_ID_HEADER,
+                    message.getAuditLogId().toString().getBytes(StandardCharsets.UTF_8));
+            record.headers().add(UserAuditFormCodec.PRIORITY_HEADER,
+                    Integer.toString(priority).getBytes(StandardCharsets.UTF_8));
+            if (message.getSubmitTime() != null) {
+                record.headers().add(UserAuditFormCodec.SUBMIT_TIME_HEADER,
+                        message.getSubmitTime().toString().getBytes(StandardCharsets.UTF_8));
+            }
+            logger.info("Preparing to send Kafka message for auditLogId: {} to {}", message.getAuditLogId(), topic);
+            CompletableFuture<SendResult<String, byte[]>> future = auditFormKafkaTemplate.send(record);
             
+            // 回调在生产者I/O线程上执行，只登记ID，数据库更新由AuditDeliveryStatusUpdater批量完成
             future.whenComplete((result, throwable) -> {
                 if (throwable == null) {
-                    handleMessageSendSuccess(message.getAuditLogId());
-                    logger.info("Kafka message sent successfully for auditLogId: {}", message.getAuditLogId());
+                    deliveryStatusUpdater.markDelivered(message.getAuditLogId());
+                    logger.debug("Kafka message sent successfully for auditLogId: {}", message.getAuditLogId());
                 } else {
-                    handleMessageSendFailure(message.getAuditLogId(), throwable);
+                    deliveryStatusUpdater.markFailed(message.getAuditLogId());
                     logger.error("Failed to send Kafka message for auditLogId: {}", 
                             message.getAuditLogId(), throwable);
                 }
@@ -51,40 +89,14 @@ public class KafkaProducerService {
         } catch (Exception e) {
             logger.error("Error preparing Kafka message for auditLogId: {}", 
                     message.getAuditLogId(), e);
-            handleMessageSendFailure(message.getAuditLogId(), e);
-        }
-    }
-    
-    private void handleMessageSendSuccess(Long auditLogId) {
-        try {
-            AuditLog auditLog = auditLogRepository.findById(auditLogId).orElse(null);
-            if (auditLog != null) {
-                auditLog.setStatus(5); // 不可分配状态
-                auditLogRepository.save(auditLog);
-                AuditLogger.logSecurityEvent("KAFKA_MESSAGE_SENT", "Message sent successfully", 
-                        "AuditLogId: " + auditLogId);
-            }
-        } catch (Exception e) {
-            logger.error("Failed to update audit log status after successful message send for auditLogId: {}", 
-                    auditLogId, e);
+            deliveryStatusUpdater.markFailed(message.getAuditLogId());
         }
     }
     
-    private void handleMessageSendFailure(Long auditLogId, Throwable throwable) {
-        try {
-            AuditLog auditLog = auditLogRepository.findById(auditLogId).orElse(null);
-            if (auditLog != null) {
-                auditLog.setStatus(0); // 可分配状态
-                auditLog.setAiAudit("消息发送失败，待重试");
-                auditLogRepository.save(auditLog);
-                
-                AuditLogger.logSecurityEvent("KAFKA_MESSAGE_FAILED", 
-                        "Message send failed: " + throwable.getMessage(), 
-                        "AuditLogId: " + auditLogId);
-            }
-        } catch (Exception e) {
-            logger.error("Failed to update audit log after message send failure for auditLogId: {}", 
-                    auditLogId, e);
-        }
+    /**
+     * 立即发送生产者中累积的消息并等待完成
+     */
+    public void flush() {
+        auditFormKafkaTemplate.flush();
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.audit.customer.service;
+
+import com.audit.customer.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 登录失败限流：按账号和按IP分别计数，失败次数越多需要等待的时间越长
+ * 计数器是固定大小的分段数组，每个槽位用一个long同时存放失败次数和最后失败时间，CAS更新无锁；
+ * 内存占用固定，不会被大量不同账号或IP撑大。不同key哈希到同一槽位时只会让限流更严格。
+ */
+@Service
+public class LoginThrottleService {
+    
+    private static final int STRIPES = 8192;
+    private static final long COUNT_MASK = 0xFFFFL;
+    
+    private final AtomicLongArray accountFailures = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray ipFailures = new AtomicLongArray(STRIPES);
+    
+    // 允许的连续失败次数，超过后开始要求等待
+    @Value("${auth.login-throttle.free-attempts:3}")
+    private int freeAttempts;
+    
+    @Value("${auth.login-throttle.base-delay-ms:1000}")
+    private long baseDelayMs;
+    
+    @Value("${auth.login-throttle.max-delay-ms:900000}")
+    private long maxDelayMs;
+    
+    // 距最后一次失败超过该时间后计数清零
+    @Value("${auth.login-throttle.reset-after-ms:900000}")
+    private long resetAfterMs;
+    
+    // 同一IP允许的失败次数是单账号的倍数，避免误伤NAT后的多个审核员
+    @Value("${auth.login-throttle.ip-multiplier:5}")
+    private int ipMultiplier;
+    
+    /**
+     * 在进行任何密码哈希之前调用，仍处于等待期时直接拒绝
+     */
+    public void checkAllowed(String account, String ip) {
+        long now = System.currentTimeMillis();
+        long accountWait = remainingDelay(accountFailures, account, freeAttempts, now);
+        long ipWait = remainingDelay(ipFailures, ip, freeAttempts * ipMultiplier, now);
+        long wait = Math.max(accountWait, ipWait);
+        if (wait > 0) {
+            throw new TooManyRequestsException("登录失败次数过多，请" + ((wait + 999) / 1000) + "秒后再试");
+        }
+    }
+    
+    public void recordFailure(String account, String ip) {
+        long now = System.currentTimeMillis();
+        increment(accountFailures, account, now);
+        increment(ipFailures, ip, now);
+    }
+    
+    /**
+     * 登录成功只清除账号计数，IP计数自然过期
+     */
+    public void recordSuccess(String account) {
+        if (account != null) {
+            accountFailures.set(slot(account), 0L);
+        }
+    }
+    
+    private long remainingDelay(AtomicLongArray counters, String key, int allowed, long now) {
+        if (key == null) {
+            return 0;
+        }
+        long value = counters.get(slot(key));
+        int failures = (int) (value & COUNT_MASK);
+        long lastFailureAt = value >>> 16;
+        if (failures <= allowed || now - lastFailureAt > resetAfterMs) {
+            return 0;
+        }
+        // 每多失败一次等待时间翻倍
+        int exponent = Math.min(failures - allowed - 1, 30);
+        long delay = Math.min(baseDelayMs << exponent, maxDelayMs);
+        return lastFailureAt + delay - now;
+    }
+    
+    private void increment(AtomicLongArray counters, String key, long now) {
+        if (key == null) {
+            return;
+        }
+        int slot = slot(key);
+        long current;
+        long next;
+        do {
+            current = counters.get(slot);
+            long failures = current & COUNT_MASK;
+            long lastFailureAt = current >>> 16;
+            if (now - lastFailureAt > resetAfterMs) {
+                failures = 0;
+            }
+            next = (now << 16) | Math.min(failures + 1, COUNT_MASK);
+        } while (!counters.compareAndSet(slot, current, next));
+    }
+    
+    private int slot(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+}
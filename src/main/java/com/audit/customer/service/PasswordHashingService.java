@@ -0,0 +1,106 @@
+package com.audit.customer.service;
+
+import com.audit.customer.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt密码哈希专用线程池
+ * 请求线程仍会同步等待哈希结果，线程池的作用是限制同时进行的BCrypt计算数量：
+ * 登录高峰时最多占用threads个CPU核，排队满时直接拒绝，等待超过timeout-ms时返回繁忙，
+ * 因此单个Tomcat线程因登录被占用的时间不超过timeout-ms，不会拖垮其他接口
+ */
+@Service
+public class PasswordHashingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    
+    @Value("${auth.password-hashing.threads:4}")
+    private int threads;
+    
+    @Value("${auth.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    // 应覆盖排满队列时的最长等待：(queue-capacity / threads + 1) × 单次哈希耗时
+    @Value("${auth.password-hashing.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        
+        long started = System.nanoTime();
+        passwordEncoder.encode("password-hashing-calibration");
+        long hashMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        long worstCaseWaitMs = hashMs * (queueCapacity / threads + 1);
+        if (worstCaseWaitMs > timeoutMs) {
+            logger.warn("Password hashing takes ~{} ms, a full queue needs ~{} ms but timeout is {} ms; "
+                + "lower queue-capacity or raise timeout-ms", hashMs, worstCaseWaitMs, timeoutMs);
+        } else {
+            logger.info("Password hashing pool: {} threads, queue {}, ~{} ms per hash, worst-case wait ~{} ms",
+                threads, queueCapacity, hashMs, worstCaseWaitMs);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("系统繁忙，请稍后再试");
+        }
+        
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TooManyRequestsException("系统繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 问卷组提交：先整批写入，整批失败时逐条重试，保证每份问卷都有自己准确的结果
+ */
+@Service
+public class QuestionnaireBatchWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireBatchWriter.class);
+    
+    @Autowired
+    private CustomerQuestionnaireService customerQuestionnaireService;
+    
+    /**
+     * @return 与输入顺序一致的结果，元素为customerId(Long)或异常(RuntimeException)
+     */
+    public List<Object> write(List<CustomerQuestionnaireRequest> requests) {
+        try {
+            List<Object> results = customerQuestionnaireService.createCustomerQuestionnaires(requests);
+            logger.info("Questionnaire batch committed: {} submissions", requests.size());
+            return results;
+        } catch (Exception e) {
+            // 整批回滚（通常是并发写入导致的唯一约束冲突），逐条重试以定位失败的问卷
+            logger.warn("Questionnaire batch of {} failed, retrying one by one: {}", requests.size(), e.getMessage());
+            List<Object> results = new ArrayList<>(requests.size());
+            for (CustomerQuestionnaireRequest request : requests) {
+                try {
+                    results.add(customerQuestionnaireService.createCustomerQuestionnaire(request));
+                } catch (RuntimeException single) {
+                    results.add(single);
+                }
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 命令行批量导入，导入完成后输出报告并退出：
+ * java -jar app.jar --spring.main.web-application-type=none --import.file=questionnaires.csv [--import.format=csv|ndjson]
+ */
+@Component
+@ConditionalOnProperty(name = "import.file")
+public class QuestionnaireImportRunner implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireImportRunner.class);
+    
+    @Autowired
+    private QuestionnaireImportService questionnaireImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+    
+    @Value("${import.file}")
+    private String file;
+    
+    @Value("${import.format:}")
+    private String format;
+    
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Paths.get(file);
+        QuestionnaireImportService.Format importFormat = format.isEmpty()
+            ? (file.toLowerCase().endsWith(".csv") ? QuestionnaireImportService.Format.CSV : QuestionnaireImportService.Format.NDJSON)
+            : QuestionnaireImportService.Format.valueOf(format.toUpperCase());
+        
+        ImportReport report;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            report = questionnaireImportService.importQuestionnaires(inputStream, importFormat);
+        }
+        logger.info("Questionnaire import of {} finished: {} rows, {} imported, {} failed\n{}", path,
+                report.getTotalRows(), report.getImported(), report.getFailed(),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        
+        int exitCode = report.getFailed() == 0 ? 0 : 2;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
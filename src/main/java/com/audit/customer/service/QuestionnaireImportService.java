@@ -0,0 +1,203 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.dto.ImportReport;
+import com.audit.customer.exception.CustomerAlreadyExistsException;
+import com.audit.customer.util.CsvRecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 问卷批量导入：流式解析CSV或NDJSON，逐行校验后按批组提交，返回逐行错误报告
+ */
+@Service
+public class QuestionnaireImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireImportService.class);
+    
+    // CSV表头中属于客户信息的列，其余列归入风险评估
+    private static final Set<String> CUSTOMER_INFO_COLUMNS =
+        Set.of("name", "phone", "idCard", "email", "occupation", "investAmount");
+    private static final Set<String> RISK_ASSESSMENT_COLUMNS =
+        Set.of("ageRange", "annualIncome", "investmentAmount", "investmentExperience", "maxLoss",
+               "investmentTarget", "investmentExpire", "score");
+    
+    private static final int MAX_FIELD_LENGTH = 4096;
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    @Autowired
+    private QuestionnaireBatchWriter questionnaireBatchWriter;
+    
+    @Autowired
+    private KafkaProducerService kafkaProducerService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${customer.import.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${customer.import.max-errors:1000}")
+    private int maxErrors;
+    
+    public ImportReport importQuestionnaires(InputStream inputStream, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ImportReport report = new ImportReport();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        
+        if (format == Format.CSV) {
+            importCsv(reader, report, batch);
+        } else {
+            importNdjson(reader, report, batch);
+        }
+        flushBatch(batch, report);
+        
+        logger.info("Questionnaire import finished: {} rows, {} imported, {} failed",
+                report.getTotalRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+    
+    private void importNdjson(BufferedReader reader, ImportReport report, List<PendingRow> batch) throws IOException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                accept(row, objectMapper.readValue(line, CustomerQuestionnaireRequest.class), report, batch);
+            } catch (JsonProcessingException e) {
+                report.recordFailure(row, "格式错误：" + e.getOriginalMessage(), maxErrors);
+            }
+        }
+    }
+    
+    private void importCsv(BufferedReader reader, ImportReport report, List<PendingRow> batch) throws IOException {
+        CsvRecordReader csvReader = new CsvRecordReader(reader, MAX_FIELD_LENGTH);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(String::trim).collect(Collectors.toList());
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        for (String column : header) {
+            if (!CUSTOMER_INFO_COLUMNS.contains(column) && !RISK_ASSESSMENT_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("未知的CSV列：" + column);
+            }
+        }
+        
+        long row = 0;
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                report.recordFailure(row, "列数与表头不一致：" + record.size() + "/" + header.size(), maxErrors);
+                continue;
+            }
+            
+            // 组装成与JSON请求体相同的结构，经过同一套反序列化清理（@SanitizedText）
+            ObjectNode root = objectMapper.createObjectNode();
+            ObjectNode customerInfo = root.putObject("customerInfo");
+            ObjectNode riskAssessment = root.putObject("riskAssessment");
+            for (int i = 0; i < header.size(); i++) {
+                String value = record.get(i);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String column = header.get(i);
+                (CUSTOMER_INFO_COLUMNS.contains(column) ? customerInfo : riskAssessment).put(column, value);
+            }
+            
+            try {
+                accept(row, objectMapper.treeToValue(root, CustomerQuestionnaireRequest.class), report, batch);
+            } catch (JsonProcessingException e) {
+                report.recordFailure(row, "格式错误：" + e.getOriginalMessage(), maxErrors);
+            }
+        }
+    }
+    
+    private void accept(long row, CustomerQuestionnaireRequest request, ImportReport report, List<PendingRow> batch) {
+        // 与REST接口使用同一套Bean Validation约束
+        Set<ConstraintViolation<CustomerQuestionnaireRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+            report.recordFailure(row, message, maxErrors);
+            return;
+        }
+        
+        batch.add(new PendingRow(row, request));
+        if (batch.size() >= batchSize) {
+            flushBatch(batch, report);
+        }
+    }
+    
+    private void flushBatch(List<PendingRow> batch, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<CustomerQuestionnaireRequest> requests = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            requests.add(pending.request);
+        }
+        
+        List<Object> results = questionnaireBatchWriter.write(requests);
+        for (int i = 0; i < batch.size(); i++) {
+            Object result = results.get(i);
+            if (result instanceof Long) {
+                report.recordSuccess();
+            } else if (result instanceof CustomerAlreadyExistsException) {
+                report.recordFailure(batch.get(i).row, ((Exception) result).getMessage(), maxErrors);
+            } else {
+                logger.error("Error importing questionnaire row {}", batch.get(i).row, (Throwable) result);
+                report.recordFailure(batch.get(i).row, "服务器内部错误", maxErrors);
+            }
+        }
+        
+        // 本批的审核消息已交给生产者累积成批，这里等待发送完成，避免导入大文件时在途消息无限增长
+        kafkaProducerService.flush();
+        batch.clear();
+    }
+    
+    private static class PendingRow {
+        private final long row;
+        private final CustomerQuestionnaireRequest request;
+        
+        PendingRow(long row, CustomerQuestionnaireRequest request) {
+            this.row = row;
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.dto.QuestionnaireTicketResponse;
+import com.audit.customer.entity.QuestionnaireTicket;
+import com.audit.customer.exception.CustomerAlreadyExistsException;
+import com.audit.customer.exception.TooManyRequestsException;
+import com.audit.customer.repository.QuestionnaireTicketRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 问卷异步受理：校验通过的请求放入有界队列并立即返回凭证，
+ * 由单个写入线程把多份问卷合并到一个事务中组提交，结果按凭证查询
+ * 处理结果写入questionnaire_ticket表，任一实例都能查到已完成的凭证；处理中的凭证只在受理实例的内存里，
+ * 其他实例在该批提交前（通常几十毫秒）查询会返回404。排队中的问卷只在内存中，正常停机时会写完，
+ * 进程崩溃时会丢失，客户端查询凭证长时间404时应重新提交
+ */
+@Service
+public class QuestionnaireIntakeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireIntakeService.class);
+    
+    @Autowired
+    private QuestionnaireBatchWriter questionnaireBatchWriter;
+    
+    @Autowired
+    private QuestionnaireTicketRepository questionnaireTicketRepository;
+    
+    @Value("${customer.async-intake.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${customer.async-intake.max-batch-size:100}")
+    private int maxBatchSize;
+    
+    // 队列中第一份问卷最多等待该时间凑批
+    @Value("${customer.async-intake.max-wait-ms:20}")
+    private long maxWaitMs;
+    
+    @Value("${customer.async-intake.ticket-ttl-ms:3600000}")
+    private long ticketTtlMs;
+    
+    private BlockingQueue<PendingQuestionnaire> queue;
+    
+    private final Map<String, TicketState> tickets = new ConcurrentHashMap<>();
+    
+    private Thread writerThread;
+    
+    private volatile boolean running;
+    
+    private long lastEvictionAt = System.currentTimeMillis();
+    
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "questionnaire-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // 停止接收新请求，写入线程处理完队列中剩余的问卷后退出
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+    
+    /**
+     * 受理问卷
+     * @return 查询结果用的凭证
+     */
+    public String submit(CustomerQuestionnaireRequest request) {
+        if (!running) {
+            throw new TooManyRequestsException("服务正在停止，请稍后再试");
+        }
+        String ticket = UUID.randomUUID().toString();
+        tickets.put(ticket, TicketState.pending());
+        if (!queue.offer(new PendingQuestionnaire(ticket, request))) {
+            tickets.remove(ticket);
+            throw new TooManyRequestsException("提交人数过多，请稍后再试");
+        }
+        return ticket;
+    }
+    
+    public Optional<QuestionnaireTicketResponse> getTicket(String ticket) {
+        TicketState state = tickets.get(ticket);
+        if (state != null) {
+            return Optional.of(new QuestionnaireTicketResponse(ticket, state.status, state.customerId, state.message));
+        }
+        // 由其他实例受理，或本实例重启前已完成
+        return questionnaireTicketRepository.findById(ticket)
+                .map(saved -> new QuestionnaireTicketResponse(saved.getTicket(), saved.getStatus(),
+                        saved.getCustomerId(), saved.getMessage()));
+    }
+    
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    private void writeLoop() {
+        List<PendingQuestionnaire> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                evictExpiredTickets();
+                PendingQuestionnaire first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // 凑批：在等待窗口内尽量多取
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingQuestionnaire next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in questionnaire writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void writeBatch(List<PendingQuestionnaire> batch) {
+        List<CustomerQuestionnaireRequest> requests = new ArrayList<>(batch.size());
+        for (PendingQuestionnaire pending : batch) {
+            requests.add(pending.request);
+        }
+        
+        List<Object> results = questionnaireBatchWriter.write(requests);
+        List<QuestionnaireTicket> completed = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String ticket = batch.get(i).ticket;
+            TicketState state = complete(ticket, results.get(i));
+            completed.add(new QuestionnaireTicket(ticket, state.status, state.customerId, state.message,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(state.completedAt), ZoneId.systemDefault())));
+        }
+        
+        try {
+            questionnaireTicketRepository.saveAll(completed);
+        } catch (Exception e) {
+            // 结果仍保留在本实例内存中，只是其他实例查不到
+            logger.warn("Failed to persist {} questionnaire tickets: {}", completed.size(), e.getMessage());
+        }
+    }
+    
+    private TicketState complete(String ticket, Object result) {
+        TicketState state;
+        if (result instanceof Long) {
+            state = TicketState.done(QuestionnaireTicketResponse.STATUS_COMPLETED, (Long) result, "问卷提交成功");
+        } else if (result instanceof CustomerAlreadyExistsException) {
+            state = TicketState.done(QuestionnaireTicketResponse.STATUS_DUPLICATE, null, ((Exception) result).getMessage());
+        } else {
+            logger.error("Error creating customer questionnaire for ticket {}", ticket, (Throwable) result);
+            state = TicketState.done(QuestionnaireTicketResponse.STATUS_FAILED, null, "服务器内部错误");
+        }
+        tickets.put(ticket, state);
+        return state;
+    }
+    
+    private void evictExpiredTickets() {
+        long now = System.currentTimeMillis();
+        if (now - lastEvictionAt < TimeUnit.MINUTES.toMillis(1)) {
+            return;
+        }
+        lastEvictionAt = now;
+        tickets.values().removeIf(state -> state.completedAt > 0 && now - state.completedAt > ticketTtlMs);
+        try {
+            LocalDateTime cutoff = LocalDateTime.ofInstant(Instant.ofEpochMilli(now - ticketTtlMs), ZoneId.systemDefault());
+            questionnaireTicketRepository.deleteCompletedBefore(cutoff);
+        } catch (Exception e) {
+            logger.warn("Failed to delete expired questionnaire tickets: {}", e.getMessage());
+        }
+    }
+    
+    private static class PendingQuestionnaire {
+        private final String ticket;
+        private final CustomerQuestionnaireRequest request;
+        
+        PendingQuestionnaire(String ticket, CustomerQuestionnaireRequest request) {
+            this.ticket = ticket;
+            this.request = request;
+        }
+    }
+    
+    private static class TicketState {
+        private final String status;
+        private final Long customerId;
+        private final String message;
+        private final long completedAt;
+        
+        private TicketState(String status, Long customerId, String message, long completedAt) {
+            this.status = status;
+            this.customerId = customerId;
+            this.message = message;
+            this.completedAt = completedAt;
+        }
+        
+        static TicketState pending() {
+            return new TicketState(QuestionnaireTicketResponse.STATUS_PENDING, null, "问卷处理中", 0L);
+        }
+        
+        static TicketState done(String status, Long customerId, String message) {
+            return new TicketState(status, customerId, message, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.audit.customer.service;
+
+import com.audit.customer.entity.AuditorRefreshToken;
+import com.audit.customer.repository.AuditorRefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * 刷新令牌的签发、轮换与吊销
+ * 令牌本身是高熵随机串，数据库中只保存SHA-256哈希，校验时无需BCrypt
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final int TOKEN_BYTES = 32;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Autowired
+    private AuditorRefreshTokenRepository refreshTokenRepository;
+    
+    @Value("${jwt.refresh.expiration-days:14}")
+    private long refreshExpirationDays;
+    
+    /**
+     * 为审核员签发新的刷新令牌
+     * @return 令牌明文，只在签发时返回一次
+     */
+    @Transactional
+    public String issue(Long auditorId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        
+        refreshTokenRepository.save(new AuditorRefreshToken(
+            auditorId, hash(rawToken), LocalDateTime.now().plusDays(refreshExpirationDays)));
+        return rawToken;
+    }
+    
+    /**
+     * 校验并吊销旧令牌（一次性使用）
+     * @return 令牌所属审核员ID
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public Long consume(String rawToken) {
+        AuditorRefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .orElseThrow(() -> new RuntimeException("刷新令牌无效"));
+        
+        if (Boolean.TRUE.equals(refreshToken.getRevoked())) {
+            // 已吊销的令牌被再次使用，可能已泄露，吊销该审核员的所有刷新令牌
+            refreshTokenRepository.revokeAllByAuditorId(refreshToken.getAuditorId());
+            throw new RuntimeException("刷新令牌已失效，请重新登录");
+        }
+        if (!refreshToken.isUsable(LocalDateTime.now())) {
+            throw new RuntimeException("刷新令牌已过期，请重新登录");
+        }
+        // 条件更新保证并发请求中只有一个能使用该令牌
+        if (refreshTokenRepository.revokeIfActive(refreshToken.getId()) == 0) {
+            throw new RuntimeException("刷新令牌已失效，请重新登录");
+        }
+        return refreshToken.getAuditorId();
+    }
+    
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .ifPresent(refreshToken -> refreshTokenRepository.revokeIfActive(refreshToken.getId()));
+    }
+    
+    @Transactional
+    public int revokeAll(Long auditorId) {
+        return refreshTokenRepository.revokeAllByAuditorId(auditorId);
+    }
+    
+    private String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,31 +1,66 @@
 package com.audit.customer.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
+    // 加密信封声明名及格式版本
+    private static final String CLAIM_ENVELOPE = "ec";
+    private static final byte ENVELOPE_VERSION = 2;
+    
     @Value("${jwt.secret:audit-system-jwt-secret-key-for-sm4-encryption-2024}")
     private String secret;
     
     @Value("${jwt.expiration:7200000}") // 2小时，单位毫秒
     private Long expiration;
     
+    @Value("${jwt.cache.max-size:10000}")
+    private int tokenCacheMaxSize;
+    
+    // 迁移期内仍接受eid/eum/est旧格式token，旧token全部过期后可关闭
+    @Value("${jwt.accept-legacy-format:true}")
+    private boolean acceptLegacyFormat;
+    
     private SecretKey sm4Key;
     
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    // 已验证token缓存：token哈希 -> 审核员信息，条目在token的exp时间失效
+    private final Map<String, CachedAuditorInfo> verifiedTokenCache = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
     
     private SecretKey getSM4Key() {
@@ -37,32 +72,62 @@ public class JwtUtil {
     
     /**
      * 生成JWT Token（使用SM4加密payload）
+     * 审核员id、用户名和级别打包成一个二进制信封，只做一次SM4加密
      */
     public String generateToken(Long auditorId, String username, Integer stage) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("auditorId", auditorId);
-        claims.put("username", username);
-        claims.put("stage", stage);
-        claims.put("iat", new Date().getTime());
-        
         try {
-            // 将关键信息用SM4加密
-            String encryptedAuditorId = SM4Util.encrypt(auditorId.toString(), getSM4Key());
-            String encryptedUsername = SM4Util.encrypt(username, getSM4Key());
-            String encryptedStage = SM4Util.encrypt(stage.toString(), getSM4Key());
-            
-            Map<String, Object> encryptedClaims = new HashMap<>();
-            encryptedClaims.put("eid", encryptedAuditorId); // encrypted auditor id
-            encryptedClaims.put("eum", encryptedUsername);  // encrypted username
-            encryptedClaims.put("est", encryptedStage);     // encrypted stage
-            encryptedClaims.put("iat", new Date().getTime());
-            
-            return createToken(encryptedClaims, username);
+            Map<String, Object> claims = new HashMap<>();
+            claims.put(CLAIM_ENVELOPE, encodeEnvelope(auditorId, username, stage));
+            return createToken(claims, username);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate encrypted token", e);
         }
     }
     
+    /**
+     * 信封格式：版本号(1字节) | auditorId(8字节) | stage(4字节) | username(UTF-8，剩余字节)
+     * 加密后为 IV||密文，使用不带填充的Base64url编码
+     */
+    private String encodeEnvelope(Long auditorId, String username, Integer stage) throws GeneralSecurityException {
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + usernameBytes.length);
+        buffer.put(ENVELOPE_VERSION);
+        buffer.putLong(auditorId);
+        buffer.putInt(stage);
+        buffer.put(usernameBytes);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(SM4Util.encryptBytes(buffer.array(), getSM4Key()));
+    }
+    
+    private AuditorInfo decodeEnvelope(String envelope) throws GeneralSecurityException {
+        byte[] plaintext = SM4Util.decryptBytes(Base64.getUrlDecoder().decode(envelope), getSM4Key());
+        if (plaintext.length < 1 + 8 + 4 || plaintext[0] != ENVELOPE_VERSION) {
+            throw new RuntimeException("Unsupported token envelope version");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(plaintext, 1, plaintext.length - 1);
+        long auditorId = buffer.getLong();
+        int stage = buffer.getInt();
+        String username = new String(plaintext, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+        return new AuditorInfo(auditorId, username, stage);
+    }
+    
+    /**
+     * 旧格式：eid/eum/est三个字段分别加密，迁移期内继续接受
+     */
+    private AuditorInfo decodeLegacyClaims(Claims claims) throws Exception {
+        String encryptedAuditorId = claims.get("eid", String.class);
+        String encryptedUsername = claims.get("eum", String.class);
+        String encryptedStage = claims.get("est", String.class);
+        
+        if (encryptedAuditorId == null || encryptedUsername == null || encryptedStage == null) {
+            throw new RuntimeException("Invalid token format");
+        }
+        
+        String[] decrypted = SM4Util.decryptAll(getSM4Key(),
+                encryptedAuditorId, encryptedUsername, encryptedStage);
+        return new AuditorInfo(Long.parseLong(decrypted[0]), decrypted[1], Integer.parseInt(decrypted[2]));
+    }
+    
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
@@ -78,30 +143,74 @@ public class JwtUtil {
     
     /**
      * 验证token并解密获取审核员信息
+     * 同一token再次验证时直接命中缓存，不再验签和解密
      */
     public AuditorInfo validateTokenAndGetAuditorInfo(String token) {
+        String cacheKey = hashToken(token);
+        CachedAuditorInfo cached = verifiedTokenCache.get(cacheKey);
+        if (cached != null) {
+            // 旧格式token在关闭acceptLegacyFormat后不能再从缓存放行，移除后按完整流程验证（会被拒绝）
+            if (cached.expiresAt > System.currentTimeMillis() && (!cached.legacyFormat || acceptLegacyFormat)) {
+                return cached.auditorInfo;
+            }
+            verifiedTokenCache.remove(cacheKey, cached);
+        }
+        
         try {
             Claims claims = getAllClaimsFromToken(token);
             
             // 解密关键信息
-            String encryptedAuditorId = claims.get("eid", String.class);
-            String encryptedUsername = claims.get("eum", String.class);
-            String encryptedStage = claims.get("est", String.class);
-            
-            if (encryptedAuditorId == null || encryptedUsername == null || encryptedStage == null) {
-                throw new RuntimeException("Invalid token format");
+            String envelope = claims.get(CLAIM_ENVELOPE, String.class);
+            AuditorInfo auditorInfo;
+            if (envelope != null) {
+                auditorInfo = decodeEnvelope(envelope);
+            } else if (acceptLegacyFormat) {
+                auditorInfo = decodeLegacyClaims(claims);
+            } else {
+                throw new RuntimeException("Legacy token format is no longer accepted");
             }
             
-            Long auditorId = Long.parseLong(SM4Util.decrypt(encryptedAuditorId, getSM4Key()));
-            String username = SM4Util.decrypt(encryptedUsername, getSM4Key());
-            Integer stage = Integer.parseInt(SM4Util.decrypt(encryptedStage, getSM4Key()));
-            
-            return new AuditorInfo(auditorId, username, stage);
+            cacheVerifiedToken(cacheKey, auditorInfo, claims.getExpiration().getTime(), envelope == null);
+            return auditorInfo;
         } catch (Exception e) {
             throw new RuntimeException("Failed to validate token or decrypt data", e);
         }
     }
     
+    private void cacheVerifiedToken(String cacheKey, AuditorInfo auditorInfo, long expiresAt, boolean legacyFormat) {
+        if (tokenCacheMaxSize <= 0) {
+            return; // 缓存关闭
+        }
+        if (verifiedTokenCache.size() >= tokenCacheMaxSize) {
+            evictCachedTokens();
+        }
+        verifiedTokenCache.put(cacheKey, new CachedAuditorInfo(auditorInfo, expiresAt, legacyFormat));
+    }
+    
+    /**
+     * 缓存满时先清理已过期条目，仍然满则按迭代顺序淘汰一批条目（容量的1/16），
+     * 保证新token总能进入缓存，且满载后不会每次插入都全表扫描
+     */
+    private void evictCachedTokens() {
+        long now = System.currentTimeMillis();
+        verifiedTokenCache.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = tokenCacheMaxSize - Math.max(1, tokenCacheMaxSize / 16);
+        Iterator<String> keys = verifiedTokenCache.keySet().iterator();
+        while (verifiedTokenCache.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+    
+    private String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
     /**
      * 从token获取username（不解密，用于subject验证）
      */
@@ -122,11 +231,7 @@ public class JwtUtil {
     }
     
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
     
     /**
@@ -148,6 +253,18 @@ public class JwtUtil {
         }
     }
     
+    private static class CachedAuditorInfo {
+        private final AuditorInfo auditorInfo;
+        private final long expiresAt;
+        private final boolean legacyFormat;
+        
+        CachedAuditorInfo(AuditorInfo auditorInfo, long expiresAt, boolean legacyFormat) {
+            this.auditorInfo = auditorInfo;
+            this.expiresAt = expiresAt;
+            this.legacyFormat = legacyFormat;
+        }
+    }
+    
     /**
      * 审核员信息内部类
      */
@@ -0,0 +1,126 @@
+package com.audit.customer.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * 大小写不敏感的多关键词扫描器（Aho-Corasick自动机）
+ * 构造时把所有关键词编译成完整的状态转移表，扫描时对输入只做一次线性遍历，不回溯、不分配内存。
+ * 只支持由ASCII字母组成的关键词，大小写折叠规则与正则的(?i)一致（仅ASCII）。
+ */
+public final class KeywordScanner {
+    
+    private static final int ALPHABET = 26;
+    
+    // transitions[state * ALPHABET + letter] -> 下一状态，已合并失败转移
+    private final int[] transitions;
+    
+    // 到达该状态时是否已匹配到某个关键词
+    private final boolean[] accepting;
+    
+    public KeywordScanner(String... keywords) {
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Boolean> output = new ArrayList<>();
+        gotoTable.add(newRow());
+        output.add(false);
+        
+        // 构建关键词字典树
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int letter = letterIndex(keyword.charAt(i));
+                if (letter < 0) {
+                    throw new IllegalArgumentException("Keyword must contain only ASCII letters: " + keyword);
+                }
+                int next = gotoTable.get(state)[letter];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(newRow());
+                    output.add(false);
+                    gotoTable.get(state)[letter] = next;
+                }
+                state = next;
+            }
+            output.set(state, true);
+        }
+        
+        int stateCount = gotoTable.size();
+        transitions = new int[stateCount * ALPHABET];
+        accepting = new boolean[stateCount];
+        int[] failure = new int[stateCount];
+        
+        // 按层次遍历计算失败指针，并把失败转移直接展开进转移表
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int letter = 0; letter < ALPHABET; letter++) {
+            int next = gotoTable.get(0)[letter];
+            if (next < 0) {
+                transitions[letter] = 0;
+            } else {
+                transitions[letter] = next;
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        accepting[0] = output.get(0);
+        
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] = output.get(state) || accepting[failure[state]];
+            for (int letter = 0; letter < ALPHABET; letter++) {
+                int next = gotoTable.get(state)[letter];
+                if (next < 0) {
+                    transitions[state * ALPHABET + letter] = transitions[failure[state] * ALPHABET + letter];
+                } else {
+                    transitions[state * ALPHABET + letter] = next;
+                    failure[next] = transitions[failure[state] * ALPHABET + letter];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 输入中是否包含任一关键词（大小写不敏感）
+     */
+    public boolean containsAny(CharSequence input) {
+        if (input == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            int letter = letterIndex(input.charAt(i));
+            if (letter < 0) {
+                // 关键词只含字母，遇到其他字符必然回到初始状态
+                state = 0;
+                continue;
+            }
+            state = transitions[state * ALPHABET + letter];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int letterIndex(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        return -1;
+    }
+    
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
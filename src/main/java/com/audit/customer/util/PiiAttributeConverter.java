@@ -0,0 +1,27 @@
+package com.audit.customer.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 敏感字段的JPA转换器，由Hibernate通过Spring容器获取实例
+ */
+@Component
+@Converter
+public class PiiAttributeConverter implements AttributeConverter<String, String> {
+    
+    @Autowired
+    private PiiProtector piiProtector;
+    
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return piiProtector.encrypt(attribute);
+    }
+    
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return piiProtector.decrypt(dbData);
+    }
+}
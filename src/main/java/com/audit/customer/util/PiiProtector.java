@@ -0,0 +1,133 @@
+package com.audit.customer.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * 客户敏感信息（手机号、身份证号）保护
+ * 落库时使用SM4加密；唯一约束和查重使用带密钥的HMAC-SHA256盲索引，查重仍是一次索引查询
+ * 两个密钥只从环境变量读取（Base64或十六进制编码的随机值，至少128位），没有默认值，缺失时启动失败
+ */
+@Component
+public class PiiProtector {
+    
+    // 密文前缀，用于区分迁移前的明文数据
+    private static final String CIPHER_PREFIX = "sm4:";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SM4_KEY_BYTES = 16;
+    private static final int MIN_BLIND_INDEX_KEY_BYTES = 16;
+    
+    @Value("${pii.encryption.enabled:false}")
+    private boolean encryptionEnabled;
+    
+    @Value("${pii.encryption.key:}")
+    private String encryptionKey;
+    
+    // 盲索引始终写入phone_hash/id_card_hash，未开启加密时也必须配置
+    @Value("${pii.blind-index.key:}")
+    private String blindIndexKey;
+    
+    private SecretKey sm4Key;
+    
+    private ThreadLocal<Mac> hmac;
+    
+    @PostConstruct
+    public void init() {
+        if (encryptionEnabled) {
+            byte[] keyBytes = decodeKey("pii.encryption.key (PII_ENCRYPTION_KEY)", encryptionKey);
+            if (keyBytes.length != SM4_KEY_BYTES) {
+                throw new IllegalStateException("pii.encryption.key (PII_ENCRYPTION_KEY) must decode to exactly "
+                        + SM4_KEY_BYTES + " bytes, got " + keyBytes.length);
+            }
+            sm4Key = SM4Util.getKeyFromBytes(keyBytes);
+        }
+        byte[] macKeyBytes = decodeKey("pii.blind-index.key (PII_BLIND_INDEX_KEY)", blindIndexKey);
+        if (macKeyBytes.length < MIN_BLIND_INDEX_KEY_BYTES) {
+            throw new IllegalStateException("pii.blind-index.key (PII_BLIND_INDEX_KEY) must decode to at least "
+                    + MIN_BLIND_INDEX_KEY_BYTES + " bytes, got " + macKeyBytes.length);
+        }
+        SecretKeySpec macKey = new SecretKeySpec(macKeyBytes, HMAC_ALGORITHM);
+        // Mac非线程安全，每个线程复用一个已初始化的实例
+        hmac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(macKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+    
+    /**
+     * 十六进制（偶数位0-9a-f）或Base64编码的密钥；生成方式：openssl rand -base64 16
+     */
+    static byte[] decodeKey(String name, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException(name + " is not configured");
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() % 2 == 0 && trimmed.matches("[0-9a-fA-F]+")) {
+                return HexFormat.of().parseHex(trimmed);
+            }
+            return Base64.getDecoder().decode(trimmed);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(name + " must be Base64 or hex encoded", e);
+        }
+    }
+    
+    public boolean isEncryptionEnabled() {
+        return encryptionEnabled;
+    }
+    
+    /**
+     * 加密后落库；未开启加密时原样返回
+     */
+    public String encrypt(String plaintext) {
+        if (plaintext == null || !encryptionEnabled) {
+            return plaintext;
+        }
+        try {
+            byte[] encrypted = SM4Util.encryptBytes(plaintext.getBytes(StandardCharsets.UTF_8), sm4Key);
+            return CIPHER_PREFIX + Base64.getEncoder().encodeToString(encrypted);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt PII", e);
+        }
+    }
+    
+    /**
+     * 解密数据库中的值；没有密文前缀的视为迁移前的明文
+     */
+    public String decrypt(String stored) {
+        if (stored == null || !stored.startsWith(CIPHER_PREFIX)) {
+            return stored;
+        }
+        try {
+            byte[] encrypted = Base64.getDecoder().decode(stored.substring(CIPHER_PREFIX.length()));
+            return new String(SM4Util.decryptBytes(encrypted, sm4Key), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to decrypt PII", e);
+        }
+    }
+    
+    /**
+     * 盲索引：去空格、转大写后计算HMAC，同一明文总是得到相同的64位十六进制串
+     */
+    public String blindIndex(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] digest = hmac.get().doFinal(value.trim().toUpperCase().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,124 @@
+package com.audit.customer.util;
+
+import com.audit.common.enums.RiskType;
+import com.audit.customer.dto.RiskAssessmentDto;
+
+/**
+ * 服务端风险评分引擎，权重与前端问卷（frontend/utils/riskScoring.ts）一致
+ * 权重表在类加载时编译成基本类型数组：编码类答案直接按代码下标取权重，文本类答案走开放寻址散列表，
+ * 评分过程不分配内存、不装箱。客户端上报的评分只用于展示，入库和下游以本引擎的结果为准。
+ */
+public final class RiskScoringEngine {
+
+    public static final int BASE_SCORE = 50;
+    public static final int MIN_SCORE = 0;
+    public static final int MAX_SCORE = 100;
+
+    // 年收入代码 1:10万以下 2:10-30万 3:30-50万 4:50万以上
+    private static final int[] ANNUAL_INCOME_WEIGHTS = {0, 0, 5, 10, 15};
+
+    // 可承受最大亏损代码 1:5%以内 2:5-15% 3:15-30% 4:30%以上
+    private static final int[] MAX_LOSS_WEIGHTS = {0, -10, 5, 10, 20};
+
+    private static final AnswerTable AGE = new AnswerTable(
+            new String[] {"18-30岁", "31-45岁", "46-60岁", "60岁以上"},
+            new int[] {15, 10, 5, -10});
+
+    // 同时接受选项原文和前端转换后的“xx投资经验”文本
+    private static final AnswerTable EXPERIENCE = new AnswerTable(
+            new String[] {"5年以上", "3-5年", "1-3年", "无经验",
+                          "5年以上投资经验", "3-5年投资经验", "1-3年投资经验", "无投资经验"},
+            new int[] {15, 10, 5, 0, 15, 10, 5, 0});
+
+    private static final AnswerTable TARGET = new AnswerTable(
+            new String[] {"追求高收益", "积极增长", "稳健增值", "资产保值"},
+            new int[] {15, 10, 5, -5});
+
+    private static final AnswerTable EXPIRE = new AnswerTable(
+            new String[] {"5年以上", "3-5年", "1-3年", "1年以内"},
+            new int[] {10, 5, 0, -10});
+
+    private RiskScoringEngine() {
+    }
+
+    /**
+     * 根据问卷答案计算风险评分，未作答或无法识别的题目不加减分
+     * @return 0-100之间的评分
+     */
+    public static int score(RiskAssessmentDto dto) {
+        return score(dto.getAgeRange(), dto.getAnnualIncome(), dto.getInvestmentExperience(),
+                dto.getMaxLoss(), dto.getInvestmentTarget(), dto.getInvestmentExpire());
+    }
+
+    public static int score(String ageRange, Integer annualIncome, String investmentExperience,
+                            Integer maxLoss, String investmentTarget, String investmentExpire) {
+        int score = BASE_SCORE
+                + AGE.weightOf(ageRange)
+                + codeWeight(ANNUAL_INCOME_WEIGHTS, annualIncome)
+                + EXPERIENCE.weightOf(investmentExperience)
+                + codeWeight(MAX_LOSS_WEIGHTS, maxLoss)
+                + TARGET.weightOf(investmentTarget)
+                + EXPIRE.weightOf(investmentExpire);
+        return Math.max(MIN_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /**
+     * 计算评分并划分风险类型
+     */
+    public static RiskType classify(RiskAssessmentDto dto) {
+        return RiskType.fromScore(score(dto));
+    }
+
+    private static int codeWeight(int[] weights, Integer code) {
+        if (code == null || code < 0 || code >= weights.length) {
+            return 0;
+        }
+        return weights[code];
+    }
+
+    /**
+     * 文本答案到权重的开放寻址散列表（线性探测），容量为2的幂且装载因子不超过0.5
+     */
+    private static final class AnswerTable {
+
+        private final String[] keys;
+        private final int[] weights;
+        private final int mask;
+
+        AnswerTable(String[] answers, int[] answerWeights) {
+            if (answers.length != answerWeights.length) {
+                throw new IllegalArgumentException("Answers and weights must have the same length");
+            }
+            int capacity = Integer.highestOneBit(Math.max(answers.length, 1) * 4 - 1) << 1;
+            keys = new String[capacity];
+            weights = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < answers.length; i++) {
+                int slot = answers[i].hashCode() & mask;
+                while (keys[slot] != null) {
+                    if (keys[slot].equals(answers[i])) {
+                        throw new IllegalArgumentException("Duplicate answer: " + answers[i]);
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = answers[i];
+                weights[slot] = answerWeights[i];
+            }
+        }
+
+        int weightOf(String answer) {
+            if (answer == null) {
+                return 0;
+            }
+            int slot = answer.hashCode() & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.equals(answer)) {
+                    return weights[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+    }
+}
@@ -9,31 +9,63 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.util.Base64;
 
 @Component
 public class SM4Util {
-    
+
     private static final String ALGORITHM = "SM4";
     private static final String TRANSFORMATION = "SM4/CBC/PKCS5Padding";
     private static final int IV_LENGTH = 16;
-    
+
+    // 全局只创建并注册一个BouncyCastle Provider实例
+    private static final Provider PROVIDER;
+
     static {
-        Security.addProvider(new BouncyCastleProvider());
+        Provider registered = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (registered == null) {
+            registered = new BouncyCastleProvider();
+            Security.addProvider(registered);
+        }
+        PROVIDER = registered;
     }
-    
+
+    // SecureRandom线程安全，由操作系统熵源自动播种，所有IV共用一个实例
+    private static final SecureRandom IV_SOURCE = new SecureRandom();
+
+    // Cipher非线程安全，每个线程复用一个实例，每次调用时用新IV重新init
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION, PROVIDER);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SM4 cipher is not available", e);
+        }
+    });
+
     /**
      * 生成SM4密钥
      */
     public static SecretKey generateKey() throws NoSuchAlgorithmException {
-        KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM, new BouncyCastleProvider());
+        KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM, PROVIDER);
         keyGenerator.init(128);
         return keyGenerator.generateKey();
     }
-    
+
+    /**
+     * 使用16字节（128位）原始密钥
+     */
+    public static SecretKey getKeyFromBytes(byte[] keyBytes) {
+        if (keyBytes == null || keyBytes.length != 16) {
+            throw new IllegalArgumentException("SM4 key must be 16 bytes");
+        }
+        return new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
     /**
      * 从字符串生成密钥
      */
@@ -44,16 +76,16 @@ public class SM4Util {
         System.arraycopy(keyBytes, 0, key, 0, Math.min(keyBytes.length, 16));
         return new SecretKeySpec(key, ALGORITHM);
     }
-    
+
     /**
      * 生成随机IV
      */
     private static byte[] generateIV() {
         byte[] iv = new byte[IV_LENGTH];
-        new SecureRandom().nextBytes(iv);
+        IV_SOURCE.nextBytes(iv);
         return iv;
     }
-    
+
     /**
      * SM4加密
      * @param plaintext 明文
@@ -61,21 +93,9 @@ public class SM4Util {
      * @return Base64编码的加密结果（包含IV）
      */
     public static String encrypt(String plaintext, SecretKey key) throws Exception {
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION, new BouncyCastleProvider());
-        byte[] iv = generateIV();
-        IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, ivParameterSpec);
-        
-        byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-        
-        // 将IV和密文合并
-        byte[] result = new byte[IV_LENGTH + ciphertext.length];
-        System.arraycopy(iv, 0, result, 0, IV_LENGTH);
-        System.arraycopy(ciphertext, 0, result, IV_LENGTH, ciphertext.length);
-        
-        return Base64.getEncoder().encodeToString(result);
+        return Base64.getEncoder().encodeToString(encryptBytes(plaintext.getBytes(StandardCharsets.UTF_8), key));
     }
-    
+
     /**
      * SM4解密
      * @param encryptedData Base64编码的加密数据（包含IV）
@@ -83,19 +103,65 @@ public class SM4Util {
      * @return 解密后的明文
      */
     public static String decrypt(String encryptedData, SecretKey key) throws Exception {
-        byte[] data = Base64.getDecoder().decode(encryptedData);
-        
-        // 提取IV和密文
-        byte[] iv = new byte[IV_LENGTH];
-        byte[] ciphertext = new byte[data.length - IV_LENGTH];
-        System.arraycopy(data, 0, iv, 0, IV_LENGTH);
-        System.arraycopy(data, IV_LENGTH, ciphertext, 0, ciphertext.length);
-        
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION, new BouncyCastleProvider());
-        IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
-        cipher.init(Cipher.DECRYPT_MODE, key, ivParameterSpec);
-        
-        byte[] plaintext = cipher.doFinal(ciphertext);
+        byte[] plaintext = decryptBytes(Base64.getDecoder().decode(encryptedData), key);
         return new String(plaintext, StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+
+    /**
+     * SM4加密原始字节
+     * @return IV与密文拼接后的字节
+     */
+    public static byte[] encryptBytes(byte[] plaintext, SecretKey key) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        byte[] iv = generateIV();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+
+        // 直接把密文写在IV之后，避免额外的数组拷贝
+        byte[] result = new byte[IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+        System.arraycopy(iv, 0, result, 0, IV_LENGTH);
+        int length = cipher.doFinal(plaintext, 0, plaintext.length, result, IV_LENGTH);
+
+        if (IV_LENGTH + length == result.length) {
+            return result;
+        }
+        byte[] trimmed = new byte[IV_LENGTH + length];
+        System.arraycopy(result, 0, trimmed, 0, trimmed.length);
+        return trimmed;
+    }
+
+    /**
+     * SM4解密原始字节（IV与密文拼接）
+     */
+    public static byte[] decryptBytes(byte[] data, SecretKey key) throws GeneralSecurityException {
+        if (data.length <= IV_LENGTH) {
+            throw new GeneralSecurityException("SM4密文长度不正确");
+        }
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(data, 0, IV_LENGTH));
+        return cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+    }
+
+    /**
+     * 批量加密多个字段，复用当前线程的Cipher实例
+     * @return 与输入顺序一致的Base64密文，null字段保持为null
+     */
+    public static String[] encryptAll(SecretKey key, String... plaintexts) throws Exception {
+        String[] result = new String[plaintexts.length];
+        for (int i = 0; i < plaintexts.length; i++) {
+            result[i] = plaintexts[i] == null ? null : encrypt(plaintexts[i], key);
+        }
+        return result;
+    }
+
+    /**
+     * 批量解密多个字段
+     * @return 与输入顺序一致的明文，null字段保持为null
+     */
+    public static String[] decryptAll(SecretKey key, String... encryptedData) throws Exception {
+        String[] result = new String[encryptedData.length];
+        for (int i = 0; i < encryptedData.length; i++) {
+            result[i] = encryptedData[i] == null ? null : decrypt(encryptedData[i], key);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package com.audit.customer.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在DTO的String字段上，JSON反序列化时由SanitizingModule一次完成去空格、长度检查、SQL关键词检测和HTML转义
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SanitizedText {
+    
+    /**
+     * 去空格并转义后的最大长度（即写入数据库的长度），小于0表示不限制
+     */
+    int maxLength() default -1;
+    
+    /**
+     * 是否拒绝包含SQL关键词的输入；姓名、意见等自由文本可能包含alter、update等普通单词，应关闭
+     */
+    boolean checkSqlKeywords() default true;
+    
+    /**
+     * 是否进行HTML转义
+     * 会被展示或发送给AI的自由文本（姓名、问卷说明、审核意见）应关闭并保存原文，由前端渲染时转义，
+     * 否则前端会显示二次转义的文本，AI提示词中也会出现{@code &lt;}等实体
+     */
+    boolean escapeHtml() default true;
+}
@@ -17,9 +17,10 @@ public class SecurityUtil {
     // 邮箱正则表达式
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
     
-    // SQL注入关键词检测
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
-        "(?i).*(union|select|insert|update|delete|drop|create|alter|exec|script|javascript|vbscript|onload|onerror).*"
+    // SQL注入关键词检测，一次线性扫描检查所有关键词
+    private static final KeywordScanner SQL_INJECTION_SCANNER = new KeywordScanner(
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter",
+        "exec", "script", "javascript", "vbscript", "onload", "onerror"
     );
     
     /**
@@ -66,10 +67,10 @@ public class SecurityUtil {
      * SQL注入检测
      */
     public static boolean containsSqlInjection(String input) {
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null || input.isEmpty()) {
             return false;
         }
-        return SQL_INJECTION_PATTERN.matcher(input).matches();
+        return SQL_INJECTION_SCANNER.containsAny(input);
     }
     
     /**
@@ -0,0 +1,32 @@
+-- 审核优先级与快速通道
+-- ddl-auto: update 会新增 priority 列和 idx_audit_log_assign 索引；表较大时建议在低峰期手动执行，避免启动时长时间锁表
+-- 脚本可重复执行：列和索引已存在（应用已启动过或脚本已执行过）时跳过，补齐只处理优先级仍为0的记录
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_log' AND COLUMN_NAME = 'priority') = 0,
+    'ALTER TABLE audit_log ADD COLUMN priority INT NOT NULL DEFAULT 0 COMMENT ''审核优先级：0普通 1高 2最高''',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_log' AND INDEX_NAME = 'idx_audit_log_assign') = 0,
+    'CREATE INDEX idx_audit_log_assign ON audit_log (stage, status, priority DESC, created_at)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 历史记录按提交时的计划投资金额补齐优先级（阈值与 audit.priority.* 默认值一致；风险类型以评分70分以上为激进型）
+-- 已由应用写入优先级的新记录不会被改写
+UPDATE audit_log al
+JOIN customer_info ci ON ci.id = al.customer_id
+LEFT JOIN risk_assessment ra ON ra.customer_id = al.customer_id
+SET al.priority = CASE
+    WHEN ci.invest_amount >= 10000000 THEN 2
+    WHEN ci.invest_amount >= 1000000 AND ra.score >= 70 THEN 2
+    WHEN ci.invest_amount >= 1000000 THEN 1
+    ELSE 0
+END
+WHERE al.status IN (0, 1, 5) AND al.priority = 0;
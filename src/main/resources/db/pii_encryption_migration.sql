@@ -0,0 +1,17 @@
+-- 客户敏感信息加密迁移
+
+-- 第一步：开启 pii.encryption.enabled 前手动执行
+-- ddl-auto: update 只会新增 phone_hash / id_card_hash 列，不会加宽已有列
+ALTER TABLE customer_info MODIFY phone VARCHAR(128) NOT NULL COMMENT '手机号（SM4密文）';
+ALTER TABLE customer_info MODIFY id_card VARCHAR(128) NOT NULL COMMENT '身份证号（SM4密文）';
+
+-- 第二步：应用启动时会在接收请求前为历史记录补齐盲索引（日志 "PII migration finished"）。
+-- 补齐期间旧唯一索引继续生效；确认下面的查询结果为0后，再删除旧索引，唯一约束改由盲索引列承担
+SELECT COUNT(*) FROM customer_info WHERE phone_hash IS NULL OR id_card_hash IS NULL;
+
+ALTER TABLE customer_info DROP INDEX uq_customer_phone;
+ALTER TABLE customer_info DROP INDEX uq_customer_id_card;
+
+-- 更换盲索引密钥（PII_BLIND_INDEX_KEY）后：清空盲索引，应用启动时在接收请求前用新密钥重新补齐
+-- UPDATE customer_info SET phone_hash = NULL, id_card_hash = NULL;
+-- SM4密钥（PII_ENCRYPTION_KEY）不能直接更换：已加密的记录只能用原密钥解密
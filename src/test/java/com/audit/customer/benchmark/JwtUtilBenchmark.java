@@ -0,0 +1,83 @@
+package com.audit.customer.benchmark;
+
+import com.audit.customer.util.JwtUtil;
+import com.audit.customer.util.SM4Util;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 访问令牌验证：ec信封（一次SM4解密）vs 旧格式eid/eum/est（三次SM4解密）
+ * 已验证token缓存关闭（jwt.cache.max-size=0），每次都完整验签和解密；token长度在Setup中输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-jwt-secret-key-for-sm4-encryption-2024";
+
+    @Param({"envelope", "legacy"})
+    public String format;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 7200000L);
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheMaxSize", 0);
+        ReflectionTestUtils.setField(jwtUtil, "acceptLegacyFormat", true);
+        jwtUtil.init();
+
+        token = "legacy".equals(format)
+                ? legacyToken(10086L, "auditor-10086", 2)
+                : jwtUtil.generateToken(10086L, "auditor-10086", 2);
+        System.out.println(format + " token length: " + token.length() + " characters");
+    }
+
+    @Benchmark
+    public JwtUtil.AuditorInfo validate() {
+        return jwtUtil.validateTokenAndGetAuditorInfo(token);
+    }
+
+    /**
+     * 改动前generateToken的格式：三个字段分别SM4加密、各自带IV和Base64编码
+     */
+    private static String legacyToken(Long auditorId, String username, Integer stage) throws Exception {
+        SecretKey sm4Key = SM4Util.getKeyFromString(SECRET);
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(Map.of(
+                        "eid", SM4Util.encrypt(auditorId.toString(), sm4Key),
+                        "eum", SM4Util.encrypt(username, sm4Key),
+                        "est", SM4Util.encrypt(stage.toString(), sm4Key)))
+                .subject(username)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 7200000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
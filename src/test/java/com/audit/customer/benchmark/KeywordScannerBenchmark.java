@@ -0,0 +1,71 @@
+package com.audit.customer.benchmark;
+
+import com.audit.customer.util.KeywordScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * SQL注入关键词检测：Aho-Corasick扫描器 vs 原先的 (?i).*(a|b|...).* 正则
+ * 输入均不含关键词（最常见也是两者都要扫完全文的情况）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordScannerBenchmark {
+
+    private static final String[] KEYWORDS = {
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter",
+        "exec", "script", "javascript", "vbscript", "onload", "onerror"
+    };
+
+    private static final Pattern LEGACY_PATTERN = Pattern.compile(
+        "(?i).*(union|select|insert|update|delete|drop|create|alter|exec|script|javascript|vbscript|onload|onerror).*");
+
+    // name: 客户姓名；comment: 审核意见长度的中英文混合文本；adversarial: 大量关键词前缀
+    @Param({"name", "comment", "adversarial"})
+    public String inputKind;
+
+    private KeywordScanner scanner;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        scanner = new KeywordScanner(KEYWORDS);
+        switch (inputKind) {
+            case "name":
+                input = "Zhang Wei";
+                break;
+            case "comment":
+                input = "客户收入证明齐全，投资经验3-5年，风险承受能力与问卷一致，建议按稳健型产品配置。Reviewed by level-2 auditor.";
+                break;
+            default:
+                input = "unioselecexejavascripvbscriponerro".repeat(8);
+                break;
+        }
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return scanner.containsAny(input);
+    }
+
+    @Benchmark
+    public boolean legacyRegex() {
+        return LEGACY_PATTERN.matcher(input).matches();
+    }
+}
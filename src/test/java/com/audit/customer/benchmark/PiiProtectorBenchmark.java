@@ -0,0 +1,74 @@
+package com.audit.customer.benchmark;
+
+import com.audit.customer.util.PiiProtector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开启加密后每份问卷增加的CPU开销：手机号、身份证号各一次SM4加密和一次HMAC盲索引
+ * 读取客户信息时每个字段一次解密
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PiiProtectorBenchmark {
+
+    private PiiProtector protector;
+    private String phone;
+    private String idCard;
+    private String storedPhone;
+
+    @Setup
+    public void setUp() {
+        protector = new PiiProtector();
+        ReflectionTestUtils.setField(protector, "encryptionEnabled", true);
+        ReflectionTestUtils.setField(protector, "encryptionKey", "00112233445566778899aabbccddeeff");
+        ReflectionTestUtils.setField(protector, "blindIndexKey", "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=");
+        protector.init();
+
+        phone = "13800138000";
+        idCard = "11010119900307123X";
+        storedPhone = protector.encrypt(phone);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return protector.encrypt(phone);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return protector.decrypt(storedPhone);
+    }
+
+    @Benchmark
+    public String blindIndex() {
+        return protector.blindIndex(idCard);
+    }
+
+    /**
+     * 问卷提交路径上的全部PII处理：两个字段的加密和盲索引
+     */
+    @Benchmark
+    public void questionnaireWrite(Blackhole blackhole) {
+        blackhole.consume(protector.encrypt(phone));
+        blackhole.consume(protector.encrypt(idCard));
+        blackhole.consume(protector.blindIndex(phone));
+        blackhole.consume(protector.blindIndex(idCard));
+    }
+}
@@ -0,0 +1,105 @@
+package com.audit.customer.benchmark;
+
+import com.audit.common.enums.RiskType;
+import com.audit.customer.util.RiskScoringEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端风险评分：预编译的权重表 vs 按题目逐个查HashMap；评分到风险类型：下标数组 vs 遍历区间
+ * 每次调用轮换一组答案，避免JIT把固定输入的结果常量化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskScoringEngineBenchmark {
+
+    private static final String[] AGES = {"18-30岁", "31-45岁", "46-60岁", "60岁以上"};
+    private static final String[] EXPERIENCES = {"5年以上投资经验", "3-5年投资经验", "1-3年投资经验", "无投资经验"};
+    private static final String[] TARGETS = {"追求高收益", "积极增长", "稳健增值", "资产保值"};
+    private static final String[] EXPIRES = {"5年以上", "3-5年", "1-3年", "1年以内"};
+
+    private final Map<String, Integer> ageWeights = new HashMap<>();
+    private final Map<String, Integer> experienceWeights = new HashMap<>();
+    private final Map<String, Integer> targetWeights = new HashMap<>();
+    private final Map<String, Integer> expireWeights = new HashMap<>();
+    private final Map<Integer, Integer> incomeWeights = new HashMap<>();
+    private final Map<Integer, Integer> maxLossWeights = new HashMap<>();
+
+    private int round;
+
+    @Setup
+    public void setUp() {
+        put(ageWeights, AGES, 15, 10, 5, -10);
+        put(experienceWeights, EXPERIENCES, 15, 10, 5, 0);
+        put(targetWeights, TARGETS, 15, 10, 5, -5);
+        put(expireWeights, EXPIRES, 10, 5, 0, -10);
+        for (int code = 1; code <= 4; code++) {
+            incomeWeights.put(code, new int[] {0, 5, 10, 15}[code - 1]);
+            maxLossWeights.put(code, new int[] {-10, 5, 10, 20}[code - 1]);
+        }
+    }
+
+    @Benchmark
+    public int engineScore() {
+        int i = round++ & 3;
+        return RiskScoringEngine.score(AGES[i], i + 1, EXPERIENCES[(i + 1) & 3], (i + 2 & 3) + 1,
+                TARGETS[(i + 2) & 3], EXPIRES[(i + 3) & 3]);
+    }
+
+    /**
+     * 常见的写法：每道题一个HashMap<String, Integer>，查到后拆箱累加
+     */
+    @Benchmark
+    public int hashMapScore() {
+        int i = round++ & 3;
+        int score = RiskScoringEngine.BASE_SCORE
+                + ageWeights.getOrDefault(AGES[i], 0)
+                + incomeWeights.getOrDefault(i + 1, 0)
+                + experienceWeights.getOrDefault(EXPERIENCES[(i + 1) & 3], 0)
+                + maxLossWeights.getOrDefault((i + 2 & 3) + 1, 0)
+                + targetWeights.getOrDefault(TARGETS[(i + 2) & 3], 0)
+                + expireWeights.getOrDefault(EXPIRES[(i + 3) & 3], 0);
+        return Math.max(RiskScoringEngine.MIN_SCORE, Math.min(RiskScoringEngine.MAX_SCORE, score));
+    }
+
+    @Benchmark
+    public RiskType fromScore() {
+        return RiskType.fromScore(round++ % 101);
+    }
+
+    /**
+     * 改动前的做法：按区间逐个比较
+     */
+    @Benchmark
+    public RiskType rangeScan() {
+        int score = round++ % 101;
+        for (RiskType type : RiskType.values()) {
+            if (score >= type.getMinScore() && score <= type.getMaxScore()) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("无效的风险评分: " + score);
+    }
+
+    private static void put(Map<String, Integer> weights, String[] answers, int... values) {
+        for (int i = 0; i < answers.length; i++) {
+            weights.put(answers[i], values[i]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.audit.customer.benchmark;
+
+import com.audit.customer.util.SM4Util;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SM4Util加解密：复用Provider、线程内Cipher和共享SecureRandom vs 原先每次调用都新建
+ * 分配量用 -prof gc 查看（gc.alloc.rate.norm）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SM4UtilBenchmark {
+
+    private SecretKey key;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setUp() throws Exception {
+        key = SM4Util.getKeyFromString("audit-jwt-sm4-key");
+        // 与JWT中加密的字段长度相当
+        plaintext = "auditor-10086";
+        ciphertext = SM4Util.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return SM4Util.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return SM4Util.decrypt(ciphertext, key);
+    }
+
+    /**
+     * 改动前的做法：每次新建BouncyCastleProvider、Cipher和SecureRandom，经临时数组拼接IV和密文
+     */
+    @Benchmark
+    public String encryptWithFreshInstances() throws Exception {
+        Cipher cipher = Cipher.getInstance("SM4/CBC/PKCS5Padding", new BouncyCastleProvider());
+        byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+
+        byte[] result = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, result, 0, iv.length);
+        System.arraycopy(encrypted, 0, result, iv.length, encrypted.length);
+        return Base64.getEncoder().encodeToString(result);
+    }
+
+    @Benchmark
+    public String decryptWithFreshInstances() throws Exception {
+        byte[] data = Base64.getDecoder().decode(ciphertext);
+        byte[] iv = new byte[16];
+        byte[] encrypted = new byte[data.length - 16];
+        System.arraycopy(data, 0, iv, 0, 16);
+        System.arraycopy(data, 16, encrypted, 0, encrypted.length);
+
+        Cipher cipher = Cipher.getInstance("SM4/CBC/PKCS5Padding", new BouncyCastleProvider());
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+}
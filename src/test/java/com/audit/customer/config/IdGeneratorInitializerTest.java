@@ -0,0 +1,147 @@
+package com.audit.customer.config;
+
+import com.audit.customer.entity.AuditLog;
+import com.audit.customer.util.PiiAttributeConverter;
+import com.audit.customer.util.PiiProtector;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 号段起点高于已有主键，且两个实例各自批量插入时ID不重复（H2内存库）
+ * 测试方法不包在事务里，两个实例的号段分配都要真正提交
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({IdGeneratorInitializer.class, PiiAttributeConverter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdGeneratorInitializerTest {
+
+    @MockBean
+    private PiiProtector piiProtector;
+
+    @Autowired
+    private IdGeneratorInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_log");
+        jdbcTemplate.update("DELETE FROM customer_info");
+        jdbcTemplate.update("DELETE FROM risk_assessment");
+        jdbcTemplate.update("UPDATE id_generator SET next_val = 51");
+        initializer.init();
+    }
+
+    @Test
+    void generatorsStartAboveExistingIdsAndNeverMoveBackwards() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO customer_info (id, name, phone, id_card, invest_amount, created_at, updated_at) "
+                + "VALUES (1000, '客户', 'p', 'c', 0, ?, ?)", now, now);
+        jdbcTemplate.update("INSERT INTO risk_assessment (id, customer_id, annual_income, investment_amount, max_loss, "
+                + "score, created_at) VALUES (300, 1000, 1, 0, 1, 30, ?)", now);
+        jdbcTemplate.update("INSERT INTO audit_log (id, customer_id, status, stage, priority, created_at, updated_at) "
+                + "VALUES (100, 1000, 0, 1, 0, ?, ?)", now, now);
+        // 号段已经分配到更高的位置，不能回退
+        jdbcTemplate.update("UPDATE id_generator SET next_val = 5000 WHERE sequence_name = 'audit_log'");
+        jdbcTemplate.update("UPDATE id_generator SET next_val = NULL WHERE sequence_name = 'risk_assessment'");
+        jdbcTemplate.update("DELETE FROM id_generator WHERE sequence_name = 'risk_assessment_result'");
+
+        initializer.init();
+
+        assertEquals(1051L, nextVal("customer_info"));
+        assertEquals(351L, nextVal("risk_assessment"));
+        assertEquals(5000L, nextVal("audit_log"));
+        assertEquals(51L, nextVal("risk_assessment_result"));
+    }
+
+    @Test
+    void twoInstancesNeverHandOutTheSameId() {
+        EntityManagerFactory otherInstance = secondInstance();
+        try {
+            Set<Long> ids = new HashSet<>();
+            int inserted = 0;
+            for (int round = 0; round < 3; round++) {
+                ids.addAll(persistBatch(entityManagerFactory, 60));
+                ids.addAll(persistBatch(otherInstance, 60));
+                inserted += 120;
+            }
+
+            assertEquals(inserted, ids.size());
+            assertEquals(inserted, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_log", Integer.class));
+        } finally {
+            otherInstance.close();
+        }
+    }
+
+    private List<Long> persistBatch(EntityManagerFactory factory, int count) {
+        EntityManager entityManager = factory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            List<AuditLog> auditLogs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                AuditLog auditLog = new AuditLog();
+                auditLog.setCustomerId(1L);
+                auditLog.setStage(1);
+                auditLog.setStatus(5);
+                entityManager.persist(auditLog);
+                auditLogs.add(auditLog);
+            }
+            entityManager.getTransaction().commit();
+            return auditLogs.stream().map(AuditLog::getId).toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * 同一数据库上的第二个EntityManagerFactory，相当于另一个应用实例，号段缓存各自独立
+     */
+    private EntityManagerFactory secondInstance() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.audit.customer.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"));
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private long nextVal(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = ?", Long.class, table);
+    }
+}
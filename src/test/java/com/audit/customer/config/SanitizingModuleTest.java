@@ -0,0 +1,71 @@
+package com.audit.customer.config;
+
+import com.audit.customer.dto.AuditResultSubmissionRequest;
+import com.audit.customer.dto.AuditorLoginRequest;
+import com.audit.customer.dto.CustomerInfoDto;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SanitizingModuleTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new SanitizingModule());
+
+    @Test
+    void freeTextIsTrimmedAndStoredUnescaped() throws Exception {
+        AuditResultSubmissionRequest request = objectMapper.readValue(
+                opinion("  收入<证明>齐全 & 一致  "), AuditResultSubmissionRequest.class);
+
+        assertEquals("收入<证明>齐全 & 一致", request.getOpinion());
+    }
+
+    @Test
+    void freeTextMayContainSqlWords() throws Exception {
+        CustomerInfoDto customer = objectMapper.readValue(
+                "{\"name\":\"Drop Select\",\"occupation\":\"Update engineer\"}", CustomerInfoDto.class);
+
+        assertEquals("Drop Select", customer.getName());
+        assertEquals("Update engineer", customer.getOccupation());
+    }
+
+    @Test
+    void opinionLengthMatchesTheStoredColumn() throws Exception {
+        String full = "<".repeat(255);
+        assertEquals(full, objectMapper.readValue(opinion(full), AuditResultSubmissionRequest.class).getOpinion());
+
+        assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(opinion(full + "<"), AuditResultSubmissionRequest.class));
+    }
+
+    @Test
+    void escapedFieldsAreLengthCheckedAfterEscaping() throws Exception {
+        assertEquals("a&lt;b", objectMapper.readValue(account("a<b"), AuditorLoginRequest.class).getAccount());
+
+        // 48个字符转义后为51个字符，超过50的限制
+        assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(account("a".repeat(47) + "<"), AuditorLoginRequest.class));
+    }
+
+    @Test
+    void rejectsSqlKeywordsWhereChecked() {
+        assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(account("admin' union select"), AuditorLoginRequest.class));
+    }
+
+    private String opinion(String opinion) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("opinion", opinion);
+        return node.toString();
+    }
+
+    private String account(String account) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("account", account);
+        node.put("password", "password123");
+        return node.toString();
+    }
+}
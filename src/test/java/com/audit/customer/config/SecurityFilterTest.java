@@ -0,0 +1,76 @@
+package com.audit.customer.config;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SecurityFilterTest {
+
+    private final SecurityFilter filter = new SecurityFilter();
+
+    @Test
+    void jsonRequestWithoutQueryStringIsNotWrapped() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/customer/questionnaire");
+        request.setContentType("application/json");
+        request.setContent("{\"name\":\"select\"}".getBytes());
+
+        assertSame(request, filter(request));
+    }
+
+    @Test
+    void formParametersAreSanitizedWhenRead() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auditor/login");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.addParameter("note", "  <b>ok</b> ");
+
+        HttpServletRequest wrapped = (HttpServletRequest) filter(request);
+
+        assertNotSame(request, wrapped);
+        assertEquals("&lt;b&gt;ok&lt;/b&gt;", wrapped.getParameter("note"));
+    }
+
+    @Test
+    void parametersAreOnlyCheckedWhenSomethingReadsThem() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/list");
+        request.setQueryString("q=1 union select");
+        request.addParameter("q", "1 union select");
+
+        // 过滤器本身不读取参数，不会因此拒绝请求
+        HttpServletRequest wrapped = (HttpServletRequest) filter(request);
+
+        assertThrows(IllegalArgumentException.class, () -> wrapped.getParameter("q"));
+    }
+
+    @Test
+    void callersCannotModifyTheCachedValues() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/list");
+        request.setQueryString("stage=1&stage=2");
+        request.addParameter("stage", "1", "2");
+        HttpServletRequest wrapped = (HttpServletRequest) filter(request);
+
+        wrapped.getParameterValues("stage")[0] = "tampered";
+        Map<String, String[]> parameters = wrapped.getParameterMap();
+        parameters.get("stage")[1] = "tampered";
+
+        assertArrayEquals(new String[] {"1", "2"}, wrapped.getParameterValues("stage"));
+        assertArrayEquals(new String[] {"1", "2"}, wrapped.getParameterMap().get("stage"));
+        assertEquals("1", wrapped.getParameter("stage"));
+    }
+
+    private ServletRequest filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.getRequest();
+    }
+}
@@ -0,0 +1,130 @@
+package com.audit.customer.repository;
+
+import com.audit.customer.entity.AuditLog;
+import com.audit.customer.util.PiiAttributeConverter;
+import com.audit.customer.util.PiiProtector;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 任务分配查询的排序：先按priority降序，同优先级按created_at升序；投递失败的条件回退（H2内存库）
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(PiiAttributeConverter.class)
+class AuditLogRepositoryTest {
+
+    private static final int STAGE = 1;
+    private static final int STATUS_ASSIGNABLE = 0;
+    private static final int STATUS_ASSIGNED = 1;
+    private static final int STATUS_WAITING_FOR_AI = 5;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 6, 11, 9, 0);
+
+    @MockBean
+    private PiiProtector piiProtector;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long normalOld;
+    private Long normalNew;
+    private Long highOld;
+    private Long vipOld;
+    private Long vipNew;
+
+    @BeforeEach
+    void setUp() {
+        normalNew = save(0, 60, STATUS_ASSIGNABLE);
+        vipNew = save(2, 50, STATUS_ASSIGNABLE);
+        highOld = save(1, 0, STATUS_ASSIGNABLE);
+        vipOld = save(2, 45, STATUS_ASSIGNABLE);
+        normalOld = save(0, 30, STATUS_ASSIGNABLE);
+        save(2, 10, STATUS_ASSIGNED);
+        entityManager.clear();
+    }
+
+    @Test
+    void ordersByPriorityThenSubmissionTime() {
+        List<AuditLog> tasks = auditLogRepository.findByStageAndStatusOrderByPriorityDescCreatedAtAsc(
+                STAGE, STATUS_ASSIGNABLE, PageRequest.of(0, 10));
+
+        assertEquals(List.of(vipOld, vipNew, highOld, normalOld, normalNew), ids(tasks));
+    }
+
+    @Test
+    void pageTakesTheHighestPriorityTasks() {
+        List<AuditLog> tasks = auditLogRepository.findByStageAndStatusOrderByPriorityDescCreatedAtAsc(
+                STAGE, STATUS_ASSIGNABLE, PageRequest.of(0, 3));
+
+        assertEquals(List.of(vipOld, vipNew, highOld), ids(tasks));
+    }
+
+    @Test
+    void excludedTasksKeepTheSameOrder() {
+        List<AuditLog> tasks = auditLogRepository.findByStageAndStatusAndIdNotInOrderByPriorityDescCreatedAtAsc(
+                STAGE, STATUS_ASSIGNABLE, List.of(vipOld, highOld), PageRequest.of(0, 10));
+
+        assertEquals(List.of(vipNew, normalOld, normalNew), ids(tasks));
+    }
+
+    @Test
+    void statusListQueryUsesTheSameOrder() {
+        List<AuditLog> tasks = auditLogRepository.findByStageAndStatusInOrderByPriorityDescCreatedAtAsc(
+                STAGE, List.of(STATUS_ASSIGNABLE), PageRequest.of(0, 10));
+
+        assertEquals(List.of(vipOld, vipNew, highOld, normalOld, normalNew), ids(tasks));
+    }
+
+    @Test
+    void sendFailureRollbackOnlyTouchesRowsStillWaitingForAi() {
+        Long waiting = save(0, 70, STATUS_WAITING_FOR_AI);
+        Long alsoWaiting = save(0, 71, STATUS_WAITING_FOR_AI);
+        // 消费端已写回结果并改为可分配
+        Long answered = save(0, 72, STATUS_ASSIGNABLE);
+        entityManager.clear();
+
+        int updated = auditLogRepository.updateStatusAndAiAuditByIds(List.of(waiting, alsoWaiting, answered),
+                STATUS_ASSIGNABLE, "消息发送失败，待重试", LocalDateTime.now(), STATUS_WAITING_FOR_AI);
+        entityManager.clear();
+
+        assertEquals(2, updated);
+        assertEquals("消息发送失败，待重试", auditLogRepository.findById(waiting).orElseThrow().getAiAudit());
+        assertEquals(STATUS_ASSIGNABLE, auditLogRepository.findById(alsoWaiting).orElseThrow().getStatus());
+        assertNull(auditLogRepository.findById(answered).orElseThrow().getAiAudit());
+    }
+
+    /**
+     * created_at由@PrePersist写入且不可更新，保存后用SQL改成BASE_TIME之后的指定分钟
+     */
+    private Long save(int priority, int minutesAfterBase, int status) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setCustomerId(1L);
+        auditLog.setStage(STAGE);
+        auditLog.setStatus(status);
+        auditLog.setPriority(priority);
+        auditLog = auditLogRepository.saveAndFlush(auditLog);
+        entityManager.createNativeQuery("UPDATE audit_log SET created_at = ? WHERE id = ?")
+                .setParameter(1, BASE_TIME.plusMinutes(minutesAfterBase))
+                .setParameter(2, auditLog.getId())
+                .executeUpdate();
+        return auditLog.getId();
+    }
+
+    private static List<Long> ids(List<AuditLog> auditLogs) {
+        return auditLogs.stream().map(AuditLog::getId).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.audit.customer.service;
+
+import com.audit.common.message.AuditAiResultMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 结果按审核记录去重、只更新状态5的记录、写库失败整批重投、非法消息跳过
+ */
+class AiResultApplierTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private AiResultApplier applier;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        applier = new AiResultApplier();
+        ReflectionTestUtils.setField(applier, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(applier, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(applier, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(applier, "retryBackoffMs", 5000L);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    @Test
+    void keepsOnlyTheLastResultPerAuditLog() throws Exception {
+        applier.onAiResults(List.of(record(1L, "旧策略"), record(2L, "策略2"), record(1L, "新策略")), acknowledgment);
+
+        List<Object[]> batch = capturedBatch();
+        assertEquals(2, batch.size());
+        assertEquals("新策略", batch.get(0)[0]);
+        assertEquals(1L, batch.get(0)[2]);
+        assertEquals("策略2", batch.get(1)[0]);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void onlyRowsStillWaitingForAiAreUpdated() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {0, Statement.SUCCESS_NO_INFO});
+
+        applier.onAiResults(List.of(record(1L, "策略1"), record(2L, "策略2")), acknowledgment);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+        assertTrue(sql.getValue().contains("WHERE id = ? AND status = 5"), sql.getValue());
+        assertTrue(sql.getValue().contains("status = 0"), sql.getValue());
+        // 记录已被其他结果更新或驱动未返回行数，都不算失败
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void databaseFailureRedeliversTheWholeBatch() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        applier.onAiResults(List.of(record(1L, "策略1")), acknowledgment);
+
+        verify(acknowledgment).nack(Duration.ofMillis(5000));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void invalidMessagesAreSkipped() throws Exception {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        records.add(new ConsumerRecord<>(AuditAiResultMessage.TOPIC, 0, offset++, "x", "not json"));
+        records.add(new ConsumerRecord<>(AuditAiResultMessage.TOPIC, 0, offset++, "3",
+                objectMapper.writeValueAsString(new AuditAiResultMessage(3L, null, LocalDateTime.now()))));
+        records.add(record(4L, "策略4"));
+
+        applier.onAiResults(records, acknowledgment);
+
+        List<Object[]> batch = capturedBatch();
+        assertEquals(1, batch.size());
+        assertEquals(4L, batch.get(0)[2]);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void batchWithOnlyInvalidMessagesIsAcknowledgedWithoutTouchingTheDatabase() {
+        applier.onAiResults(List.of(new ConsumerRecord<>(AuditAiResultMessage.TOPIC, 0, 0L, "x", "{")), acknowledgment);
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedBatch() {
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        return batch.getValue();
+    }
+
+    private ConsumerRecord<String, String> record(Long auditLogId, String aiAudit) throws Exception {
+        String value = objectMapper.writeValueAsString(new AuditAiResultMessage(auditLogId, aiAudit, LocalDateTime.now()));
+        return new ConsumerRecord<>(AuditAiResultMessage.TOPIC, 0, offset++, auditLogId.toString(), value);
+    }
+}
@@ -0,0 +1,111 @@
+package com.audit.customer.service;
+
+import com.audit.customer.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 投递失败的记录按批退回人工队列，写库失败时放回队列，停机时处理剩余结果
+ */
+class AuditDeliveryStatusUpdaterTest {
+
+    private static final int STATUS_ASSIGNABLE = 0;
+    private static final int STATUS_WAITING_FOR_AI = 5;
+
+    private final AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private AuditDeliveryStatusUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        updater = new AuditDeliveryStatusUpdater();
+        ReflectionTestUtils.setField(updater, "auditLogRepository", auditLogRepository);
+        ReflectionTestUtils.setField(updater, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(updater, "maxBatchSize", 2);
+        ReflectionTestUtils.setField(updater, "flushIntervalMs", 60000L);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(auditLogRepository.updateStatusAndAiAuditByIds(anyList(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+    }
+
+    @Test
+    void failedDeliveriesAreDrainedInBatches() {
+        for (long id = 1; id <= 5; id++) {
+            updater.markFailed(id);
+        }
+
+        flush();
+
+        verify(auditLogRepository).updateStatusAndAiAuditByIds(eq(List.of(1L, 2L)), eq(STATUS_ASSIGNABLE),
+                eq(AuditDeliveryStatusUpdater.SEND_FAILED_MESSAGE), any(), eq(STATUS_WAITING_FOR_AI));
+        verify(auditLogRepository).updateStatusAndAiAuditByIds(eq(List.of(3L, 4L)), eq(STATUS_ASSIGNABLE),
+                eq(AuditDeliveryStatusUpdater.SEND_FAILED_MESSAGE), any(), eq(STATUS_WAITING_FOR_AI));
+        verify(auditLogRepository).updateStatusAndAiAuditByIds(eq(List.of(5L)), eq(STATUS_ASSIGNABLE),
+                eq(AuditDeliveryStatusUpdater.SEND_FAILED_MESSAGE), any(), eq(STATUS_WAITING_FOR_AI));
+        assertEquals(0, updater.getPendingCount());
+    }
+
+    @Test
+    void deliveredMessagesDoNotTouchTheDatabase() {
+        updater.markDelivered(1L);
+        updater.markDelivered(2L);
+        updater.markDelivered(3L);
+
+        flush();
+
+        verify(auditLogRepository, never()).updateStatusAndAiAuditByIds(anyList(), any(), any(), any(), any());
+        assertEquals(0, updater.getPendingCount());
+    }
+
+    @Test
+    void databaseFailureRequeuesTheBatchForTheNextFlush() {
+        when(auditLogRepository.updateStatusAndAiAuditByIds(anyList(), any(), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"))
+                .thenReturn(2);
+        updater.markFailed(1L);
+        updater.markFailed(2L);
+
+        flush();
+        assertEquals(2, updater.getPendingCount());
+
+        flush();
+        assertEquals(0, updater.getPendingCount());
+        verify(auditLogRepository, times(2)).updateStatusAndAiAuditByIds(eq(List.of(1L, 2L)), eq(STATUS_ASSIGNABLE),
+                any(), any(), eq(STATUS_WAITING_FOR_AI));
+    }
+
+    @Test
+    void stopFlushesWhatIsLeft() throws InterruptedException {
+        updater.start();
+        updater.markFailed(7L);
+
+        // 刷新间隔为60秒，只有停机时的最后一次处理会写库
+        updater.stop();
+
+        verify(auditLogRepository).updateStatusAndAiAuditByIds(eq(List.of(7L)), eq(STATUS_ASSIGNABLE),
+                any(), any(), eq(STATUS_WAITING_FOR_AI));
+        assertEquals(0, updater.getPendingCount());
+    }
+
+    private void flush() {
+        ReflectionTestUtils.invokeMethod(updater, "flushAll");
+    }
+}
@@ -0,0 +1,54 @@
+package com.audit.customer.service;
+
+import com.audit.common.enums.RiskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditPriorityPolicyTest {
+
+    private AuditPriorityPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new AuditPriorityPolicy();
+        ReflectionTestUtils.setField(policy, "vipAmount", new BigDecimal("10000000"));
+        ReflectionTestUtils.setField(policy, "highAmount", new BigDecimal("1000000"));
+    }
+
+    @Test
+    void belowHighAmountIsNormalForEveryRiskType() {
+        for (RiskType riskType : RiskType.values()) {
+            assertEquals(AuditPriorityPolicy.NORMAL, policy.priorityOf(new BigDecimal("999999.99"), riskType));
+        }
+        assertEquals(AuditPriorityPolicy.NORMAL, policy.priorityOf(null, RiskType.AGGRESSIVE));
+    }
+
+    @Test
+    void highAmountIsHighUnlessAggressive() {
+        assertEquals(AuditPriorityPolicy.HIGH, policy.priorityOf(new BigDecimal("1000000"), RiskType.CONSERVATIVE));
+        assertEquals(AuditPriorityPolicy.HIGH, policy.priorityOf(new BigDecimal("9999999"), RiskType.BALANCED));
+        assertEquals(AuditPriorityPolicy.HIGH, policy.priorityOf(new BigDecimal("1000000"), null));
+        assertEquals(AuditPriorityPolicy.VIP, policy.priorityOf(new BigDecimal("1000000"), RiskType.AGGRESSIVE));
+    }
+
+    @Test
+    void vipAmountIsVipForEveryRiskType() {
+        for (RiskType riskType : RiskType.values()) {
+            assertEquals(AuditPriorityPolicy.VIP, policy.priorityOf(new BigDecimal("10000000.00"), riskType));
+        }
+    }
+
+    @Test
+    void onlyPrioritizedQuestionnairesUseTheFastLane() {
+        assertFalse(policy.isFastLane(AuditPriorityPolicy.NORMAL));
+        assertTrue(policy.isFastLane(AuditPriorityPolicy.HIGH));
+        assertTrue(policy.isFastLane(AuditPriorityPolicy.VIP));
+    }
+}
@@ -0,0 +1,92 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.AuditorRegistrationRequest;
+import com.audit.customer.entity.Auditor;
+import com.audit.customer.exception.AccessDeniedException;
+import com.audit.customer.repository.AuditorRepository;
+import com.audit.customer.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 注册级别的权限：未登录只能注册初级审核员，更高级别需要投资委员会令牌
+ */
+class AuditorAuthServiceTest {
+
+    private static final String ADMIN_TOKEN = "Bearer admin";
+    private static final String SENIOR_TOKEN = "Bearer senior";
+
+    private final AuditorRepository auditorRepository = mock(AuditorRepository.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+
+    private AuditorAuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.validateTokenAndGetAuditorInfo("admin")).thenReturn(new JwtUtil.AuditorInfo(1L, "chair", 3));
+        when(jwtUtil.validateTokenAndGetAuditorInfo("senior")).thenReturn(new JwtUtil.AuditorInfo(2L, "senior", 2));
+        AuditorStateCache stateCache = mock(AuditorStateCache.class);
+        when(stateCache.get(1L)).thenReturn(Optional.of(new AuditorStateCache.AuditorState(true, 3, 0L, 0L)));
+        when(stateCache.get(2L)).thenReturn(Optional.of(new AuditorStateCache.AuditorState(true, 2, 0L, 0L)));
+
+        authService = new AuditorAuthService();
+        ReflectionTestUtils.setField(authService, "auditorRepository", auditorRepository);
+        ReflectionTestUtils.setField(authService, "passwordHashingService", passwordHashingService);
+        ReflectionTestUtils.setField(authService, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(authService, "auditorStateCache", stateCache);
+
+        when(passwordHashingService.encode(anyString())).thenReturn("$2a$hash");
+        when(auditorRepository.save(any(Auditor.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void anonymousRegistrationCreatesJuniorAuditor() {
+        authService.registerAuditor(new AuditorRegistrationRequest("junior", "password123", 0), null);
+
+        ArgumentCaptor<Auditor> saved = ArgumentCaptor.forClass(Auditor.class);
+        verify(auditorRepository).save(saved.capture());
+        assertEquals(0, saved.getValue().getLevel());
+    }
+
+    @Test
+    void anonymousRegistrationAboveJuniorIsDenied() {
+        for (int level = 1; level <= AuditorAuthService.ADMIN_LEVEL; level++) {
+            AuditorRegistrationRequest request = new AuditorRegistrationRequest("user" + level, "password123", level);
+            assertThrows(AccessDeniedException.class, () -> authService.registerAuditor(request, null));
+        }
+
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(auditorRepository, never()).save(any(Auditor.class));
+    }
+
+    @Test
+    void nonCommitteeTokenCannotRegisterHigherLevels() {
+        AuditorRegistrationRequest request = new AuditorRegistrationRequest("chair2", "password123", 3);
+
+        assertThrows(AccessDeniedException.class, () -> authService.registerAuditor(request, SENIOR_TOKEN));
+        verify(auditorRepository, never()).save(any(Auditor.class));
+    }
+
+    @Test
+    void committeeTokenCanRegisterAnyLevel() {
+        authService.registerAuditor(new AuditorRegistrationRequest("chair2", "password123", 3), ADMIN_TOKEN);
+
+        ArgumentCaptor<Auditor> saved = ArgumentCaptor.forClass(Auditor.class);
+        verify(auditorRepository).save(saved.capture());
+        assertEquals(3, saved.getValue().getLevel());
+    }
+}
@@ -0,0 +1,107 @@
+package com.audit.customer.service;
+
+import com.audit.customer.entity.Auditor;
+import com.audit.customer.repository.AuditorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditorStateCacheTest {
+
+    private AuditorRepository auditorRepository;
+    private AuditorStateCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        auditorRepository = mock(AuditorRepository.class);
+        cache = new AuditorStateCache();
+        ReflectionTestUtils.setField(cache, "auditorRepository", auditorRepository);
+        ReflectionTestUtils.setField(cache, "kafkaTemplate", mock(KafkaTemplate.class));
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "ttlMs", 60000L);
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        when(auditorRepository.findById(1L)).thenReturn(Optional.of(auditor(true, 1L)));
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(auditorRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void invalidationDropsCachedState() {
+        when(auditorRepository.findById(1L))
+                .thenReturn(Optional.of(auditor(true, 1L)))
+                .thenReturn(Optional.of(auditor(false, 2L)));
+
+        assertTrue(cache.get(1L).get().isActive());
+        cache.invalidate(1L, 2L);
+
+        assertFalse(cache.get(1L).get().isActive());
+    }
+
+    @Test
+    void stateLoadedBeforeAConcurrentInvalidationIsNotCached() {
+        // 加载读到旧状态后、写入缓存前，另一线程提交了禁用并完成失效
+        when(auditorRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    cache.invalidate(1L, 2L);
+                    return Optional.of(auditor(true, 1L));
+                })
+                .thenReturn(Optional.of(auditor(false, 2L)));
+
+        cache.get(1L);
+
+        assertFalse(cache.get(1L).get().isActive());
+        verify(auditorRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void invalidationCountersDoNotGrowWithTheNumberOfAuditors() {
+        for (long id = 1; id <= 100000; id++) {
+            cache.invalidate(id, 1L);
+        }
+
+        AtomicLongArray counters = (AtomicLongArray) ReflectionTestUtils.getField(cache, "invalidationCounts");
+        assertEquals(1024, counters.length());
+    }
+
+    @Test
+    void consumerGroupIsStablePerInstance() {
+        ReflectionTestUtils.setField(cache, "serverPort", 8443);
+        ReflectionTestUtils.setField(cache, "instanceId", "");
+        String derived = cache.getConsumerGroupId();
+
+        assertTrue(derived.startsWith("auditor-state-") && derived.endsWith("-8443"), derived);
+        assertEquals(derived, cache.getConsumerGroupId());
+
+        ReflectionTestUtils.setField(cache, "instanceId", "customer-1");
+        assertEquals("auditor-state-customer-1", cache.getConsumerGroupId());
+    }
+
+    private static Auditor auditor(boolean active, long securityEpoch) {
+        Auditor auditor = new Auditor();
+        auditor.setId(1L);
+        auditor.setLevel(1);
+        auditor.setIsActive(active);
+        auditor.setSecurityEpoch(securityEpoch);
+        return auditor;
+    }
+}
@@ -0,0 +1,125 @@
+package com.audit.customer.service;
+
+import com.audit.customer.repository.CustomerInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerDuplicateFilterTest {
+
+    private final CustomerInfoRepository repository = mock(CustomerInfoRepository.class);
+    private final Random random = new Random(41);
+
+    @Test
+    void containsEveryInsertedKey() {
+        CustomerDuplicateFilter filter = loadedFilter(1000);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = randomBlindIndex();
+            keys.add(key);
+            filter.put(key);
+        }
+
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    void falsePositiveRateHoldsWithTwoKeysPerCustomer() {
+        int customers = 20000;
+        CustomerDuplicateFilter filter = loadedFilter(customers);
+        // 每个客户写入手机号和身份证号两个盲索引
+        for (int i = 0; i < customers * CustomerDuplicateFilter.KEYS_PER_CUSTOMER; i++) {
+            filter.put(randomBlindIndex());
+        }
+
+        int probes = 100000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(randomBlindIndex())) {
+                falsePositives++;
+            }
+        }
+
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.015, "false positive rate " + rate + " with configured 0.01");
+    }
+
+    @Test
+    void everyKeyMightExistUntilLoaded() {
+        CustomerDuplicateFilter filter = filter(1000);
+
+        assertTrue(filter.mightContain(randomBlindIndex()));
+        assertTrue(filter.mightContain(null));
+    }
+
+    @Test
+    void loadsBlindIndexesPageByPage() {
+        String phone1 = randomBlindIndex();
+        String idCard1 = randomBlindIndex();
+        String phone2 = randomBlindIndex();
+        String idCard3 = randomBlindIndex();
+        when(repository.findBlindIndexesAfterId(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new Object[] {1L, phone1, idCard1}, new Object[] {2L, phone2, null}));
+        when(repository.findBlindIndexesAfterId(2L, PageRequest.of(0, 2)))
+                .thenReturn(List.<Object[]>of(new Object[] {3L, null, idCard3}));
+        when(repository.findBlindIndexesAfterId(3L, PageRequest.of(0, 2))).thenReturn(List.of());
+        CustomerDuplicateFilter filter = filter(1000);
+
+        filter.loadExisting();
+
+        for (String key : List.of(phone1, idCard1, phone2, idCard3)) {
+            assertTrue(filter.mightContain(key));
+        }
+        assertFalse(filter.mightContain(randomBlindIndex()));
+    }
+
+    @Test
+    void failedLoadKeepsCheckingTheDatabase() {
+        when(repository.findBlindIndexesAfterId(anyLong(), any())).thenThrow(new IllegalStateException("db down"));
+        CustomerDuplicateFilter filter = filter(1000);
+
+        filter.loadExisting();
+
+        assertTrue(filter.mightContain(randomBlindIndex()));
+    }
+
+    private CustomerDuplicateFilter filter(long expectedCustomers) {
+        CustomerDuplicateFilter filter = new CustomerDuplicateFilter();
+        ReflectionTestUtils.setField(filter, "customerInfoRepository", repository);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", expectedCustomers);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "loadBatchSize", 2);
+        filter.init();
+        return filter;
+    }
+
+    private CustomerDuplicateFilter loadedFilter(long expectedCustomers) {
+        CustomerDuplicateFilter filter = filter(expectedCustomers);
+        ReflectionTestUtils.setField(filter, "loaded", true);
+        return filter;
+    }
+
+    /**
+     * 盲索引是64位十六进制串
+     */
+    private String randomBlindIndex() {
+        StringBuilder hex = new StringBuilder(64);
+        for (int i = 0; i < 4; i++) {
+            hex.append(String.format("%016x", random.nextLong()));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.audit.customer.service;
+
+import com.audit.customer.util.PiiAttributeConverter;
+import com.audit.customer.util.PiiProtector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 启动迁移在H2上的行为：补齐盲索引、加密明文，重复执行时跳过已是密文（sm4:前缀）的记录
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "pii.encryption.enabled=true",
+        "pii.encryption.key=00112233445566778899aabbccddeeff",
+        "pii.blind-index.key=AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=",
+        "pii.migration.batch-size=2"
+})
+@Import({PiiProtector.class, PiiAttributeConverter.class, CustomerPiiMigrationService.class})
+class CustomerPiiMigrationServiceTest {
+
+    @Autowired
+    private CustomerPiiMigrationService migrationService;
+
+    @Autowired
+    private PiiProtector piiProtector;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        insertPlaintext(1L, "13800000001", "110101199001010011");
+        insertPlaintext(2L, "13800000002", "110101199001010022");
+        insertPlaintext(3L, "13800000003", "11010119900101003x");
+    }
+
+    @Test
+    void encryptsPlaintextAndFillsBlindIndexes() {
+        assertEquals(3, migrationService.migrate());
+
+        Map<String, Object> row = row(3L);
+        String phone = (String) row.get("PHONE");
+        String idCard = (String) row.get("ID_CARD");
+        assertTrue(phone.startsWith("sm4:"), phone);
+        assertTrue(idCard.startsWith("sm4:"), idCard);
+        assertEquals("13800000003", piiProtector.decrypt(phone));
+        assertEquals("11010119900101003x", piiProtector.decrypt(idCard));
+        assertEquals(piiProtector.blindIndex("13800000003"), row.get("PHONE_HASH"));
+        // 盲索引按大写计算，与查重时的输入大小写无关
+        assertEquals(piiProtector.blindIndex("11010119900101003X"), row.get("ID_CARD_HASH"));
+    }
+
+    @Test
+    void rerunSkipsRecordsThatAreAlreadyEncrypted() {
+        migrationService.migrate();
+        Map<String, Object> before = row(1L);
+
+        assertEquals(0, migrationService.migrate());
+        assertEquals(before, row(1L));
+    }
+
+    @Test
+    void rerunPicksUpOnlyNewPlaintextRecords() {
+        migrationService.migrate();
+        insertPlaintext(4L, "13800000004", "110101199001010044");
+
+        assertEquals(1, migrationService.migrate());
+        assertTrue(((String) row(4L).get("PHONE")).startsWith("sm4:"));
+    }
+
+    @Test
+    void withEncryptionDisabledOnlyMissingBlindIndexesAreFilled() {
+        ReflectionTestUtils.setField(piiProtector, "encryptionEnabled", false);
+        try {
+            assertEquals(3, migrationService.migrate());
+            assertEquals("13800000001", row(1L).get("PHONE"));
+            assertEquals(piiProtector.blindIndex("13800000001"), row(1L).get("PHONE_HASH"));
+
+            // 明文但已有盲索引的记录在未开启加密时不需要处理
+            assertEquals(0, migrationService.migrate());
+        } finally {
+            ReflectionTestUtils.setField(piiProtector, "encryptionEnabled", true);
+        }
+    }
+
+    private void insertPlaintext(Long id, String phone, String idCard) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO customer_info (id, name, phone, id_card, invest_amount, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, 0, ?, ?)", id, "客户" + id, phone, idCard, now, now);
+    }
+
+    private Map<String, Object> row(Long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT phone, id_card, phone_hash, id_card_hash FROM customer_info WHERE id = ?", id);
+    }
+}
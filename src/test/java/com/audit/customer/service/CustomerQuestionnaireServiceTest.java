@@ -0,0 +1,144 @@
+package com.audit.customer.service;
+
+import com.audit.common.message.UserAuditFormMessage;
+import com.audit.customer.dto.CustomerInfoDto;
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.dto.RiskAssessmentDto;
+import com.audit.customer.entity.AuditLog;
+import com.audit.customer.entity.CustomerInfo;
+import com.audit.customer.repository.AuditLogRepository;
+import com.audit.customer.repository.CustomerInfoRepository;
+import com.audit.customer.repository.RiskAssessmentRepository;
+import com.audit.customer.util.PiiProtector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 问卷写入与Kafka发送的顺序：消息只在事务提交后发出
+ */
+class CustomerQuestionnaireServiceTest {
+
+    private final AtomicLong ids = new AtomicLong(100);
+
+    private KafkaProducerService kafkaProducerService;
+    private CustomerQuestionnaireService service;
+
+    @BeforeEach
+    void setUp() {
+        CustomerInfoRepository customerInfoRepository = mock(CustomerInfoRepository.class);
+        when(customerInfoRepository.save(any(CustomerInfo.class))).thenAnswer(invocation -> {
+            CustomerInfo customer = invocation.getArgument(0);
+            customer.setId(ids.incrementAndGet());
+            return customer;
+        });
+        AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(invocation -> {
+            AuditLog auditLog = invocation.getArgument(0);
+            auditLog.setId(ids.incrementAndGet());
+            return auditLog;
+        });
+        PiiProtector piiProtector = mock(PiiProtector.class);
+        when(piiProtector.blindIndex(anyString())).thenAnswer(invocation -> "h" + invocation.getArgument(0));
+        AuditPriorityPolicy auditPriorityPolicy = mock(AuditPriorityPolicy.class);
+        when(auditPriorityPolicy.priorityOf(any(), any())).thenReturn(AuditPriorityPolicy.NORMAL);
+
+        kafkaProducerService = mock(KafkaProducerService.class);
+        service = new CustomerQuestionnaireService();
+        ReflectionTestUtils.setField(service, "customerInfoRepository", customerInfoRepository);
+        ReflectionTestUtils.setField(service, "riskAssessmentRepository", mock(RiskAssessmentRepository.class));
+        ReflectionTestUtils.setField(service, "auditLogRepository", auditLogRepository);
+        ReflectionTestUtils.setField(service, "kafkaProducerService", kafkaProducerService);
+        ReflectionTestUtils.setField(service, "piiProtector", piiProtector);
+        ReflectionTestUtils.setField(service, "customerDuplicateFilter", mock(CustomerDuplicateFilter.class));
+        ReflectionTestUtils.setField(service, "auditPriorityPolicy", auditPriorityPolicy);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void sendsMessageOnlyAfterCommit() {
+        service.createCustomerQuestionnaire(request("13800000001", "110101199001011231"));
+
+        verify(kafkaProducerService, never()).sendUserAuditFormMessage(any(), anyInt());
+
+        commit();
+        verify(kafkaProducerService, times(1))
+                .sendUserAuditFormMessage(any(UserAuditFormMessage.class), anyInt());
+    }
+
+    @Test
+    void batchSendsAllMessagesOnlyAfterCommit() {
+        List<Object> results = service.createCustomerQuestionnaires(List.of(
+                request("13800000001", "110101199001011231"),
+                request("13800000002", "110101199001011232")));
+
+        assertEquals(2, results.size());
+        verify(kafkaProducerService, never()).sendUserAuditFormMessage(any(), anyInt());
+
+        commit();
+        verify(kafkaProducerService, times(2))
+                .sendUserAuditFormMessage(any(UserAuditFormMessage.class), anyInt());
+    }
+
+    @Test
+    void rolledBackQuestionnaireIsNeverSent() {
+        service.createCustomerQuestionnaire(request("13800000001", "110101199001011231"));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        verify(kafkaProducerService, never()).sendUserAuditFormMessage(any(), anyInt());
+    }
+
+    private static void commit() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+    }
+
+    private static CustomerQuestionnaireRequest request(String phone, String idCard) {
+        CustomerInfoDto customer = new CustomerInfoDto();
+        customer.setName("张三");
+        customer.setPhone(phone);
+        customer.setIdCard(idCard);
+        customer.setOccupation("工程师");
+        customer.setInvestAmount(new BigDecimal("200000"));
+
+        RiskAssessmentDto risk = new RiskAssessmentDto();
+        risk.setAgeRange("31-45岁");
+        risk.setAnnualIncome(2);
+        risk.setInvestmentAmount(new BigDecimal("200000"));
+        risk.setInvestmentExperience("1-3年");
+        risk.setMaxLoss(2);
+        risk.setInvestmentTarget("稳健增值");
+        risk.setInvestmentExpire("1-3年");
+
+        CustomerQuestionnaireRequest request = new CustomerQuestionnaireRequest();
+        request.setCustomerInfo(customer);
+        request.setRiskAssessment(risk);
+        return request;
+    }
+}
@@ -0,0 +1,110 @@
+package com.audit.customer.service;
+
+import com.audit.common.codec.UserAuditFormCodec;
+import com.audit.common.message.UserAuditFormMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 按优先级选择主题，以及消费端预过滤依赖的消息头
+ */
+class KafkaProducerServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private KafkaProducerService producerService;
+
+    @BeforeEach
+    void setUp() {
+        AuditPriorityPolicy priorityPolicy = new AuditPriorityPolicy();
+        ReflectionTestUtils.setField(priorityPolicy, "vipAmount", new BigDecimal("10000000"));
+        ReflectionTestUtils.setField(priorityPolicy, "highAmount", new BigDecimal("1000000"));
+
+        producerService = new KafkaProducerService();
+        ReflectionTestUtils.setField(producerService, "auditFormKafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(producerService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(producerService, "deliveryStatusUpdater", mock(AuditDeliveryStatusUpdater.class));
+        ReflectionTestUtils.setField(producerService, "auditPriorityPolicy", priorityPolicy);
+        ReflectionTestUtils.setField(producerService, "fastLaneEnabled", true);
+        ReflectionTestUtils.setField(producerService, "auditFormFormat", UserAuditFormCodec.FORMAT_PB1);
+
+        // 发送结果不完成，回调不会执行
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    void normalPriorityGoesToTheNormalTopic() {
+        ProducerRecord<String, byte[]> record = send(AuditPriorityPolicy.NORMAL);
+
+        assertEquals(UserAuditFormMessage.TOPIC, record.topic());
+        assertEquals("0", header(record, UserAuditFormCodec.PRIORITY_HEADER));
+    }
+
+    @Test
+    void prioritizedMessagesGoToTheFastLane() {
+        ProducerRecord<String, byte[]> high = send(AuditPriorityPolicy.HIGH);
+        assertEquals(UserAuditFormMessage.PRIORITY_TOPIC, high.topic());
+        assertEquals("1", header(high, UserAuditFormCodec.PRIORITY_HEADER));
+
+        ProducerRecord<String, byte[]> vip = send(AuditPriorityPolicy.VIP);
+        assertEquals(UserAuditFormMessage.PRIORITY_TOPIC, vip.topic());
+        assertEquals("2", header(vip, UserAuditFormCodec.PRIORITY_HEADER));
+    }
+
+    @Test
+    void disabledFastLaneKeepsEveryMessageOnTheNormalTopicWithItsPriority() {
+        ReflectionTestUtils.setField(producerService, "fastLaneEnabled", false);
+
+        ProducerRecord<String, byte[]> record = send(AuditPriorityPolicy.VIP);
+
+        assertEquals(UserAuditFormMessage.TOPIC, record.topic());
+        assertEquals("2", header(record, UserAuditFormCodec.PRIORITY_HEADER));
+    }
+
+    @Test
+    void recordCarriesKeyAndPrefilterHeaders() {
+        ProducerRecord<String, byte[]> record = send(AuditPriorityPolicy.HIGH);
+
+        assertEquals("42", record.key());
+        assertEquals("42", header(record, UserAuditFormCodec.AUDIT_LOG_ID_HEADER));
+        assertEquals(UserAuditFormCodec.FORMAT_PB1, header(record, UserAuditFormCodec.FORMAT_HEADER));
+        assertEquals("2024-06-11T09:30", header(record, UserAuditFormCodec.SUBMIT_TIME_HEADER));
+        assertEquals(42L, UserAuditFormCodec.decode(record.value()).getAuditLogId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> send(int priority) {
+        producerService.sendUserAuditFormMessage(new UserAuditFormMessage(42L, 7L,
+                new UserAuditFormMessage.FormData(), LocalDateTime.of(2024, 6, 11, 9, 30)), priority);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, atLeastOnce()).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        assertNotNull(header, name);
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,170 @@
+package com.audit.customer.service;
+
+import com.audit.customer.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleServiceTest {
+
+    private static final String ACCOUNT = "auditor01";
+    private static final String IP = "10.0.0.8";
+
+    private LoginThrottleService throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottleService();
+        ReflectionTestUtils.setField(throttle, "freeAttempts", 3);
+        ReflectionTestUtils.setField(throttle, "baseDelayMs", 1000L);
+        ReflectionTestUtils.setField(throttle, "maxDelayMs", 8000L);
+        ReflectionTestUtils.setField(throttle, "resetAfterMs", 900000L);
+        ReflectionTestUtils.setField(throttle, "ipMultiplier", 5);
+    }
+
+    @Test
+    void freeAttemptsAreNotDelayed() {
+        fail(ACCOUNT, IP, 3);
+
+        assertDoesNotThrow(() -> throttle.checkAllowed(ACCOUNT, IP));
+    }
+
+    @Test
+    void delayDoublesWithEveryFailureUpToTheMaximum() {
+        fail(ACCOUNT, IP, 4);
+        assertWaitSeconds(1);
+        fail(ACCOUNT, IP, 1);
+        assertWaitSeconds(2);
+        fail(ACCOUNT, IP, 1);
+        assertWaitSeconds(4);
+        fail(ACCOUNT, IP, 10);
+        assertWaitSeconds(8);
+    }
+
+    @Test
+    void slotPacksFailureCountAndLastFailureTime() {
+        long before = System.currentTimeMillis();
+        fail(ACCOUNT, IP, 5);
+        long after = System.currentTimeMillis();
+
+        long value = accountSlotValue();
+        assertEquals(5, value & 0xFFFFL);
+        long lastFailureAt = value >>> 16;
+        assertTrue(lastFailureAt >= before && lastFailureAt <= after);
+    }
+
+    @Test
+    void failureCountSaturatesWithoutCorruptingTheTimestamp() {
+        long now = System.currentTimeMillis();
+        setAccountSlotValue((now << 16) | 0xFFFFL);
+
+        throttle.recordFailure(ACCOUNT, IP);
+
+        long value = accountSlotValue();
+        assertEquals(0xFFFFL, value & 0xFFFFL);
+        assertTrue((value >>> 16) >= now);
+    }
+
+    @Test
+    void countersDecayAfterTheResetWindow() {
+        long longAgo = System.currentTimeMillis() - 900001L;
+        setAccountSlotValue((longAgo << 16) | 10);
+
+        assertDoesNotThrow(() -> throttle.checkAllowed(ACCOUNT, null));
+
+        throttle.recordFailure(ACCOUNT, null);
+        assertEquals(1, accountSlotValue() & 0xFFFFL);
+    }
+
+    @Test
+    void concurrentFailuresAreAllCounted() throws InterruptedException {
+        int threads = 8;
+        int perThread = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                fail(ACCOUNT, null, perThread);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, accountSlotValue() & 0xFFFFL);
+    }
+
+    @Test
+    void ipIsThrottledAcrossAccountsAfterItsOwnAllowance() {
+        for (int i = 0; i < 15; i++) {
+            throttle.recordFailure("account-" + i, IP);
+        }
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone-else", IP));
+
+        throttle.recordFailure("account-15", IP);
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("someone-else", IP));
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone-else", "10.0.0.9"));
+    }
+
+    @Test
+    void successClearsOnlyTheAccountCounter() {
+        fail(ACCOUNT, IP, 4);
+
+        throttle.recordSuccess(ACCOUNT);
+
+        assertDoesNotThrow(() -> throttle.checkAllowed(ACCOUNT, null));
+        assertEquals(4, ipSlotValue() & 0xFFFFL);
+    }
+
+    private void fail(String account, String ip, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.recordFailure(account, ip);
+        }
+    }
+
+    private void assertWaitSeconds(long seconds) {
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkAllowed(ACCOUNT, IP));
+        assertTrue(e.getMessage().contains("请" + seconds + "秒"), e.getMessage());
+    }
+
+    private long accountSlotValue() {
+        return counters("accountFailures").get(slot(ACCOUNT));
+    }
+
+    private long ipSlotValue() {
+        return counters("ipFailures").get(slot(IP));
+    }
+
+    private void setAccountSlotValue(long value) {
+        counters("accountFailures").set(slot(ACCOUNT), value);
+    }
+
+    private AtomicLongArray counters(String field) {
+        return (AtomicLongArray) ReflectionTestUtils.getField(throttle, field);
+    }
+
+    private int slot(String key) {
+        Integer slot = ReflectionTestUtils.invokeMethod(throttle, "slot", key);
+        return slot;
+    }
+}
@@ -0,0 +1,57 @@
+package com.audit.customer.service;
+
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.exception.CustomerAlreadyExistsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionnaireBatchWriterTest {
+
+    private final CustomerQuestionnaireService questionnaireService = mock(CustomerQuestionnaireService.class);
+
+    private QuestionnaireBatchWriter batchWriter;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = new QuestionnaireBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "customerQuestionnaireService", questionnaireService);
+    }
+
+    @Test
+    void wholeBatchIsCommittedInOneCall() {
+        List<CustomerQuestionnaireRequest> requests = List.of(new CustomerQuestionnaireRequest(), new CustomerQuestionnaireRequest());
+        when(questionnaireService.createCustomerQuestionnaires(requests)).thenReturn(List.of(1L, 2L));
+
+        assertEquals(List.of(1L, 2L), batchWriter.write(requests));
+        verify(questionnaireService, never()).createCustomerQuestionnaire(any());
+    }
+
+    @Test
+    void failedBatchFallsBackToOneRowAtATime() {
+        CustomerQuestionnaireRequest first = new CustomerQuestionnaireRequest();
+        CustomerQuestionnaireRequest second = new CustomerQuestionnaireRequest();
+        List<CustomerQuestionnaireRequest> requests = List.of(first, second);
+        when(questionnaireService.createCustomerQuestionnaires(requests))
+                .thenThrow(new DataIntegrityViolationException("uk_phone"));
+        when(questionnaireService.createCustomerQuestionnaire(first)).thenReturn(11L);
+        when(questionnaireService.createCustomerQuestionnaire(second))
+                .thenThrow(new CustomerAlreadyExistsException("客户已存在"));
+
+        List<Object> results = batchWriter.write(requests);
+
+        assertEquals(11L, results.get(0));
+        assertTrue(results.get(1) instanceof CustomerAlreadyExistsException);
+    }
+}
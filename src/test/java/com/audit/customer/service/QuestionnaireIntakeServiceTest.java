@@ -0,0 +1,163 @@
+package com.audit.customer.service;
+
+import com.audit.customer.controller.CustomerQuestionnaireController;
+import com.audit.customer.dto.ApiResponse;
+import com.audit.customer.dto.CustomerQuestionnaireRequest;
+import com.audit.customer.dto.QuestionnaireTicketResponse;
+import com.audit.customer.entity.QuestionnaireTicket;
+import com.audit.customer.exception.CustomerAlreadyExistsException;
+import com.audit.customer.exception.TooManyRequestsException;
+import com.audit.customer.repository.QuestionnaireTicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BindingResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步受理：队列满返回503、组提交结果回填凭证、凭证落库与过期清理
+ */
+class QuestionnaireIntakeServiceTest {
+
+    private final QuestionnaireBatchWriter batchWriter = mock(QuestionnaireBatchWriter.class);
+    private final QuestionnaireTicketRepository ticketRepository = mock(QuestionnaireTicketRepository.class);
+
+    private QuestionnaireIntakeService intakeService;
+
+    @BeforeEach
+    void setUp() {
+        intakeService = new QuestionnaireIntakeService();
+        ReflectionTestUtils.setField(intakeService, "questionnaireBatchWriter", batchWriter);
+        ReflectionTestUtils.setField(intakeService, "questionnaireTicketRepository", ticketRepository);
+        ReflectionTestUtils.setField(intakeService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(intakeService, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(intakeService, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(intakeService, "ticketTtlMs", 3600000L);
+        when(ticketRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        intakeService.stop();
+    }
+
+    @Test
+    void fullQueueIsRejectedWith503() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<Object> results = new ArrayList<>();
+            for (int i = 0; i < invocation.<List<?>>getArgument(0).size(); i++) {
+                results.add((long) i);
+            }
+            return results;
+        });
+        ReflectionTestUtils.setField(intakeService, "maxWaitMs", 0L);
+        intakeService.start();
+
+        // 第一份被写入线程取走并阻塞，第二份占满队列
+        intakeService.submit(new CustomerQuestionnaireRequest());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        intakeService.submit(new CustomerQuestionnaireRequest());
+        assertThrows(TooManyRequestsException.class, () -> intakeService.submit(new CustomerQuestionnaireRequest()));
+
+        CustomerQuestionnaireController controller = new CustomerQuestionnaireController();
+        ReflectionTestUtils.setField(controller, "questionnaireIntakeService", intakeService);
+        ResponseEntity<ApiResponse<QuestionnaireTicketResponse>> response =
+                controller.submitQuestionnaireAsync(new CustomerQuestionnaireRequest(), mock(BindingResult.class));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        release.countDown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void groupCommitResultsAreWrittenBackToEachTicket() throws InterruptedException {
+        ReflectionTestUtils.setField(intakeService, "queueCapacity", 10);
+        when(batchWriter.write(anyList())).thenReturn(
+                List.of(101L, new CustomerAlreadyExistsException("客户已存在"), new IllegalStateException("db")));
+        intakeService.start();
+
+        String created = intakeService.submit(new CustomerQuestionnaireRequest());
+        String duplicate = intakeService.submit(new CustomerQuestionnaireRequest());
+        String failed = intakeService.submit(new CustomerQuestionnaireRequest());
+
+        QuestionnaireTicketResponse createdTicket = awaitCompletion(created);
+        assertEquals(QuestionnaireTicketResponse.STATUS_COMPLETED, createdTicket.getStatus());
+        assertEquals(101L, createdTicket.getCustomerId());
+        assertEquals(QuestionnaireTicketResponse.STATUS_DUPLICATE, awaitCompletion(duplicate).getStatus());
+        assertEquals(QuestionnaireTicketResponse.STATUS_FAILED, awaitCompletion(failed).getStatus());
+
+        ArgumentCaptor<List<QuestionnaireTicket>> saved = ArgumentCaptor.forClass(List.class);
+        verify(ticketRepository, atLeastOnce()).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        assertEquals(created, saved.getValue().get(0).getTicket());
+        assertEquals(101L, saved.getValue().get(0).getCustomerId());
+    }
+
+    @Test
+    void ticketsCompletedOnAnotherInstanceAreReadFromTheDatabase() {
+        when(ticketRepository.findById("remote")).thenReturn(Optional.of(new QuestionnaireTicket(
+                "remote", QuestionnaireTicketResponse.STATUS_COMPLETED, 7L, "问卷提交成功", LocalDateTime.now())));
+        intakeService.start();
+
+        QuestionnaireTicketResponse ticket = intakeService.getTicket("remote").orElseThrow();
+
+        assertEquals(QuestionnaireTicketResponse.STATUS_COMPLETED, ticket.getStatus());
+        assertEquals(7L, ticket.getCustomerId());
+        assertFalse(intakeService.getTicket("unknown").isPresent());
+    }
+
+    @Test
+    void expiredTicketsAreEvictedFromMemoryAndTheDatabase() throws InterruptedException {
+        when(batchWriter.write(anyList())).thenReturn(List.of(101L));
+        intakeService.start();
+        String ticket = intakeService.submit(new CustomerQuestionnaireRequest());
+        awaitCompletion(ticket);
+
+        Thread.sleep(5);
+        ReflectionTestUtils.setField(intakeService, "ticketTtlMs", 1L);
+        ReflectionTestUtils.setField(intakeService, "lastEvictionAt", 0L);
+        ReflectionTestUtils.invokeMethod(intakeService, "evictExpiredTickets");
+
+        assertFalse(intakeService.getTicket(ticket).isPresent());
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(ticketRepository).deleteCompletedBefore(cutoff.capture());
+        assertTrue(cutoff.getValue().isAfter(LocalDateTime.now().minusSeconds(5)));
+    }
+
+    private QuestionnaireTicketResponse awaitCompletion(String ticket) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<QuestionnaireTicketResponse> response = intakeService.getTicket(ticket);
+            if (response.isPresent() && !QuestionnaireTicketResponse.STATUS_PENDING.equals(response.get().getStatus())) {
+                return response.get();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("ticket " + ticket + " was not completed");
+    }
+}
@@ -0,0 +1,136 @@
+package com.audit.customer.service;
+
+import com.audit.customer.entity.AuditorRefreshToken;
+import com.audit.customer.repository.AuditorRefreshTokenRepository;
+import com.audit.customer.util.PiiAttributeConverter;
+import com.audit.customer.util.PiiProtector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 刷新令牌的轮换、重用检测、过期和注销（H2内存库）
+ * 测试方法不包在事务里，每次服务调用各自提交，才能验证重用检测抛出异常后吊销仍然生效
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RefreshTokenService.class, PiiAttributeConverter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final Long AUDITOR = 1L;
+    private static final Long OTHER_AUDITOR = 2L;
+
+    @MockBean
+    private PiiProtector piiProtector;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuditorRefreshTokenRepository refreshTokenRepository;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void tokenCanBeUsedOnlyOnce() {
+        String token = refreshTokenService.issue(AUDITOR);
+
+        assertEquals(AUDITOR, refreshTokenService.consume(token));
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume(token));
+    }
+
+    @Test
+    void onlyTheHashIsStored() {
+        String token = refreshTokenService.issue(AUDITOR);
+
+        AuditorRefreshToken stored = refreshTokenRepository.findByTokenHash(sha256(token)).orElseThrow();
+        assertNotEquals(token, stored.getTokenHash());
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesEveryTokenOfThatAuditor() {
+        String rotated = refreshTokenService.issue(AUDITOR);
+        refreshTokenService.consume(rotated);
+        String current = refreshTokenService.issue(AUDITOR);
+        String otherAuditors = refreshTokenService.issue(OTHER_AUDITOR);
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume(rotated));
+
+        // 异常没有回滚吊销
+        assertTrue(stored(current).getRevoked());
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume(current));
+        assertFalse(stored(otherAuditors).getRevoked());
+        assertEquals(OTHER_AUDITOR, refreshTokenService.consume(otherAuditors));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = refreshTokenService.issue(AUDITOR);
+        AuditorRefreshToken stored = stored(token);
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepository.save(stored);
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume(token));
+        assertFalse(stored(token).getRevoked());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume("not-a-token"));
+    }
+
+    @Test
+    void logoutRevokesTheToken() {
+        String token = refreshTokenService.issue(AUDITOR);
+
+        refreshTokenService.revoke(token);
+
+        assertTrue(stored(token).getRevoked());
+        assertThrows(RuntimeException.class, () -> refreshTokenService.consume(token));
+    }
+
+    @Test
+    void revokeAllCountsOnlyActiveTokens() {
+        String used = refreshTokenService.issue(AUDITOR);
+        refreshTokenService.consume(used);
+        refreshTokenService.issue(AUDITOR);
+        refreshTokenService.issue(AUDITOR);
+        refreshTokenService.issue(OTHER_AUDITOR);
+
+        assertEquals(2, refreshTokenService.revokeAll(AUDITOR));
+        assertEquals(0, refreshTokenService.revokeAll(AUDITOR));
+    }
+
+    private AuditorRefreshToken stored(String token) {
+        return refreshTokenRepository.findByTokenHash(sha256(token)).orElseThrow();
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.audit.customer.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-jwt-secret-key-for-sm4-encryption-0123456789";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheMaxSize", 100);
+        ReflectionTestUtils.setField(jwtUtil, "acceptLegacyFormat", true);
+        jwtUtil.init();
+    }
+
+    @Test
+    void decodesEnvelopeTokenAndServesRepeatsFromCache() {
+        String token = jwtUtil.generateToken(42L, "审核员甲", 2);
+
+        for (int i = 0; i < 2; i++) {
+            JwtUtil.AuditorInfo info = jwtUtil.validateTokenAndGetAuditorInfo(token);
+            assertEquals(42L, info.getAuditorId());
+            assertEquals("审核员甲", info.getUsername());
+            assertEquals(2, info.getStage());
+        }
+    }
+
+    @Test
+    void cachedLegacyTokenIsRejectedOnceLegacyFormatIsDisabled() throws Exception {
+        String token = legacyToken(7L, "auditor7", 1);
+        assertEquals(7L, jwtUtil.validateTokenAndGetAuditorInfo(token).getAuditorId());
+
+        ReflectionTestUtils.setField(jwtUtil, "acceptLegacyFormat", false);
+
+        assertThrows(RuntimeException.class, () -> jwtUtil.validateTokenAndGetAuditorInfo(token));
+    }
+
+    @Test
+    void envelopeTokensStillWorkWhenLegacyFormatIsDisabled() {
+        String token = jwtUtil.generateToken(8L, "auditor8", 3);
+        jwtUtil.validateTokenAndGetAuditorInfo(token);
+
+        ReflectionTestUtils.setField(jwtUtil, "acceptLegacyFormat", false);
+
+        assertEquals(8L, jwtUtil.validateTokenAndGetAuditorInfo(token).getAuditorId());
+    }
+
+    @Test
+    void envelopeTokenIsShorterThanLegacyToken() throws Exception {
+        String envelope = jwtUtil.generateToken(10086L, "auditor-10086", 2);
+        String legacy = legacyToken(10086L, "auditor-10086", 2);
+
+        assertTrue(envelope.length() < legacy.length(),
+                "envelope " + envelope.length() + " vs legacy " + legacy.length() + " characters");
+    }
+
+    @Test
+    void fullCacheEvictsEntriesSoNewTokensAreStillCached() {
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheMaxSize", 4);
+        String last = null;
+        for (long id = 1; id <= 10; id++) {
+            last = jwtUtil.generateToken(id, "auditor" + id, 1);
+            jwtUtil.validateTokenAndGetAuditorInfo(last);
+        }
+
+        Map<String, ?> cache = tokenCache();
+        assertTrue(cache.size() <= 4, "cache grew to " + cache.size());
+        assertTrue(cache.containsKey(ReflectionTestUtils.invokeMethod(jwtUtil, "hashToken", last)));
+    }
+
+    @Test
+    void nonPositiveMaxSizeDisablesTheCache() {
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheMaxSize", 0);
+        String token = jwtUtil.generateToken(9L, "auditor9", 1);
+
+        assertEquals(9L, jwtUtil.validateTokenAndGetAuditorInfo(token).getAuditorId());
+        assertTrue(tokenCache().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> tokenCache() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(jwtUtil, "verifiedTokenCache");
+    }
+
+    /**
+     * 旧格式：eid/eum/est三个字段分别SM4加密
+     */
+    private static String legacyToken(Long auditorId, String username, Integer stage) throws Exception {
+        SecretKey sm4Key = SM4Util.getKeyFromString(SECRET);
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(Map.of(
+                        "eid", SM4Util.encrypt(auditorId.toString(), sm4Key),
+                        "eum", SM4Util.encrypt(username, sm4Key),
+                        "est", SM4Util.encrypt(stage.toString(), sm4Key)))
+                .subject(username)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3600000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,109 @@
+package com.audit.customer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordScannerTest {
+
+    private static final String[] KEYWORDS = {
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter",
+        "exec", "script", "javascript", "vbscript", "onload", "onerror"
+    };
+
+    // 改动前SecurityUtil使用的关键词，改为find()语义（原写法的.*不跨行）
+    private static final Pattern REFERENCE = Pattern.compile(
+        "(?i)(union|select|insert|update|delete|drop|create|alter|exec|script|javascript|vbscript|onload|onerror)");
+
+    private final KeywordScanner scanner = new KeywordScanner(KEYWORDS);
+
+    @Test
+    void findsKeywordsAnywhereInTheInput() {
+        assertTrue(scanner.containsAny("select"));
+        assertTrue(scanner.containsAny("1; DROP TABLE customer_info"));
+        assertTrue(scanner.containsAny("name' UNION ALL SELECT password --"));
+        assertTrue(scanner.containsAny("<img src=x onerror=alert(1)>"));
+        assertFalse(scanner.containsAny("张三"));
+        assertFalse(scanner.containsAny(""));
+        assertFalse(scanner.containsAny(null));
+    }
+
+    @Test
+    void ignoresAsciiCase() {
+        assertTrue(scanner.containsAny("SeLeCt"));
+        assertTrue(scanner.containsAny("JavaScript:void(0)"));
+        assertTrue(scanner.containsAny("OnLoAd"));
+    }
+
+    @Test
+    void handlesOverlappingAndPartialMatches() {
+        // 部分匹配失败后要从失败指针继续，而不是回到起点
+        assertTrue(scanner.containsAny("seselect"));
+        assertTrue(scanner.containsAny("exexec"));
+        assertTrue(scanner.containsAny("uniunion"));
+        assertTrue(scanner.containsAny("onloonerror"));
+        // 关键词作为其他关键词的后缀
+        assertTrue(scanner.containsAny("vbscrip-t script"));
+        assertTrue(scanner.containsAny("xvbscript"));
+        assertFalse(scanner.containsAny("selec unio exe scrip javascrip onloa"));
+    }
+
+    @Test
+    void nonLetterCharactersBreakAMatch() {
+        assertFalse(scanner.containsAny("sel ect"));
+        assertFalse(scanner.containsAny("sel\nect"));
+        assertFalse(scanner.containsAny("sel中ect"));
+        assertTrue(scanner.containsAny("备注\nselect"));
+    }
+
+    @Test
+    void doesNotFoldNonAsciiLookalikes() {
+        // 与(?i)一致只折叠ASCII：全角字母、土耳其语ı和开尔文符号K都不是关键词字母
+        assertFalse(scanner.containsAny("ｓｅｌｅｃｔ"));
+        assertFalse(scanner.containsAny("unıon"));
+        assertFalse(scanner.containsAny("Kexec".substring(0, 1)));
+        assertTrue(scanner.containsAny("ｓｅｌｅｃｔ select"));
+    }
+
+    @Test
+    void agreesWithTheRegexOnRandomInput() {
+        Random random = new Random(20240611L);
+        String alphabet = "selctunioxavbrpdgwhmSELCTUNIO \n;'-中é";
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (random.nextInt(4) == 0) {
+                input.insert(random.nextInt(input.length() + 1), KEYWORDS[random.nextInt(KEYWORDS.length)]);
+            }
+            String text = input.toString();
+            assertEquals(REFERENCE.matcher(text).find(), scanner.containsAny(text), text);
+        }
+    }
+
+    @Test
+    void scansLongAdversarialInputInLinearTime() {
+        // 反复出现关键词前缀却不完成匹配，回溯式匹配在这类输入上会退化
+        String text = "unioselecexejavascripvbscriponerro".repeat(100000);
+
+        assertTimeout(Duration.ofSeconds(2), () -> assertFalse(scanner.containsAny(text)));
+        assertTimeout(Duration.ofSeconds(2), () -> assertTrue(scanner.containsAny(text + "Drop")));
+    }
+
+    @Test
+    void rejectsUnsupportedKeywords() {
+        assertThrows(IllegalArgumentException.class, () -> new KeywordScanner(""));
+        assertThrows(IllegalArgumentException.class, () -> new KeywordScanner("drop table"));
+        assertThrows(IllegalArgumentException.class, () -> new KeywordScanner("删除"));
+    }
+}
@@ -0,0 +1,23 @@
+package com.audit.customer.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PiiAttributeConverterTest {
+
+    @Test
+    void writesCiphertextAndReadsBothCiphertextAndLegacyPlaintext() {
+        PiiAttributeConverter converter = new PiiAttributeConverter();
+        ReflectionTestUtils.setField(converter, "piiProtector", PiiProtectorTest.protector(true,
+                PiiProtectorTest.ENCRYPTION_KEY, PiiProtectorTest.BLIND_INDEX_KEY));
+
+        String column = converter.convertToDatabaseColumn("13800138000");
+
+        assertTrue(column.startsWith("sm4:"), column);
+        assertEquals("13800138000", converter.convertToEntityAttribute(column));
+        assertEquals("13800138000", converter.convertToEntityAttribute("13800138000"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.audit.customer.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PiiProtectorTest {
+
+    static final String ENCRYPTION_KEY = "00112233445566778899aabbccddeeff";
+    static final String BLIND_INDEX_KEY = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+
+    @Test
+    void encryptedValueRoundTrips() {
+        PiiProtector protector = protector(true, ENCRYPTION_KEY, BLIND_INDEX_KEY);
+
+        String stored = protector.encrypt("13800138000");
+
+        assertTrue(stored.startsWith("sm4:"), stored);
+        assertEquals("13800138000", protector.decrypt(stored));
+        // 每次加密使用新的IV
+        assertNotEquals(stored, protector.encrypt("13800138000"));
+    }
+
+    @Test
+    void plaintextFromBeforeTheMigrationIsReturnedAsIs() {
+        PiiProtector protector = protector(true, ENCRYPTION_KEY, BLIND_INDEX_KEY);
+
+        assertEquals("11010119900307123X", protector.decrypt("11010119900307123X"));
+        assertNull(protector.decrypt(null));
+    }
+
+    @Test
+    void disabledEncryptionStoresPlaintextWithoutAnEncryptionKey() {
+        PiiProtector protector = protector(false, null, BLIND_INDEX_KEY);
+
+        assertEquals("13800138000", protector.encrypt("13800138000"));
+        assertEquals(64, protector.blindIndex("13800138000").length());
+    }
+
+    @Test
+    void blindIndexIgnoresSurroundingSpacesAndCase() {
+        PiiProtector protector = protector(true, ENCRYPTION_KEY, BLIND_INDEX_KEY);
+
+        String expected = protector.blindIndex("11010119900307123X");
+
+        assertEquals(expected, protector.blindIndex(" 11010119900307123x "));
+        assertNotEquals(expected, protector.blindIndex("110101199003071230"));
+        assertNull(protector.blindIndex(null));
+    }
+
+    @Test
+    void blindIndexDependsOnTheKey() {
+        String other = "ffeeddccbbaa99887766554433221100";
+
+        assertNotEquals(protector(false, null, BLIND_INDEX_KEY).blindIndex("13800138000"),
+                protector(false, null, other).blindIndex("13800138000"));
+    }
+
+    @Test
+    void startupFailsWithoutUsableKeys() {
+        // 开启加密时SM4密钥必须是16字节
+        assertThrows(IllegalStateException.class, () -> protector(true, null, BLIND_INDEX_KEY));
+        assertThrows(IllegalStateException.class, () -> protector(true, "", BLIND_INDEX_KEY));
+        assertThrows(IllegalStateException.class, () -> protector(true, "audit-system-pii-sm4-key", BLIND_INDEX_KEY));
+        assertThrows(IllegalStateException.class, () -> protector(true, "0011223344556677", BLIND_INDEX_KEY));
+        // 盲索引密钥始终必填，至少16字节
+        assertThrows(IllegalStateException.class, () -> protector(false, null, null));
+        assertThrows(IllegalStateException.class, () -> protector(false, null, "0011223344556677"));
+        assertThrows(IllegalStateException.class, () -> protector(true, ENCRYPTION_KEY, "not a key!"));
+    }
+
+    static PiiProtector protector(boolean enabled, String encryptionKey, String blindIndexKey) {
+        PiiProtector protector = new PiiProtector();
+        ReflectionTestUtils.setField(protector, "encryptionEnabled", enabled);
+        ReflectionTestUtils.setField(protector, "encryptionKey", encryptionKey);
+        ReflectionTestUtils.setField(protector, "blindIndexKey", blindIndexKey);
+        protector.init();
+        return protector;
+    }
+}
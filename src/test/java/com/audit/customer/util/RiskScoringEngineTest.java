@@ -0,0 +1,95 @@
+package com.audit.customer.util;
+
+import com.audit.common.enums.RiskType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RiskScoringEngineTest {
+
+    private static final String[] AGES = {null, "18-30岁", "31-45岁", "46-60岁", "60岁以上", "未知"};
+    private static final Integer[] INCOMES = {null, 0, 1, 2, 3, 4, 5};
+    private static final String[] EXPERIENCES = {null, "5年以上", "3-5年", "1-3年", "无经验",
+            "5年以上投资经验", "3-5年投资经验", "1-3年投资经验", "无投资经验", "其他"};
+    private static final Integer[] MAX_LOSSES = {null, 0, 1, 2, 3, 4, 5};
+    private static final String[] TARGETS = {null, "追求高收益", "积极增长", "稳健增值", "资产保值", "其他"};
+    private static final String[] EXPIRES = {null, "5年以上", "3-5年", "1-3年", "1年以内", "其他"};
+
+    @Test
+    void matchesTheFrontendScoringForEveryAnswerCombination() {
+        for (String age : AGES) {
+            for (Integer income : INCOMES) {
+                for (String experience : EXPERIENCES) {
+                    for (Integer maxLoss : MAX_LOSSES) {
+                        for (String target : TARGETS) {
+                            for (String expire : EXPIRES) {
+                                assertEquals(
+                                        frontendScore(age, income, experience, maxLoss, target, expire),
+                                        RiskScoringEngine.score(age, income, experience, maxLoss, target, expire),
+                                        age + "/" + income + "/" + experience + "/" + maxLoss + "/" + target + "/" + expire);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void clampsToTheScoreRange() {
+        assertEquals(100, RiskScoringEngine.score("18-30岁", 4, "5年以上", 4, "追求高收益", "5年以上"));
+        assertEquals(15, RiskScoringEngine.score("60岁以上", 1, "无经验", 1, "资产保值", "1年以内"));
+        assertEquals(RiskScoringEngine.BASE_SCORE, RiskScoringEngine.score(null, null, null, null, null, null));
+    }
+
+    @Test
+    void riskTypeBoundariesMatchTheFrontendBadges() {
+        assertEquals(RiskType.CONSERVATIVE, RiskType.fromScore(0));
+        assertEquals(RiskType.CONSERVATIVE, RiskType.fromScore(39));
+        assertEquals(RiskType.BALANCED, RiskType.fromScore(40));
+        assertEquals(RiskType.BALANCED, RiskType.fromScore(69));
+        assertEquals(RiskType.AGGRESSIVE, RiskType.fromScore(70));
+        assertEquals(RiskType.AGGRESSIVE, RiskType.fromScore(100));
+        assertThrows(IllegalArgumentException.class, () -> RiskType.fromScore(-1));
+        assertThrows(IllegalArgumentException.class, () -> RiskType.fromScore(101));
+        assertThrows(IllegalArgumentException.class, () -> RiskType.fromScore(null));
+    }
+
+    /**
+     * frontend/utils/riskScoring.ts calculateRiskScore的逐行翻译，收入和亏损按代码表示
+     */
+    static int frontendScore(String age, Integer income, String experience,
+                             Integer maxLoss, String target, String expire) {
+        int score = 50;
+
+        if ("18-30岁".equals(age)) score += 15;
+        else if ("31-45岁".equals(age)) score += 10;
+        else if ("46-60岁".equals(age)) score += 5;
+        else if ("60岁以上".equals(age)) score -= 10;
+
+        if (income != null && income == 4) score += 15;
+        else if (income != null && income == 3) score += 10;
+        else if (income != null && income == 2) score += 5;
+
+        if (experience != null && experience.startsWith("5年以上")) score += 15;
+        else if (experience != null && experience.startsWith("3-5年")) score += 10;
+        else if (experience != null && experience.startsWith("1-3年")) score += 5;
+
+        if (maxLoss != null && maxLoss == 4) score += 20;
+        else if (maxLoss != null && maxLoss == 3) score += 10;
+        else if (maxLoss != null && maxLoss == 2) score += 5;
+        else if (maxLoss != null && maxLoss == 1) score -= 10;
+
+        if ("追求高收益".equals(target)) score += 15;
+        else if ("积极增长".equals(target)) score += 10;
+        else if ("稳健增值".equals(target)) score += 5;
+        else if ("资产保值".equals(target)) score -= 5;
+
+        if ("5年以上".equals(expire)) score += 10;
+        else if ("3-5年".equals(expire)) score += 5;
+        else if ("1年以内".equals(expire)) score -= 10;
+
+        return Math.max(0, Math.min(100, score));
+    }
+}
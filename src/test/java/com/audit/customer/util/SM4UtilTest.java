@@ -0,0 +1,99 @@
+package com.audit.customer.util;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SM4UtilTest {
+
+    private final SecretKey key = SM4Util.getKeyFromString("audit-jwt-sm4-key");
+
+    @Test
+    void roundTripsUnicodeAndEmptyText() throws Exception {
+        for (String text : new String[] {"", "auditor-1", "张三 13800000000", "a".repeat(1000)}) {
+            assertEquals(text, SM4Util.decrypt(SM4Util.encrypt(text, key), key));
+        }
+    }
+
+    @Test
+    void usesAFreshIvForEveryEncryption() throws Exception {
+        Set<String> ciphertexts = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            ciphertexts.add(SM4Util.encrypt("same", key));
+        }
+        assertEquals(100, ciphertexts.size());
+    }
+
+    @Test
+    void decryptsDataEncryptedInTheOriginalFormat() throws Exception {
+        // 改动前的写法：新建Provider和Cipher，输出Base64(IV || 密文)
+        byte[] iv = new byte[16];
+        for (int i = 0; i < iv.length; i++) {
+            iv[i] = (byte) i;
+        }
+        Cipher cipher = Cipher.getInstance("SM4/CBC/PKCS5Padding", new BouncyCastleProvider());
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal("审核员-42".getBytes(StandardCharsets.UTF_8));
+        byte[] data = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, data, 0, iv.length);
+        System.arraycopy(encrypted, 0, data, iv.length, encrypted.length);
+
+        assertEquals("审核员-42", SM4Util.decrypt(Base64.getEncoder().encodeToString(data), key));
+    }
+
+    @Test
+    void bulkHelpersKeepOrderAndNulls() throws Exception {
+        String[] encrypted = SM4Util.encryptAll(key, "1", null, "李四");
+        assertNull(encrypted[1]);
+        assertArrayEquals(new String[] {"1", null, "李四"}, SM4Util.decryptAll(key, encrypted));
+    }
+
+    @Test
+    void rejectsDataShorterThanIv() {
+        assertThrows(GeneralSecurityException.class, () -> SM4Util.decryptBytes(new byte[16], key));
+    }
+
+    @Test
+    void threadLocalCiphersAreSafeUnderConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String text = "t" + thread + "-" + i;
+                        if (!text.equals(SM4Util.decrypt(SM4Util.encrypt(text, key), key))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}